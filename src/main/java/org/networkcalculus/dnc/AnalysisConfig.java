@@ -76,6 +76,14 @@ public class AnalysisConfig {
 	private boolean arrival_bounds_caching = true;
     private boolean flow_prolongation = false;
     private boolean server_backlog_arrival_bound = false;
+    
+    /**
+     * Alternative arrival bounds that are not convolved can be pruned: bounds that lie pointwise
+     * above another one are dropped if enabled and at most <code>max_alternative_arrival_bounds</code> are kept.
+     * Both are opt-in, FIFO results can change marginally with pruning.
+     */
+    private boolean prune_dominated_arrival_bounds = false;
+    private int max_alternative_arrival_bounds = Integer.MAX_VALUE;
     public static String path_to_cplex ="";
     public static String path_to_lp_dir ="";
     
@@ -89,7 +97,7 @@ public class AnalysisConfig {
                           boolean convolve_alternative_arrival_bounds, boolean arrival_bounds_caching, 
                           boolean server_backlog_arrival_bound) {
         this.multiplexing_enforcement = multiplexing_enforcement;
-        multiplexing_enforcement_static = multiplexing_enforcement;
+        setMultiplexingEnforcementStatic(multiplexing_enforcement);
         this.enforce_max_sc = enforce_max_sc;
         this.enforce_max_sc_output_rate = enforce_max_sc_output_rate;
         this.arrival_bound_methods.clear();
@@ -104,13 +112,30 @@ public class AnalysisConfig {
         return multiplexing_enforcement;
     }
 
+    /**
+     * @return the multiplexing enforcement of the {@link CalculationContext} bound to this thread,
+     * the one of the most recently created or changed configuration if there is none.
+     */
     public static MultiplexingEnforcement enforceMultiplexingStatic() {
+        CalculationContext context = CalculationContext.current();
+        if (context != null) {
+            return context.enforceMultiplexing();
+        }
         return multiplexing_enforcement_static;
     }
 
+    private static void setMultiplexingEnforcementStatic(MultiplexingEnforcement enforcement) {
+        CalculationContext context = CalculationContext.current();
+        if (context != null) {
+            context.enforceMultiplexing(enforcement);
+        } else {
+            multiplexing_enforcement_static = enforcement;
+        }
+    }
+
     public void enforceMultiplexing(MultiplexingEnforcement enforcement) {
         multiplexing_enforcement = enforcement;
-        multiplexing_enforcement_static = enforcement;
+        setMultiplexingEnforcementStatic(enforcement);
     }
 
     public MaxScEnforcement enforceMaxSC() {
@@ -192,6 +217,31 @@ public class AnalysisConfig {
         this.server_backlog_arrival_bound = server_backlog_arrival_bound;
     }
 
+    public boolean pruneDominatedArrivalBounds() {
+        return prune_dominated_arrival_bounds;
+    }
+
+    public void setPruneDominatedArrivalBounds(boolean prune_dominated_abs) {
+        prune_dominated_arrival_bounds = prune_dominated_abs;
+    }
+
+    public int maxAlternativeArrivalBounds() {
+        return max_alternative_arrival_bounds;
+    }
+
+    /**
+     * Limits the number of alternative arrival bounds that are not convolved.
+     * Dropping alternatives keeps the results valid but they may become less tight.
+     *
+     * @param max_alt_abs The maximum number of alternatives, <code>Integer.MAX_VALUE</code> for no limit.
+     */
+    public void setMaxAlternativeArrivalBounds(int max_alt_abs) {
+        if (max_alt_abs < 1) {
+            throw new IllegalArgumentException("At least one arrival bound must be kept.");
+        }
+        max_alternative_arrival_bounds = max_alt_abs;
+    }
+
     public boolean useFlowProlongation() {
         return flow_prolongation;
     }
@@ -206,16 +256,20 @@ public class AnalysisConfig {
      * @return The copy.
      */
     public AnalysisConfig copy() { // deep copy as primitive data types are copied by value
-        return new AnalysisConfig(multiplexing_enforcement, enforce_max_sc, enforce_max_sc_output_rate, 
+        AnalysisConfig copy = new AnalysisConfig(multiplexing_enforcement, enforce_max_sc, enforce_max_sc_output_rate, 
 					        		arrival_bound_methods,
 					                convolve_alternative_arrival_bounds, arrival_bounds_caching,
 					                server_backlog_arrival_bound);
+        copy.prune_dominated_arrival_bounds = prune_dominated_arrival_bounds;
+        copy.max_alternative_arrival_bounds = max_alternative_arrival_bounds;
+        return copy;
     }
 
     @Override
 	public int hashCode() {
 		return Objects.hash(multiplexing_enforcement, enforce_max_sc, enforce_max_sc_output_rate, arrival_bound_methods,
-				convolve_alternative_arrival_bounds, server_backlog_arrival_bound);
+				convolve_alternative_arrival_bounds, server_backlog_arrival_bound,
+				prune_dominated_arrival_bounds, max_alternative_arrival_bounds);
 	}
 
 	@Override
@@ -233,7 +287,9 @@ public class AnalysisConfig {
 				Objects.equals(this.enforce_max_sc_output_rate, other.enforce_max_sc_output_rate) &&
 				Objects.equals(this.arrival_bound_methods, other.arrival_bound_methods) &&
 				Objects.equals(this.convolve_alternative_arrival_bounds, other.convolve_alternative_arrival_bounds) &&
-				Objects.equals(this.server_backlog_arrival_bound, other.server_backlog_arrival_bound);
+				Objects.equals(this.server_backlog_arrival_bound, other.server_backlog_arrival_bound) &&
+				this.prune_dominated_arrival_bounds == other.prune_dominated_arrival_bounds &&
+				this.max_alternative_arrival_bounds == other.max_alternative_arrival_bounds;
 	}
 
 	@Override
@@ -261,6 +317,15 @@ public class AnalysisConfig {
         if (convolveAlternativeArrivalBounds()) {
             analysis_config_str.append(", ");
             analysis_config_str.append("convolve_ABs");
+        } else {
+            if (pruneDominatedArrivalBounds()) {
+                analysis_config_str.append(", ");
+                analysis_config_str.append("prune_ABs");
+            }
+            if (maxAlternativeArrivalBounds() != Integer.MAX_VALUE) {
+                analysis_config_str.append(", ");
+                analysis_config_str.append("max_ABs " + maxAlternativeArrivalBounds());
+            }
         }
 
         if (useFlowProlongation()) {
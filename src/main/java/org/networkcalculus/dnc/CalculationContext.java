@@ -0,0 +1,160 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+
+package org.networkcalculus.dnc;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.networkcalculus.dnc.AnalysisConfig.MultiplexingEnforcement;
+import org.networkcalculus.num.NumBackend;
+
+/**
+ * The settings a calculation depends on: the number backend, the curve backend
+ * and the multiplexing enforcement that, e.g., decides how curves are
+ * beautified.<br>
+ * By default, these settings are global, i.e., the ones of
+ * <code>Calculator.getInstance()</code> and
+ * <code>AnalysisConfig.enforceMultiplexingStatic()</code>. While a context is
+ * bound to a thread with <code>run(...)</code> or <code>call(...)</code>, the
+ * thread uses the context's settings instead. The constant curves of
+ * {@link org.networkcalculus.dnc.curves.Curve_ConstantPool} are resolved for the
+ * context's backends, too. Analyses with different settings can thus run
+ * concurrently in different threads.<br>
+ * Creating an <code>AnalysisConfig</code> or changing its multiplexing
+ * enforcement in a thread with a bound context changes the context's
+ * multiplexing enforcement rather than the global one.
+ */
+public final class CalculationContext {
+	private static final ThreadLocal<CalculationContext> bound_context = new ThreadLocal<CalculationContext>();
+
+	// Number of threads with a bound context. As long as it is zero,
+	// looking up the context does not need to access the thread-local variable.
+	private static final AtomicInteger bound_context_count = new AtomicInteger();
+
+	private final Calculator calculator;
+	private volatile MultiplexingEnforcement multiplexing_enforcement;
+
+	public CalculationContext(NumBackend num_backend, AlgDncBackend dnc_backend,
+			MultiplexingEnforcement multiplexing_enforcement) {
+		this.calculator = new Calculator(num_backend, dnc_backend);
+		this.multiplexing_enforcement = multiplexing_enforcement;
+	}
+
+	/**
+	 * @return a context with the settings currently used by this thread.
+	 */
+	public static CalculationContext copyOfCurrent() {
+		Calculator calculator = Calculator.getInstance();
+		return new CalculationContext(calculator.getNumBackend(), calculator.getDncBackend(),
+				AnalysisConfig.enforceMultiplexingStatic());
+	}
+
+	/**
+	 * @return the context bound to this thread, <code>null</code> if there is none.
+	 */
+	public static CalculationContext current() {
+		if (bound_context_count.get() == 0) {
+			return null;
+		}
+		return bound_context.get();
+	}
+
+	public Calculator getCalculator() {
+		return calculator;
+	}
+
+	public NumBackend getNumBackend() {
+		return calculator.getNumBackend();
+	}
+
+	public AlgDncBackend getDncBackend() {
+		return calculator.getDncBackend();
+	}
+
+	public MultiplexingEnforcement enforceMultiplexing() {
+		return multiplexing_enforcement;
+	}
+
+	public void enforceMultiplexing(MultiplexingEnforcement enforcement) {
+		multiplexing_enforcement = enforcement;
+	}
+
+	/**
+	 * Runs <code>task</code> in this thread with this context bound to it.
+	 * A context bound before is restored afterwards.
+	 *
+	 * @param task the task to run.
+	 */
+	public void run(Runnable task) {
+		CalculationContext previous = bind();
+		try {
+			task.run();
+		} finally {
+			unbind(previous);
+		}
+	}
+
+	/**
+	 * Calls <code>task</code> in this thread with this context bound to it.
+	 * A context bound before is restored afterwards.
+	 *
+	 * @param <T>  the result type.
+	 * @param task the task to call.
+	 * @return the result of <code>task</code>.
+	 * @throws Exception if <code>task</code> throws one.
+	 */
+	public <T> T call(Callable<T> task) throws Exception {
+		CalculationContext previous = bind();
+		try {
+			return task.call();
+		} finally {
+			unbind(previous);
+		}
+	}
+
+	private CalculationContext bind() {
+		CalculationContext previous = bound_context.get();
+		if (previous == null) {
+			bound_context_count.incrementAndGet();
+		}
+		bound_context.set(this);
+		return previous;
+	}
+
+	private static void unbind(CalculationContext previous) {
+		if (previous == null) {
+			bound_context.remove();
+			bound_context_count.decrementAndGet();
+		} else {
+			bound_context.set(previous);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return calculator.toString() + ", " + multiplexing_enforcement.toString();
+	}
+}
@@ -35,6 +35,7 @@ import org.networkcalculus.num.NumBackend;
  * This class contains configuration settings for the calculator 
  * that cannot be changed at runtime without risking to cause an exception.
  * For example, the different number and curve backends are incompatible with each other.
+ * Threads that run with a bound {@link CalculationContext} get the context's calculator instead.
  */
 public final class Calculator {
 	private static Calculator instance = new Calculator();
@@ -46,7 +47,16 @@ public final class Calculator {
 	protected Calculator() {
 	}
 
+	Calculator(NumBackend num_backend, AlgDncBackend dnc_backend) {
+		NUM_BACKEND = num_backend;
+		DNC_BACKEND = dnc_backend;
+	}
+
 	public static Calculator getInstance() {
+		CalculationContext context = CalculationContext.current();
+		if (context != null) {
+			return context.getCalculator();
+		}
 		return instance;
 	}
 
@@ -34,6 +34,7 @@ import java.util.Set;
 
 import org.networkcalculus.dnc.Calculator;
 import org.networkcalculus.dnc.algebra.disco.MinPlus_Disco_Configuration;
+import org.networkcalculus.dnc.algebra.disco.pw_affine.ClosedForms_Disco_PwAffine;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.Curve_ConstantPool;
@@ -138,6 +139,11 @@ public abstract class Deconvolution_Disco_ConPwAffine {
             default:
         }
 
+        ArrivalCurve closed_form = ClosedForms_Disco_PwAffine.deconvolve(arrival_curve, service_curve);
+        if (closed_form != null) {
+            return closed_form;
+        }
+
         if (service_curve.equals(Curve_ConstantPool.INFINITE_SERVICE_CURVE.get())
                 || (service_curve.isDelayedInfiniteBurst() && service_curve.getLatency().doubleValue() == 0.0)
                 || (arrival_curve.equals(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get()))) {
@@ -0,0 +1,293 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.algebra.disco.pw_affine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.CurveBuilder;
+import org.networkcalculus.dnc.curves.LinearSegment;
+import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.num.Num;
+
+/**
+ * Closed-form results for token bucket arrival curves and rate latency service
+ * curves.<br>
+ * The shapes are recognized from the curves' segments. Each operation returns
+ * <code>null</code> if an operand does not have the required shape or if the
+ * generic algorithm handles the case specially. The caller then falls back to
+ * the generic algorithm. The closed forms use the same arithmetic as the
+ * generic algorithms, so their results do not differ.
+ */
+public abstract class ClosedForms_Disco_PwAffine {
+    public enum Operation {
+        CONVOLUTION, DECONVOLUTION, LEFTOVER_ARB, DELAY_ARB, BACKLOG
+    }
+
+    private static final AtomicLongArray hits = new AtomicLongArray(Operation.values().length);
+    private static final AtomicLongArray misses = new AtomicLongArray(Operation.values().length);
+
+    public static long getHitCount(Operation operation) {
+        return hits.get(operation.ordinal());
+    }
+
+    public static long getMissCount(Operation operation) {
+        return misses.get(operation.ordinal());
+    }
+
+    public static void resetCounts() {
+        for (int i = 0; i < hits.length(); i++) {
+            hits.set(i, 0);
+            misses.set(i, 0);
+        }
+    }
+
+    private static void countHit(Operation operation) {
+        hits.incrementAndGet(operation.ordinal());
+    }
+
+    private static void countMiss(Operation operation) {
+        misses.incrementAndGet(operation.ordinal());
+    }
+
+    // ------------------------------------------------------------
+    // Shapes
+    // ------------------------------------------------------------
+
+    /**
+     * Returns rate and latency if the curve is a rate latency curve with finite,
+     * positive rate, i.e., (0,0),0;(T,0),R or (0,0),R for T = 0.
+     *
+     * @param curve The curve to check.
+     * @return {rate, latency} or <code>null</code>.
+     */
+    private static Num[] getRateLatency(Curve curve) {
+        Num zero = Num.getFactory(Calculator.getInstance().getNumBackend()).getZero();
+
+        if (curve.isDelayedInfiniteBurst()) {
+            return null;
+        }
+        switch (curve.getSegmentCount()) {
+            case 1:
+                LinearSegment rate = curve.getSegment(0);
+                if (rate.isLeftopen() || !rate.getX().eqZero() || !rate.getY().eqZero() || !isFinitePositive(rate.getGrad())) {
+                    return null;
+                }
+                return new Num[]{rate.getGrad(), zero.copy()};
+            case 2:
+                LinearSegment latency = curve.getSegment(0);
+                if (latency.isLeftopen() || !latency.getX().eqZero() || !latency.getY().eqZero() || !latency.getGrad().eqZero()) {
+                    return null;
+                }
+                rate = curve.getSegment(1);
+                if (!rate.getX().gtZero() || !isFinite(rate.getX()) || !rate.getY().eqZero() || !isFinitePositive(rate.getGrad())) {
+                    return null;
+                }
+                return new Num[]{rate.getGrad(), rate.getX()};
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns rate and burst if the curve is a token bucket curve with finite,
+     * positive rate, i.e., (0,0),0;!(0,b),r or (0,0),r for b = 0.
+     *
+     * @param curve The curve to check.
+     * @return {rate, burst} or <code>null</code>.
+     */
+    private static Num[] getTokenBucket(Curve curve) {
+        Num zero = Num.getFactory(Calculator.getInstance().getNumBackend()).getZero();
+
+        if (curve.isDelayedInfiniteBurst()) {
+            return null;
+        }
+        switch (curve.getSegmentCount()) {
+            case 1:
+                LinearSegment rate = curve.getSegment(0);
+                if (rate.isLeftopen() || !rate.getX().eqZero() || !rate.getY().eqZero() || !isFinitePositive(rate.getGrad())) {
+                    return null;
+                }
+                return new Num[]{rate.getGrad(), zero.copy()};
+            case 2:
+                LinearSegment origin = curve.getSegment(0);
+                if (origin.isLeftopen() || !origin.getX().eqZero() || !origin.getY().eqZero() || !origin.getGrad().eqZero()) {
+                    return null;
+                }
+                LinearSegment bucket = curve.getSegment(1);
+                if (!bucket.isLeftopen() || !bucket.getX().eqZero() || !bucket.getY().gtZero() || !isFinite(bucket.getY())
+                        || !isFinitePositive(bucket.getGrad())) {
+                    return null;
+                }
+                return new Num[]{bucket.getGrad(), bucket.getY()};
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isFinite(Num num) {
+        return !num.equals(Num.getFactory(Calculator.getInstance().getNumBackend()).getPositiveInfinity());
+    }
+
+    private static boolean isFinitePositive(Num num) {
+        return num.gtZero() && isFinite(num);
+    }
+
+    // ------------------------------------------------------------
+    // Operations
+    // ------------------------------------------------------------
+
+    /**
+     * Convolution of two rate latency curves:
+     * beta_{R1,T1} (x) beta_{R2,T2} = beta_{min(R1,R2),T1+T2}.
+     *
+     * @param service_curve_1 The first service curve.
+     * @param service_curve_2 The second service curve.
+     * @return The convolved curve or <code>null</code>.
+     */
+    public static ServiceCurve convolve(ServiceCurve service_curve_1, ServiceCurve service_curve_2) {
+        Num[] rl_1 = getRateLatency(service_curve_1);
+        Num[] rl_2 = (rl_1 == null) ? null : getRateLatency(service_curve_2);
+        if (rl_2 == null) {
+            countMiss(Operation.CONVOLUTION);
+            return null;
+        }
+        countHit(Operation.CONVOLUTION);
+
+        Num compute = Num.getUtils(Calculator.getInstance().getNumBackend());
+        return Curve.getFactory().createRateLatency(compute.min(rl_1[0], rl_2[0]), compute.add(rl_1[1], rl_2[1]));
+    }
+
+    /**
+     * Deconvolution of a token bucket by a rate latency curve:
+     * gamma_{r,b} (/) beta_{R,T} = gamma_{r,b+r*T} for r &lt;= R.
+     *
+     * @param arrival_curve The token bucket arrival curve.
+     * @param service_curve The rate latency service curve.
+     * @return The deconvolved curve or <code>null</code>.
+     */
+    public static ArrivalCurve deconvolve(ArrivalCurve arrival_curve, ServiceCurve service_curve) {
+        Num[] tb = getTokenBucket(arrival_curve);
+        Num[] rl = (tb == null) ? null : getRateLatency(service_curve);
+        if (rl == null || tb[0].gt(rl[0])) {
+            countMiss(Operation.DECONVOLUTION);
+            return null;
+        }
+        countHit(Operation.DECONVOLUTION);
+
+        Num compute = Num.getUtils(Calculator.getInstance().getNumBackend());
+        return Curve.getFactory().createTokenBucket(tb[0], compute.add(compute.mult(rl[1], tb[0]), tb[1]));
+    }
+
+    /**
+     * Left-over service curve of a rate latency curve under arbitrary multiplexing
+     * with token bucket cross-traffic:
+     * [beta_{R,T} - gamma_{r,b}]^+ = beta_{R-r,(b+R*T)/(R-r)} for r &lt; R.
+     *
+     * @param service_curve The rate latency service curve.
+     * @param arrival_curve The token bucket arrival curve of the cross-traffic.
+     * @return The left-over service curve or <code>null</code>.
+     */
+    public static ServiceCurve leftOverServiceARB(ServiceCurve service_curve, ArrivalCurve arrival_curve) {
+        Num[] rl = getRateLatency(service_curve);
+        Num[] tb = (rl == null) ? null : getTokenBucket(arrival_curve);
+        if (tb == null || !tb[0].lt(rl[0])) {
+            countMiss(Operation.LEFTOVER_ARB);
+            return null;
+        }
+        countHit(Operation.LEFTOVER_ARB);
+
+        Num compute = Num.getUtils(Calculator.getInstance().getNumBackend());
+        Num zero = Num.getFactory(Calculator.getInstance().getNumBackend()).getZero();
+
+        // Intersection of beta - alpha's last segment with the x-axis.
+        Num rate = compute.sub(rl[0], tb[0]);
+        Num y = compute.sub(zero, compute.add(compute.mult(rl[1], tb[0]), tb[1]));
+        Num y_at_zero = compute.sub(y, compute.mult(rl[1], rate));
+        Num latency = compute.div(compute.sub(zero, y_at_zero), compute.sub(rate, zero));
+
+        CurveBuilder segments = new CurveBuilder(2);
+        if (latency.gtZero()) {
+            segments.addSegment(LinearSegment.createHorizontalLine(0.0));
+        }
+        segments.addSegment(LinearSegment.createLinearSegment(latency, zero.copy(), rate, false));
+        return segments.buildServiceCurve();
+    }
+
+    /**
+     * Delay bound under arbitrary multiplexing, i.e., the x-coordinate where the
+     * token bucket and the rate latency curve intersect: (b+R*T)/(R-r) for r &lt; R.
+     *
+     * @param arrival_curve The token bucket arrival curve.
+     * @param service_curve The rate latency service curve.
+     * @return The delay bound or <code>null</code>.
+     */
+    public static Num delayARB(ArrivalCurve arrival_curve, ServiceCurve service_curve) {
+        Num[] tb = getTokenBucket(arrival_curve);
+        Num[] rl = (tb == null) ? null : getRateLatency(service_curve);
+        if (rl == null || !tb[0].lt(rl[0])) {
+            countMiss(Operation.DELAY_ARB);
+            return null;
+        }
+
+        Num compute = Num.getUtils(Calculator.getInstance().getNumBackend());
+        Num zero = Num.getFactory(Calculator.getInstance().getNumBackend()).getZero();
+
+        Num y_at_zero_alpha = compute.sub(tb[1], compute.mult(zero, tb[0]));
+        Num y_at_zero_beta = compute.sub(zero, compute.mult(rl[1], rl[0]));
+        Num delay = compute.div(compute.sub(y_at_zero_beta, y_at_zero_alpha), compute.sub(tb[0], rl[0]));
+
+        // The generic algorithm only considers intersections right of the origin.
+        if (!delay.gtZero()) {
+            countMiss(Operation.DELAY_ARB);
+            return null;
+        }
+        countHit(Operation.DELAY_ARB);
+        return delay;
+    }
+
+    /**
+     * Backlog bound, i.e., the vertical deviation at the service curve's latency:
+     * b+r*T for r &lt;= R.
+     *
+     * @param arrival_curve The token bucket arrival curve.
+     * @param service_curve The rate latency service curve.
+     * @return The backlog bound or <code>null</code>.
+     */
+    public static Num backlog(ArrivalCurve arrival_curve, ServiceCurve service_curve) {
+        Num[] tb = getTokenBucket(arrival_curve);
+        Num[] rl = (tb == null) ? null : getRateLatency(service_curve);
+        if (rl == null || tb[0].gt(rl[0])) {
+            countMiss(Operation.BACKLOG);
+            return null;
+        }
+        countHit(Operation.BACKLOG);
+
+        Num compute = Num.getUtils(Calculator.getInstance().getNumBackend());
+        return compute.add(compute.mult(rl[1], tb[0]), tb[1]);
+    }
+}
@@ -35,10 +35,12 @@ import org.networkcalculus.dnc.Calculator;
 import org.networkcalculus.dnc.algebra.disco.MinPlus_Disco_Configuration;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.CurveBuilder;
 import org.networkcalculus.dnc.curves.Curve_ConstantPool;
 import org.networkcalculus.dnc.curves.LinearSegment;
 import org.networkcalculus.dnc.curves.MaxServiceCurve;
 import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.dnc.curves.disco.pw_affine.Curve_Disco_PwAffine;
 import org.networkcalculus.dnc.utils.CheckUtils;
 import org.networkcalculus.num.Num;
 
@@ -122,6 +124,11 @@ public abstract class Convolution_Disco_PwAffine {
                 break;
         }
 
+        ServiceCurve closed_form = ClosedForms_Disco_PwAffine.convolve(service_curve_1, service_curve_2);
+        if (closed_form != null) {
+            return closed_form;
+        }
+
         // Shortcut: only go here if there is at least one delayed infinite burst
         if (service_curve_1.isDelayedInfiniteBurst() || service_curve_2.isDelayedInfiniteBurst()) {
             if (service_curve_1.isDelayedInfiniteBurst()
@@ -146,7 +153,9 @@ public abstract class Convolution_Disco_PwAffine {
             return zero_service;
         }
 
-        ServiceCurve result = Curve.getFactory().createServiceCurve();
+        // Starts with the x-axis just like an empty service curve does.
+        CurveBuilder result = new CurveBuilder(service_curve_1.getSegmentCount() + service_curve_2.getSegmentCount() + 2);
+        result.addSegment(Curve.getXAxis());
 
         Num x = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
         Num y = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero(); // Functions pass though the origin
@@ -208,9 +217,7 @@ public abstract class Convolution_Disco_PwAffine {
             }
         }
 
-        Curve.getUtils().beautify(result);
-
-        return result;
+        return result.buildServiceCurve();
     }
 
     public static Set<ServiceCurve> convolve(Set<ServiceCurve> service_curves_1, Set<ServiceCurve> service_curves_2) {
@@ -259,7 +266,8 @@ public abstract class Convolution_Disco_PwAffine {
 
         for (ServiceCurve beta_1 : service_curves_1) {
             for (ServiceCurve beta_2 : service_curves_2) {
-                results.add(convolve(beta_1, beta_2));
+                // Many pairs convolve to the same curve, interning lets the set compare canonical instances.
+                results.add(Curve_Disco_PwAffine.intern(convolve(beta_1, beta_2)));
             }
         }
 
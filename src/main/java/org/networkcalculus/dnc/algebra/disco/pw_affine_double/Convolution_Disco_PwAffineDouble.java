@@ -0,0 +1,232 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.algebra.disco.pw_affine_double;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.algebra.disco.pw_affine.Convolution_Disco_PwAffine;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.Curve_ConstantPool;
+import org.networkcalculus.dnc.curves.MaxServiceCurve;
+import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.CurveUtils_Disco_PwAffineDouble;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.Curve_Disco_PwAffineDouble;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.DoubleUtils;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.ServiceCurve_Disco_PwAffineDouble;
+import org.networkcalculus.dnc.utils.CheckUtils;
+
+/**
+ * Convolution of curves in the struct-of-arrays representation.
+ * 
+ * The convolution of convex service curves is computed on the curves' arrays. All
+ * other convolutions only consist of curve utils operations, i.e., they are
+ * shared with <code>Convolution_Disco_PwAffine</code> and reach the arrays via
+ * <code>CurveUtils_Disco_PwAffineDouble</code>.
+ */
+public abstract class Convolution_Disco_PwAffineDouble {
+
+    // ------------------------------------------------------------
+    // Service Curves
+    // ------------------------------------------------------------
+    public static ServiceCurve convolve(ServiceCurve service_curve_1, ServiceCurve service_curve_2) {
+        if (AnalysisConfig.enforceMultiplexingStatic() == AnalysisConfig.MultiplexingEnforcement.GLOBAL_FIFO) {
+            return Convolution_Disco_PwAffine.convolveFIFO(service_curve_1, service_curve_2);
+        } else {
+            return convolveARB(service_curve_1, service_curve_2);
+        }
+    }
+
+    /**
+     * Returns the convolution of two curve, which must be convex
+     *
+     * @param service_curve_1 The first curve to convolve with.
+     * @param service_curve_2 The second curve to convolve with.
+     * @return The convolved curve.
+     */
+    public static ServiceCurve convolveARB(ServiceCurve service_curve_1, ServiceCurve service_curve_2) {
+        switch (CheckUtils.inputNullCheck(service_curve_1, service_curve_2)) {
+            case 1:
+                return service_curve_2.copy();
+            case 2:
+                return service_curve_1.copy();
+            case 3:
+                return Curve_ConstantPool.ZERO_SERVICE_CURVE.get();
+            case 0:
+            default:
+                break;
+        }
+
+        Curve_Disco_PwAffineDouble factory = (Curve_Disco_PwAffineDouble) Curve_Disco_PwAffineDouble.getFactory();
+        CurveUtils_Disco_PwAffineDouble utils = CurveUtils_Disco_PwAffineDouble.getInstance();
+
+        // Shortcut: only go here if there is at least one delayed infinite burst
+        if (service_curve_1.isDelayedInfiniteBurst() || service_curve_2.isDelayedInfiniteBurst()) {
+            Curve_Disco_PwAffineDouble sc_1 = Curve_Disco_PwAffineDouble.of(service_curve_1);
+            Curve_Disco_PwAffineDouble sc_2 = Curve_Disco_PwAffineDouble.of(service_curve_2);
+
+            if (sc_1.isDelayedInfiniteBurst() && sc_2.isDelayedInfiniteBurst()) {
+                return factory.createDelayedInfiniteBurst(sc_1.getLatencyValue() + sc_2.getLatencyValue());
+            }
+            if (sc_1.isDelayedInfiniteBurst()) { // service_curve_2 is not a delayed infinite burst
+                return factory.createServiceCurve(utils.shiftRight(sc_2, sc_1.getLatencyValue()));
+            }
+            if (sc_2.isDelayedInfiniteBurst()) { // service_curve_1 is not a delayed infinite burst
+                return factory.createServiceCurve(utils.shiftRight(sc_1, sc_2.getLatencyValue()));
+            }
+        }
+
+        ServiceCurve zero_service = Curve_ConstantPool.ZERO_SERVICE_CURVE.get();
+        if (service_curve_1.equals(zero_service) || service_curve_2.equals(zero_service)) {
+            return zero_service;
+        }
+
+        Curve_Disco_PwAffineDouble sc_1 = Curve_Disco_PwAffineDouble.of(service_curve_1);
+        Curve_Disco_PwAffineDouble sc_2 = Curve_Disco_PwAffineDouble.of(service_curve_2);
+
+        ServiceCurve_Disco_PwAffineDouble result = factory.createServiceCurve();
+        result.addSegment(0.0, 0.0, 0.0, false); // Functions pass though the origin
+
+        int i1 = (sc_1.isRealDiscontinuity(0)) ? 1 : 0;
+        int i2 = (sc_2.isRealDiscontinuity(0)) ? 1 : 0;
+        if (i1 > 0 || i2 > 0) {
+            result.addSegment(0.0, sc_1.fLimitRight(0.0) + sc_2.fLimitRight(0.0), 0.0, true);
+        }
+
+        int count_1 = sc_1.getSegmentCount();
+        int count_2 = sc_2.getSegmentCount();
+        while (i1 < count_1 || i2 < count_2) {
+            int last = result.getSegmentCount() - 1;
+
+            // Append the segment with the smaller gradient.
+            Curve_Disco_PwAffineDouble sc;
+            int i;
+            if (DoubleUtils.lt(sc_1.getSegmentGrad(i1), sc_2.getSegmentGrad(i2))) {
+                sc = sc_1;
+                i = i1++;
+            } else {
+                sc = sc_2;
+                i = i2++;
+            }
+
+            result.setSegmentGrad(last, sc.getSegmentGrad(i));
+            if (i + 1 >= sc.getSegmentCount()) {
+                break;
+            }
+            result.addSegment(result.getSegmentX(last) + (sc.getSegmentX(i + 1) - sc.getSegmentX(i)),
+                    result.getSegmentY(last) + (sc.getSegmentY(i + 1) - sc.getSegmentY(i)), 0.0, true);
+        }
+
+        utils.beautify(result);
+
+        return result;
+    }
+
+    public static Set<ServiceCurve> convolve(Set<ServiceCurve> service_curves_1, Set<ServiceCurve> service_curves_2) {
+        Set<ServiceCurve> results = new HashSet<ServiceCurve>();
+
+        // An empty or null set does is not interpreted as a convolution with a null
+        // curve.
+        // Instead, the other set is return in case it is neither null or empty.
+        Set<ServiceCurve> clone = new HashSet<ServiceCurve>();
+        switch (CheckUtils.inputNullCheck(service_curves_1, service_curves_2)) {
+            case 1:
+                for (ServiceCurve sc : service_curves_2) {
+                    clone.add(sc.copy());
+                }
+                return clone;
+            case 2:
+                for (ServiceCurve sc : service_curves_1) {
+                    clone.add(sc.copy());
+                }
+                return clone;
+            case 3:
+                results.add(Curve_ConstantPool.ZERO_SERVICE_CURVE.get());
+                return results;
+            case 0:
+            default:
+                break;
+        }
+        switch (CheckUtils.inputEmptySetCheck(service_curves_1, service_curves_2)) {
+            case 1:
+                for (ServiceCurve sc : service_curves_2) {
+                    clone.add(sc.copy());
+                }
+                return clone;
+            case 2:
+                for (ServiceCurve sc : service_curves_1) {
+                    clone.add(sc.copy());
+                }
+                return clone;
+            case 3:
+                results.add(Curve_ConstantPool.ZERO_SERVICE_CURVE.get());
+                return results;
+            case 0:
+            default:
+                break;
+        }
+
+        for (ServiceCurve beta_1 : service_curves_1) {
+            for (ServiceCurve beta_2 : service_curves_2) {
+                results.add(convolve(beta_1, beta_2));
+            }
+        }
+
+        return results;
+    }
+
+    // ------------------------------------------------------------
+    // Arrival Curves
+    // ------------------------------------------------------------
+    public static ArrivalCurve convolve(ArrivalCurve arrival_curve_1, ArrivalCurve arrival_curve_2) {
+        return Convolution_Disco_PwAffine.convolve(arrival_curve_1, arrival_curve_2);
+    }
+
+    public static ArrivalCurve convolve(Set<ArrivalCurve> arrival_curves) {
+        return Convolution_Disco_PwAffine.convolve(arrival_curves);
+    }
+
+    // ------------------------------------------------------------
+    // Maximum Service Curves
+    // ------------------------------------------------------------
+    public static MaxServiceCurve convolve(MaxServiceCurve max_service_curve_1, MaxServiceCurve max_service_curve_2) {
+        return Convolution_Disco_PwAffine.convolve(max_service_curve_1, max_service_curve_2);
+    }
+
+    // ------------------------------------------------------------
+    // Arrival Curves and Max Service Curves
+    // ------------------------------------------------------------
+    public static Set<Curve> convolve_ACs_MSC(Set<ArrivalCurve> arrival_curves,
+                                              MaxServiceCurve maximum_service_curve) throws Exception {
+        return Convolution_Disco_PwAffine.convolve_ACs_MSC(arrival_curves, maximum_service_curve);
+    }
+
+    public static Set<ArrivalCurve> convolve_ACs_EGamma(Set<ArrivalCurve> arrival_curves,
+                                                        MaxServiceCurve extra_gamma_curve) throws Exception {
+        return Convolution_Disco_PwAffine.convolve_ACs_EGamma(arrival_curves, extra_gamma_curve);
+    }
+}
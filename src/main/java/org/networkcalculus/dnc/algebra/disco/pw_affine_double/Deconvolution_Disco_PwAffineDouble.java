@@ -0,0 +1,320 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.algebra.disco.pw_affine_double;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.networkcalculus.dnc.algebra.disco.MinPlus_Disco_Configuration;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.Curve_ConstantPool;
+import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.ArrivalCurve_Disco_PwAffineDouble;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.CurveUtils_Disco_PwAffineDouble;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.Curve_Disco_PwAffineDouble;
+import org.networkcalculus.dnc.curves.disco.pw_affine_double.DoubleUtils;
+import org.networkcalculus.dnc.utils.CheckUtils;
+
+/**
+ * Deconvolution for convex or (almost) concave, (almost) continuous functions in
+ * the struct-of-arrays representation.
+ * 
+ * Implements the same construction of result candidates as
+ * <code>Deconvolution_Disco_ConPwAffine</code> but writes the candidates'
+ * coordinates to their arrays directly.
+ */
+public abstract class Deconvolution_Disco_PwAffineDouble {
+
+    public static Set<ArrivalCurve> deconvolve(Set<ArrivalCurve> arrival_curves, ServiceCurve service_curve) {
+        Set<ArrivalCurve> results = new HashSet<ArrivalCurve>();
+        switch (CheckUtils.inputNullCheck(arrival_curves, service_curve)) {
+            case 0:
+                break;
+            case 1:
+            case 3:
+                results.add(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get());
+                return results;
+            case 2:
+                results.add(Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get());
+                return results;
+            default:
+        }
+        if (arrival_curves.isEmpty()) {
+            results.add(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get());
+            return results;
+        }
+
+        for (ArrivalCurve alpha : arrival_curves) {
+            results.add(deconvolve(alpha, service_curve));
+        }
+
+        return results;
+    }
+
+    public static Set<ArrivalCurve> deconvolve(Set<ArrivalCurve> arrival_curves, Set<ServiceCurve> service_curves) {
+        Set<ArrivalCurve> results = new HashSet<ArrivalCurve>();
+
+        switch (CheckUtils.inputNullCheck(arrival_curves, service_curves)) {
+            case 0:
+                break;
+            case 1:
+            case 3:
+                results.add(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get());
+                return results;
+            case 2:
+                results.add(Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get());
+                return results;
+            default:
+        }
+        switch (CheckUtils.inputEmptySetCheck(arrival_curves, service_curves)) {
+            case 0:
+                break;
+            case 1:
+            case 3:
+                results.add(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get());
+                return results;
+            case 2:
+                results.add(Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get());
+                return results;
+            default:
+        }
+
+        for (ServiceCurve beta : service_curves) {
+            for (ArrivalCurve alpha : arrival_curves) {
+                results.add(deconvolve(alpha, beta));
+            }
+        }
+
+        return results;
+    }
+
+    public static ArrivalCurve deconvolve(ArrivalCurve arrival_curve, ServiceCurve service_curve) {
+        switch (CheckUtils.inputNullCheck(arrival_curve, service_curve)) {
+            case 0:
+                break;
+            case 1:
+            case 3:
+                return Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get();
+            case 2:
+                return Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get();
+            default:
+        }
+
+        Curve_Disco_PwAffineDouble beta = Curve_Disco_PwAffineDouble.of(service_curve);
+
+        if (service_curve.equals(Curve_ConstantPool.INFINITE_SERVICE_CURVE.get())
+                || (beta.isDelayedInfiniteBurst() && beta.getLatencyValue() == 0.0)
+                || (arrival_curve.equals(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get()))) {
+            return arrival_curve.copy();
+        }
+        if (service_curve.equals(Curve_ConstantPool.ZERO_SERVICE_CURVE.get())
+                || beta.getLatencyValue() == Double.POSITIVE_INFINITY
+                || (DoubleUtils.eq(beta.getUltAffineRateValue(), 0.0)
+                && DoubleUtils.eq(beta.getSegmentY(beta.getSegmentCount() - 1), 0.0))) {
+            return Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get();
+        }
+        return deconvolve_con_pw_affine(Curve_Disco_PwAffineDouble.of(arrival_curve), beta);
+    }
+
+    public static Set<ArrivalCurve> deconvolve_almostConcCs_SCs(Set<Curve> curves,
+                                                                Set<ServiceCurve> service_curves) {
+        Set<ArrivalCurve> results = new HashSet<ArrivalCurve>();
+
+        switch (CheckUtils.inputNullCheck(curves, service_curves)) {
+            case 0:
+                break;
+            case 1:
+            case 3:
+                results.add(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get());
+                return results;
+            case 2:
+                results.add(Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get());
+                return results;
+            default:
+        }
+        switch (CheckUtils.inputEmptySetCheck(curves, service_curves)) {
+            case 0:
+                break;
+            case 1:
+            case 3:
+                results.add(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get());
+                return results;
+            case 2:
+                results.add(Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get());
+                return results;
+            default:
+        }
+
+        CurveUtils_Disco_PwAffineDouble utils = CurveUtils_Disco_PwAffineDouble.getInstance();
+        Curve_Disco_PwAffineDouble factory = (Curve_Disco_PwAffineDouble) Curve_Disco_PwAffineDouble.getFactory();
+
+        for (ServiceCurve sc : service_curves) {
+            Curve_Disco_PwAffineDouble beta = Curve_Disco_PwAffineDouble.of(sc);
+            for (Curve pwa_c : curves) {
+                Curve_Disco_PwAffineDouble alpha = Curve_Disco_PwAffineDouble.of(pwa_c);
+                double latency = alpha.getLatencyValue();
+                Curve_Disco_PwAffineDouble alpha_shifted = Curve_Disco_PwAffineDouble
+                        .of(utils.shiftLeftClipping(alpha, DoubleUtils.toNum(latency)));
+                results.add(factory.createArrivalCurve(
+                        utils.shiftRight(deconvolve_con_pw_affine(alpha_shifted, beta), latency)));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns the deconvolution of an (almost) concave arrival curve and a convex
+     * service curve.
+     *
+     * @param curve_1 The (almost) concave arrival curve.
+     * @param curve_2 The convex service curve.
+     * @return The deconvolved curve, an arrival curve.
+     */
+    private static ArrivalCurve deconvolve_con_pw_affine(Curve_Disco_PwAffineDouble curve_1,
+            Curve_Disco_PwAffineDouble curve_2) {
+        switch (CheckUtils.inputNullCheck(curve_1, curve_2)) {
+            case 0:
+                break;
+            case 1:
+            case 3:
+                return Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get();
+            case 2:
+                return Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get();
+            default:
+        }
+
+        CurveUtils_Disco_PwAffineDouble utils = CurveUtils_Disco_PwAffineDouble.getInstance();
+        Curve_Disco_PwAffineDouble factory = (Curve_Disco_PwAffineDouble) Curve_Disco_PwAffineDouble.getFactory();
+
+        if (DoubleUtils.gt(curve_1.getUltAffineRateValue(), curve_2.getUltAffineRateValue())) { // Violation of the stability constraint
+            return Curve_ConstantPool.INFINITE_ARRIVAL_CURVE.get();
+        }
+        if (curve_2.equals(Curve_ConstantPool.INFINITE_SERVICE_CURVE.get())) {
+            return factory.createArrivalCurve(curve_1);
+        }
+        if (curve_2.equals(Curve_ConstantPool.ZERO_SERVICE_CURVE.get())
+                || curve_2.getLatencyValue() == Double.POSITIVE_INFINITY
+                || (DoubleUtils.eq(curve_2.getUltAffineRateValue(), 0.0) && curve_2.getSegmentCount() > 1
+                && DoubleUtils.eq(curve_2.getSegmentY(1), 0.0))) {
+            return Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get();
+        }
+        if (MinPlus_Disco_Configuration.getInstance().exec_deconvolution_checks()) {
+            if (!curve_1.isAlmostConcave()) {
+                throw new IllegalArgumentException("Arrival curve of deconvolution must be almost concave.");
+            }
+            if (!curve_2.isConvex()) {
+                throw new IllegalArgumentException("Service curve of deconvolution must be convex.");
+            }
+        }
+
+        // The arrival curve itself is in the candidates set.
+        List<Curve_Disco_PwAffineDouble> result_candidates = new ArrayList<Curve_Disco_PwAffineDouble>();
+        result_candidates.add(curve_1.copy());
+
+        // Candidates resulting from the service curve's inflection points (curve_2):
+        // The vertical deviation at the inflection point followed by the arrival
+        // curve's segments lowered by beta(inflection).
+        for (int i = 1; i < curve_2.getSegmentCount(); i++) { // Start at 1 to skip the arrival curve itself.
+            double x_inflect_beta = curve_2.getSegmentX(i);
+            Curve_Disco_PwAffineDouble candidate_tmp = Curve_Disco_PwAffineDouble
+                    .of(utils.shiftLeftClipping(curve_1, DoubleUtils.toNum(x_inflect_beta)));
+
+            double y_beta = curve_2.f(x_inflect_beta);
+            if (y_beta != 0.0) { // Need to lower the rest of the result candidate by y.
+                for (int j = 0; j < candidate_tmp.getSegmentCount(); j++) {
+                    candidate_tmp.setSegmentY(j, candidate_tmp.getSegmentY(j) - y_beta);
+                }
+            }
+            result_candidates.add(candidate_tmp);
+        }
+
+        // Candidates resulting from the arrival curve's inflection points (curve_1):
+        // Take the vertical deviation at the alpha inflection point as burstiness,
+        // then go over the beta inflection points smaller than the alpha inflection
+        // point in reverse order and add a linear segment that resembles the beta's one
+        // (The first one might be cut off by the alpha inflection point).
+        for (int i = curve_1.getSegmentCount() - 1; i >= 0; i--) {
+            double x_inflect_alpha = curve_1.getSegmentX(i);
+            double results_cand_burst = curve_1.f(x_inflect_alpha) - curve_2.f(x_inflect_alpha);
+
+            if (DoubleUtils.eq(x_inflect_alpha, 0.0) // The inflection point is in the origin and thus the candidate is a zero curve.
+                    || DoubleUtils.lt(results_cand_burst, 0.0)) { // The service curve is larger than the arrival curve.
+                continue;
+            }
+
+            for (int j = curve_2.getSegmentCount() - 1; j >= 0; j--) {
+                double x_inflect_beta = curve_2.getSegmentX(j);
+                if (DoubleUtils.gt(x_inflect_beta, x_inflect_alpha)) {
+                    continue;
+                }
+
+                // The origin, j+1 segments (we start counting j at 0), and a horizontal line at the end.
+                int segment_count = j + 3;
+                ArrivalCurve_Disco_PwAffineDouble candidate_tmp = factory.createArrivalCurve(segment_count);
+
+                // The origin (first segment, id 0) stays as is, the remainder needs to be constructed.
+                candidate_tmp.setSegmentX(1, 0.0);
+                candidate_tmp.setSegmentY(1, results_cand_burst);
+                candidate_tmp.setSegmentGrad(1, curve_2.getSegmentGrad(j));
+
+                // The length of this segment is defined by the following one's y-coordinate:
+                double next_x_coord = x_inflect_alpha - x_inflect_beta;
+                double next_y_coord = results_cand_burst + DoubleUtils.mult(next_x_coord, curve_2.getSegmentGrad(j));
+
+                // The remaining service curve segments in reverse order
+                int j_new = j;
+                for (int k = 2; k < segment_count - 1; k++) {
+                    j_new--;
+
+                    candidate_tmp.setSegmentX(k, next_x_coord);
+                    candidate_tmp.setSegmentY(k, next_y_coord);
+                    candidate_tmp.setSegmentGrad(k, curve_2.getSegmentGrad(j_new));
+
+                    double current_segment_length = curve_2.getSegmentX(j_new + 1) - curve_2.getSegmentX(j_new);
+                    next_x_coord = next_x_coord + current_segment_length;
+                    next_y_coord = next_y_coord + DoubleUtils.mult(current_segment_length, curve_2.getSegmentGrad(j_new));
+                }
+
+                // Add a horizontal line at the end, the gradient (rate) remains zero.
+                candidate_tmp.setSegmentX(segment_count - 1, next_x_coord);
+                candidate_tmp.setSegmentY(segment_count - 1, next_y_coord);
+
+                result_candidates.add(candidate_tmp);
+                break;
+            }
+        }
+
+        Curve sup_curve = result_candidates.get(0);
+        for (int i = 1; i < result_candidates.size(); i++) {
+            sup_curve = utils.max(sup_curve, result_candidates.get(i));
+        }
+
+        return factory.createArrivalCurve(sup_curve);
+    }
+}
@@ -28,6 +28,7 @@
 package org.networkcalculus.dnc.bounds.disco.pw_affine;
 
 import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.algebra.disco.pw_affine.ClosedForms_Disco_PwAffine;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.Curve_ConstantPool;
@@ -36,6 +37,11 @@ import org.networkcalculus.num.Num;
 
 public final class Backlog_Disco_PwAffine {
 	public static Num derive(ArrivalCurve arrival_curve, ServiceCurve service_curve) {
+		Num closed_form = ClosedForms_Disco_PwAffine.backlog(arrival_curve, service_curve);
+		if (closed_form != null) {
+			return closed_form;
+		}
+
 		Num num_factory = Num.getFactory(Calculator.getInstance().getNumBackend());
 		
 		if (arrival_curve.equals(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get())) {
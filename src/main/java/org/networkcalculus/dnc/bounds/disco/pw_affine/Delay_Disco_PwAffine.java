@@ -28,6 +28,7 @@
 package org.networkcalculus.dnc.bounds.disco.pw_affine;
 
 import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.algebra.disco.pw_affine.ClosedForms_Disco_PwAffine;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.Curve_ConstantPool;
@@ -54,7 +55,12 @@ public final class Delay_Disco_PwAffine {
     }
 
     public static Num deriveARB(ArrivalCurve arrival_curve, ServiceCurve service_curve) {
-        Num result = deriveForSpecialCurves(arrival_curve, service_curve);
+        Num result = ClosedForms_Disco_PwAffine.delayARB(arrival_curve, service_curve);
+        if (result != null) {
+            return result;
+        }
+
+        result = deriveForSpecialCurves(arrival_curve, service_curve);
         if (result != null) {
             return result;
         }
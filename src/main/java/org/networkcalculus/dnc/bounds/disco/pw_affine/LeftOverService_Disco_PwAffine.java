@@ -36,9 +36,9 @@ import org.networkcalculus.dnc.AnalysisConfig;
 import org.networkcalculus.dnc.AnalysisConfig.Multiplexing;
 import org.networkcalculus.dnc.AnalysisConfig.MultiplexingEnforcement;
 import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.algebra.disco.pw_affine.ClosedForms_Disco_PwAffine;
 import org.networkcalculus.dnc.curves.*;
 import org.networkcalculus.dnc.curves.disco.LinearSegment_Disco;
-import org.networkcalculus.dnc.curves.disco.pw_affine.Curve_Disco_PwAffine;
 import org.networkcalculus.dnc.network.server_graph.Server;
 import org.networkcalculus.num.Num;
 
@@ -69,9 +69,7 @@ public final class LeftOverService_Disco_PwAffine {
             ServiceCurve sc = service_curve;
             Num burst = ac.getBurst();
 
-            Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc;
-
-            Num theta_curr_lb = curve.f_inv(burst);
+            Num theta_curr_lb = sc.f_inv(burst);
             ServiceCurve leftover_sc = LeftOverService_Disco_PwAffine.fifoMux(sc, ac, theta_curr_lb);
 
             return leftover_sc;
@@ -87,9 +85,7 @@ public final class LeftOverService_Disco_PwAffine {
             ServiceCurve sc = service_curve;
             Num burst = ac.getBurst();
 
-            Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc;
-
-            Num theta_curr_lb = curve.f_inv(burst);
+            Num theta_curr_lb = sc.f_inv(burst);
             ServiceCurve leftover_sc = LeftOverService_Disco_PwAffine.fifoMux(sc, ac, theta_curr_lb);
             results.add(leftover_sc );
         }
@@ -119,6 +115,11 @@ public final class LeftOverService_Disco_PwAffine {
      * @return The FIFO service curve
      */
     public static ServiceCurve arbMux(ServiceCurve service_curve, ArrivalCurve arrival_curve) {
+    	ServiceCurve closed_form = ClosedForms_Disco_PwAffine.leftOverServiceARB(service_curve, arrival_curve);
+    	if (closed_form != null) {
+    		return closed_form;
+    	}
+
     	Pair<Boolean,ServiceCurve> special_cases = computeSpecialValues(service_curve, arrival_curve);
     	
     	if(special_cases.getFirst().booleanValue() == true) {
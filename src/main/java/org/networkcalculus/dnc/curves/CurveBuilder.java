@@ -0,0 +1,223 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+
+package org.networkcalculus.dnc.curves;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mutable sequence of segments to construct a curve from.<br>
+ * Other than <code>Curve.addSegment(...)</code> and
+ * <code>Curve.removeSegment(...)</code>, changes neither reallocate the
+ * segments nor reset data derived from them. The segments are kept in a gap
+ * buffer so that insertions and removals close to the previous one only move
+ * the segments in between. Thus, appending segments or running over them once
+ * while removing some is linear in the number of segments.<br>
+ * Segments are held as they are, not copied. The curve is created and
+ * normalized by <code>build()</code>.
+ */
+public class CurveBuilder {
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private LinearSegment[] segments;
+    private int gap_start;
+    private int gap_end;
+
+    public CurveBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CurveBuilder(int capacity) {
+        segments = new LinearSegment[Math.max(capacity, 1)];
+        gap_start = 0;
+        gap_end = segments.length;
+    }
+
+    /**
+     * Creates a builder holding the segments of <code>curve</code> themselves,
+     * i.e., changes to them are changes to the curve's segments.
+     *
+     * @param curve the curve to take the segments from.
+     */
+    public CurveBuilder(Curve curve) {
+        this(curve.getSegmentCount() + 1);
+        for (int i = 0; i < curve.getSegmentCount(); i++) {
+            segments[gap_start++] = curve.getSegment(i);
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.length - (gap_end - gap_start);
+    }
+
+    public LinearSegment getSegment(int pos) {
+        if (pos < 0 || pos >= getSegmentCount()) {
+            throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
+        }
+        return pos < gap_start ? segments[pos] : segments[pos + gap_end - gap_start];
+    }
+
+    /**
+     * Adds a <code>LinearSegment</code> to the end of the curve.<br>
+     * Note: It is the user's responsibility to add segments in the order of
+     * increasing x-coordinates.
+     *
+     * @param s the segment to be added.
+     */
+    public void addSegment(LinearSegment s) {
+        addSegment(getSegmentCount(), s);
+    }
+
+    /**
+     * Adds a <code>LinearSegment</code> at the location <code>pos</code>.<br>
+     * Note1; Segments after pos will be pushed back by one position.<br>
+     * Note2: It is the user's responsibility to add segments in the order of
+     * increasing x-coordinates.
+     *
+     * @param pos the index to add the new segment at.
+     * @param s   the segment to be added.
+     */
+    public void addSegment(int pos, LinearSegment s) {
+        if (pos < 0 || pos > getSegmentCount()) {
+            throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
+        }
+        if (s == null) {
+            throw new IllegalArgumentException("Tried to insert null!");
+        }
+
+        if (gap_start == gap_end) {
+            grow();
+        }
+        moveGap(pos);
+        segments[gap_start++] = s;
+    }
+
+    /**
+     * Removes the segment at position <code>pos</code>.
+     *
+     * @param pos the index of the segment to be removed.
+     */
+    public void removeSegment(int pos) {
+        if (pos < 0 || pos >= getSegmentCount()) {
+            throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
+        }
+        moveGap(pos);
+        segments[gap_end++] = null;
+    }
+
+    /**
+     * Removes the segments at positions <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive).
+     *
+     * @param from the index of the first segment to be removed.
+     * @param to   the index after the last segment to be removed.
+     */
+    public void removeSegments(int from, int to) {
+        if (from < 0 || to > getSegmentCount() || from > to) {
+            throw new IndexOutOfBoundsException("Index out of bounds (from=" + from + ", to=" + to + ")!");
+        }
+        moveGap(from);
+        for (int i = 0; i < to - from; i++) {
+            segments[gap_end++] = null;
+        }
+    }
+
+    /**
+     * Same as <code>Curve.isUnrealDiscontinuity(pos)</code> for the segments
+     * currently held.
+     *
+     * @param pos the index of the IP
+     * @return <code>true</code> if the IP is an unreal discontinuity,
+     *         <code>false</code> if not.
+     */
+    public boolean isUnrealDiscontinuity(int pos) {
+        return pos + 1 < getSegmentCount()
+                && getSegment(pos + 1).getX().eq(getSegment(pos).getX())
+                && getSegment(pos + 1).getY().eq(getSegment(pos).getY());
+    }
+
+    /**
+     * @return a read-only view on the segments, valid until the next change.
+     */
+    public List<LinearSegment> getSegments() {
+        return new AbstractList<LinearSegment>() {
+            @Override
+            public LinearSegment get(int index) {
+                return getSegment(index);
+            }
+
+            @Override
+            public int size() {
+                return getSegmentCount();
+            }
+        };
+    }
+
+    /**
+     * Creates the curve consisting of the segments held. Like any curve created
+     * from a list of segments, it is beautified.
+     *
+     * @return the new curve.
+     */
+    public Curve build() {
+        return Curve.getFactory().createCurve(getSegments());
+    }
+
+    public ServiceCurve buildServiceCurve() {
+        return Curve.getFactory().createServiceCurve(build());
+    }
+
+    public ArrivalCurve buildArrivalCurve() {
+        return Curve.getFactory().createArrivalCurve(build());
+    }
+
+    public MaxServiceCurve buildMaxServiceCurve() {
+        return Curve.getFactory().createMaxServiceCurve(build());
+    }
+
+    private void moveGap(int pos) {
+        int gap_length = gap_end - gap_start;
+        if (pos < gap_start) {
+            System.arraycopy(segments, pos, segments, pos + gap_length, gap_start - pos);
+            Arrays.fill(segments, pos, Math.min(gap_start, pos + gap_length), null);
+        } else if (pos > gap_start) {
+            System.arraycopy(segments, gap_end, segments, gap_start, pos - gap_start);
+            Arrays.fill(segments, Math.max(gap_end, pos), pos + gap_length, null);
+        }
+        gap_start = pos;
+        gap_end = pos + gap_length;
+    }
+
+    private void grow() {
+        LinearSegment[] grown = new LinearSegment[2 * segments.length];
+        int gap_end_grown = grown.length - (segments.length - gap_end);
+        System.arraycopy(segments, 0, grown, 0, gap_start);
+        System.arraycopy(segments, gap_end, grown, gap_end_grown, segments.length - gap_end);
+        segments = grown;
+        gap_end = gap_end_grown;
+    }
+}
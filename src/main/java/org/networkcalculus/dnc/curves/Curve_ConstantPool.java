@@ -25,11 +25,13 @@
 
 package org.networkcalculus.dnc.curves;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.networkcalculus.dnc.AlgDncBackend;
 import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.curves.disco.pw_affine.Curve_Disco_PwAffine;
+import org.networkcalculus.num.NumBackend;
 
 /**
  * Constant pool for {@link Curve}. Stores constants based on {@link NumBackend} 
@@ -71,26 +73,56 @@ public enum Curve_ConstantPool {
         }
     };
     
-    private final Map<String, Curve> pool = new HashMap<>();
+    private final Map<NumBackend, Map<AlgDncBackend, Constant>> pool = new ConcurrentHashMap<>();
+
+    // Most recently returned constant. Unless the backends were changed
+    // or differ between threads, it is the one to return next time, too.
+    private volatile Constant last_constant = null;
+
+    private static final class Constant {
+        private final NumBackend num_backend;
+        private final AlgDncBackend dnc_backend;
+        private final Curve curve;
+
+        private Constant(NumBackend num_backend, AlgDncBackend dnc_backend, Curve curve) {
+            this.num_backend = num_backend;
+            this.dnc_backend = dnc_backend;
+            this.curve = curve;
+        }
+    }
 
     /**
      * Returns the value of the constant from the pool.
+     * The constant is shared by all threads and cannot be modified, see {@link Curve_Disco_PwAffine#intern(Curve)}.
      * @return T the constant casted to type T
      */
     @SuppressWarnings("unchecked")
     public <T extends Curve> T get() {
-        final String key = getKey();
-        Curve result = pool.get(key);
-        if (result == null) {
-            result = createCurve();
-            pool.put(key, result);
-         }
-       return (T) result;
-     }
+        Calculator calculator = Calculator.getInstance();
+        NumBackend num_backend = calculator.getNumBackend();
+        AlgDncBackend dnc_backend = calculator.getDncBackend();
 
-    private static String getKey() {
-        return Calculator.getInstance().getNumBackend().toString()
-                + Calculator.getInstance().getDncBackend().toString();
+        Constant constant = last_constant;
+        if (constant == null || constant.num_backend != num_backend || constant.dnc_backend != dnc_backend) {
+            constant = getConstant(num_backend, dnc_backend);
+            last_constant = constant;
+        }
+        return (T) constant.curve;
+    }
+
+    private Constant getConstant(NumBackend num_backend, AlgDncBackend dnc_backend) {
+        Map<AlgDncBackend, Constant> constants = pool.computeIfAbsent(num_backend, backend -> new ConcurrentHashMap<>());
+        Constant constant = constants.get(dnc_backend);
+        if (constant == null) {
+            // Not created inside computeIfAbsent as creating a curve may need other constants.
+            // Interning freezes the curve, otherwise threads with different multiplexing could beautify it differently.
+            constant = new Constant(num_backend, dnc_backend, Curve_Disco_PwAffine.intern(createCurve()));
+            Constant concurrently_created = constants.putIfAbsent(dnc_backend, constant);
+            if (concurrently_created != null) {
+                constant = concurrently_created;
+            }
+        }
+        return constant;
     }
 
     protected abstract Curve createCurve();
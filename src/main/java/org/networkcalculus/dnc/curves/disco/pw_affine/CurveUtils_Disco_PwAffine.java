@@ -26,17 +26,20 @@
 package org.networkcalculus.dnc.curves.disco.pw_affine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 
 import org.networkcalculus.dnc.AnalysisConfig;
 import org.networkcalculus.dnc.Calculator;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.CurveBuilder;
 import org.networkcalculus.dnc.curves.CurveUtils;
 import org.networkcalculus.dnc.curves.Curve_ConstantPool;
 import org.networkcalculus.dnc.curves.LinearSegment;
 import org.networkcalculus.dnc.curves.MaxServiceCurve;
 import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.dnc.curves.disco.LinearSegment_Disco;
 import org.networkcalculus.num.Num;
 
 /**
@@ -77,21 +80,25 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
         }
 
         // Remove all segment(s) with y0==0.0 and grad==0.0
-        while (result.getSegmentCount() > 0) {
-            if (result.getSegment(0).getY().gtZero() || result.getSegment(0).getGrad().gtZero()) {
+        CurveBuilder segments = new CurveBuilder(result);
+        while (segments.getSegmentCount() > 0) {
+            if (segments.getSegment(0).getY().gtZero() || segments.getSegment(0).getGrad().gtZero()) {
                 break;
             }
             if (curve.getSegment(0).getY().ltZero() || curve.getSegment(0).getGrad().ltZero()) {
                 throw new RuntimeException("Should have avoided neg. gradients elsewhere...");
             }
-            result.removeSegment(0);
+            segments.removeSegment(0);
         }
 
         // In case that we've removed everything, the curve had infinite latency, so
         // return the zero curve.
-        if (result.getSegmentCount() == 0) {
+        if (segments.getSegmentCount() == 0) {
             return Curve_ConstantPool.ZERO_CURVE.get();
         }
+        if (segments.getSegmentCount() != result.getSegmentCount()) {
+            setSegments(result, segments);
+        }
 
         // Shift remaining segments left by latency
         Num L = result.getSegment(0).getX();
@@ -139,6 +146,12 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
     }
 
     public void beautify(Curve c) {
+     // Interned curves were beautified before they were frozen.
+     if(c instanceof Curve_Disco_PwAffine && ((Curve_Disco_PwAffine) c).isInterned())
+     {
+         return;
+     }
+
      if(AnalysisConfig.enforceMultiplexingStatic() == AnalysisConfig.MultiplexingEnforcement.GLOBAL_FIFO)
      {
          beautifyFIFO(c);
@@ -149,7 +162,35 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
      }
     }
 
+    private void clearMetaInfo(Curve c) {
+        // Curve_Disco_PwAffine notices changes of its segments itself and keeps its meta information otherwise.
+        if (c instanceof Curve_Disco_PwAffine) {
+            return;
+        }
+
+        c.setTB_MetaInfo(false);
+        c.setTokenBucket(false);
+        c.setTB_Components(new LinkedList<>());
+
+        c.setRL_MetaInfo(false);
+        c.setRateLateny(false);
+        c.setRL_Components(new LinkedList<>());
+    }
+
     public void beautifyFIFO(Curve c) {
+        // Curves with a single segment are beautiful already.
+        if (c.getSegmentCount() > 1) {
+            CurveBuilder segments = new CurveBuilder(c);
+            beautifyFIFO(segments);
+            if (segments.getSegmentCount() != c.getSegmentCount()) {
+                setSegments(c, segments);
+            }
+        }
+
+        clearMetaInfo(c);
+    }
+
+    private void beautifyFIFO(CurveBuilder c) {
         // Remove unreal discontinuity.
         for (int i = 0; i < c.getSegmentCount() - 1; i++) {
             if (c.isUnrealDiscontinuity(i)) {
@@ -220,17 +261,22 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
                 }
             }
         }
+    }
 
-        c.setTB_MetaInfo(false);
-        c.setTokenBucket(false);
-        c.setTB_Components(new LinkedList<>());
+    public void beautifyARB(Curve c) {
+        // Curves with a single segment are beautiful already.
+        if (c.getSegmentCount() > 1) {
+            CurveBuilder segments = new CurveBuilder(c);
+            beautifyARB(segments);
+            if (segments.getSegmentCount() != c.getSegmentCount()) {
+                setSegments(c, segments);
+            }
+        }
 
-        c.setRL_MetaInfo(false);
-        c.setRateLateny(false);
-        c.setRL_Components(new LinkedList<>());
+        clearMetaInfo(c);
     }
 
-    public void beautifyARB(Curve c) {
+    private void beautifyARB(CurveBuilder c) {
         // Remove unreal discontinuity.
         for (int i = 0; i < c.getSegmentCount() - 1; i++) {
             if (c.isUnrealDiscontinuity(i)) {
@@ -277,14 +323,31 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
                 && c.getSegment(1).getY() != Num.getFactory(Calculator.getInstance().getNumBackend()).getZero()) {
             c.getSegment(0).setGrad(Num.getFactory(Calculator.getInstance().getNumBackend()).createZero());
         }
+    }
 
-        c.setTB_MetaInfo(false);
-        c.setTokenBucket(false);
-        c.setTB_Components(new LinkedList<>());
-
-        c.setRL_MetaInfo(false);
-        c.setRateLateny(false);
-        c.setRL_Components(new LinkedList<>());
+    /**
+     * Replaces the segments of curve <code>c</code> with the ones held by
+     * <code>segments</code>.
+     *
+     * @param c        the curve to change.
+     * @param segments the new segments.
+     */
+    private void setSegments(Curve c, CurveBuilder segments) {
+        if (c instanceof Curve_Disco_PwAffine) {
+            LinearSegment_Disco[] segments_dnc = new LinearSegment_Disco[segments.getSegmentCount()];
+            for (int i = 0; i < segments_dnc.length; i++) {
+                LinearSegment s = segments.getSegment(i);
+                segments_dnc[i] = (s instanceof LinearSegment_Disco) ? (LinearSegment_Disco) s : new LinearSegment_Disco(s);
+            }
+            ((Curve_Disco_PwAffine) c).setSegments(segments_dnc);
+        } else {
+            while (c.getSegmentCount() > 0) {
+                c.removeSegment(c.getSegmentCount() - 1);
+            }
+            for (int i = 0; i < segments.getSegmentCount(); i++) {
+                c.addSegment(segments.getSegment(i));
+            }
+        }
     }
 
     /**
@@ -335,17 +398,51 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
             return Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity();
         }
 
-        Num result = Num.getFactory(Calculator.getInstance().getNumBackend()).createNegativeInfinity();
+        Num[] ips_y = new Num[c1.getSegmentCount() + c2.getSegmentCount()];
         for (int i = 0; i < c1.getSegmentCount(); i++) {
-            Num ip_y = c1.getSegment(i).getY();
-
-            Num delay = Num.getUtils(Calculator.getInstance().getNumBackend()).sub(c2.f_inv(ip_y, true), c1.f_inv(ip_y, false));
-            result = Num.getUtils(Calculator.getInstance().getNumBackend()).max(result, delay);
+            ips_y[i] = c1.getSegment(i).getY();
         }
         for (int i = 0; i < c2.getSegmentCount(); i++) {
-            Num ip_y = c2.getSegment(i).getY();
+            ips_y[c1.getSegmentCount() + i] = c2.getSegment(i).getY();
+        }
+
+        Num[] f_inv_c1;
+        Num[] f_inv_c2;
+        if (c1 instanceof Curve_Disco_PwAffine && c2 instanceof Curve_Disco_PwAffine) {
+            // Walk both curves once along the ascending y-coordinates
+            // instead of searching them from the start for every y-coordinate.
+            Integer[] order = new Integer[ips_y.length];
+            for (int k = 0; k < order.length; k++) {
+                order[k] = k;
+            }
+            // Exact order, the tolerance of lt() and gt() is not transitive.
+            Arrays.sort(order, (k1, k2) -> Double.compare(ips_y[k1].doubleValue(), ips_y[k2].doubleValue()));
 
-            Num delay = Num.getUtils(Calculator.getInstance().getNumBackend()).sub(c2.f_inv(ip_y, true), c1.f_inv(ip_y, false));
+            Num[] ips_y_sorted = new Num[ips_y.length];
+            for (int k = 0; k < order.length; k++) {
+                ips_y_sorted[k] = ips_y[order[k]];
+            }
+            Num[] f_inv_c1_sorted = ((Curve_Disco_PwAffine) c1).f_inv(ips_y_sorted, false);
+            Num[] f_inv_c2_sorted = ((Curve_Disco_PwAffine) c2).f_inv(ips_y_sorted, true);
+
+            f_inv_c1 = new Num[ips_y.length];
+            f_inv_c2 = new Num[ips_y.length];
+            for (int k = 0; k < order.length; k++) {
+                f_inv_c1[order[k]] = f_inv_c1_sorted[k];
+                f_inv_c2[order[k]] = f_inv_c2_sorted[k];
+            }
+        } else {
+            f_inv_c1 = new Num[ips_y.length];
+            f_inv_c2 = new Num[ips_y.length];
+            for (int k = 0; k < ips_y.length; k++) {
+                f_inv_c1[k] = c1.f_inv(ips_y[k], false);
+                f_inv_c2[k] = c2.f_inv(ips_y[k], true);
+            }
+        }
+
+        Num result = Num.getFactory(Calculator.getInstance().getNumBackend()).createNegativeInfinity();
+        for (int k = 0; k < ips_y.length; k++) {
+            Num delay = Num.getUtils(Calculator.getInstance().getNumBackend()).sub(f_inv_c2[k], f_inv_c1[k]);
             result = Num.getUtils(Calculator.getInstance().getNumBackend()).max(result, delay);
         }
         return result;
@@ -378,16 +475,31 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
         Num burst_c2 = c2.fLimitRight(Num.getFactory(Calculator.getInstance().getNumBackend()).getZero());
         Num result = Num.getUtils(Calculator.getInstance().getNumBackend()).diff(burst_c1, burst_c2);
 
-        ArrayList<Num> xcoords = computeInflectionPointsX(c1, c2);
-        for (int i = 0; i < xcoords.size(); i++) {
-            Num ip_x = xcoords.get(i);
+        Num[] ips_x = computeInflectionPointsX(c1, c2).toArray(new Num[0]);
 
-            Num backlog = Num.getUtils(Calculator.getInstance().getNumBackend()).sub(c1.f(ip_x), c2.f(ip_x));
+        // The inflection points are in ascending order,
+        // i.e., both curves can be evaluated in a single walk along their segments.
+        Num[] f_c1 = evaluate(c1, ips_x);
+        Num[] f_c2 = evaluate(c2, ips_x);
+        for (int i = 0; i < ips_x.length; i++) {
+            Num backlog = Num.getUtils(Calculator.getInstance().getNumBackend()).sub(f_c1[i], f_c2[i]);
             result = Num.getUtils(Calculator.getInstance().getNumBackend()).max(result, backlog);
         }
         return result;
     }
 
+    private Num[] evaluate(Curve c, Num[] x) {
+        if (c instanceof Curve_Disco_PwAffine) {
+            return ((Curve_Disco_PwAffine) c).f(x);
+        }
+
+        Num[] values = new Num[x.length];
+        for (int i = 0; i < x.length; i++) {
+            values[i] = c.f(x[i]);
+        }
+        return values;
+    }
+
     /**
      * Iterate over all segments from both <code>curve1</code> and <code>curve2</code> to find the smallest x-coordinate where an intersection occurs.
      *
@@ -544,7 +656,7 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
             default:
         }
 
-        ArrayList<LinearSegment> result = new ArrayList<LinearSegment>();
+        CurveBuilder result = new CurveBuilder(curve1.getSegmentCount() + curve2.getSegmentCount());
         Num x = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
         Num x_cross;
         boolean leftopen;
@@ -562,10 +674,10 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
 
             switch (operator) {
                 case ADD:
-                    result.add(LinearSegment.add(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen));
+                    result.addSegment(LinearSegment.add(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen));
                     break;
                 case SUB:
-                    result.add(LinearSegment.sub(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen));
+                    result.addSegment(LinearSegment.sub(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen));
                     break;
                 case MIN:
                     x_cross = curve1.getSegment(i1).getXIntersectionWith(curve2.getSegment(i2));
@@ -573,10 +685,10 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
                         x_cross = Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity();
                     }
                     if (x.lt(x_cross) && x_cross.lt(x_next)) {
-                        result.add(LinearSegment.min(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
-                        result.add(LinearSegment.min(curve1.getSegment(i1), curve2.getSegment(i2), x_cross, false, true));
+                        result.addSegment(LinearSegment.min(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
+                        result.addSegment(LinearSegment.min(curve1.getSegment(i1), curve2.getSegment(i2), x_cross, false, true));
                     } else {
-                        result.add(LinearSegment.min(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
+                        result.addSegment(LinearSegment.min(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
                     }
                     break;
                 case MAX:
@@ -585,10 +697,10 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
                         x_cross = Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity();
                     }
                     if (x.lt(x_cross) && x_cross.lt(x_next)) {
-                        result.add(LinearSegment.max(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
-                        result.add(LinearSegment.max(curve1.getSegment(i1), curve2.getSegment(i2), x_cross, false, true));
+                        result.addSegment(LinearSegment.max(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
+                        result.addSegment(LinearSegment.max(curve1.getSegment(i1), curve2.getSegment(i2), x_cross, false, true));
                     } else {
-                        result.add(LinearSegment.max(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
+                        result.addSegment(LinearSegment.max(curve1.getSegment(i1), curve2.getSegment(i2), x, leftopen, false));
                     }
                     break;
                 default:
@@ -604,7 +716,7 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
             x = x_next;
         }
 
-        return Curve.getFactory().createCurve(result);
+        return result.build();
     }
 
     /**
@@ -632,26 +744,26 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
     public Curve boundAtXAxis(Curve curve) {
         Curve curve_copy = curve.copy();
 
-        ArrayList<LinearSegment> result = new ArrayList<LinearSegment>();
+        CurveBuilder result = new CurveBuilder(curve_copy.getSegmentCount());
         LinearSegment s;
         LinearSegment x_axis = Curve.getXAxis();
         for (int i = 0; i < curve_copy.getSegmentCount(); i++) {
             if (curve_copy.getSegment(i).getY().gtZero()) {
-                result.add(curve_copy.getSegment(i));
+                result.addSegment(curve_copy.getSegment(i));
 
                 if (curve_copy.getSegment(i).getGrad().ltZero()) {
                     Num x_cross = curve_copy.getSegment(i).getXIntersectionWith(x_axis);
                     if (i + 1 >= curve_copy.getSegmentCount() || x_cross.lt(curve_copy.getSegment(i + 1).getX())) {
                         s = LinearSegment.createHorizontalLine(0.0);
                         s.setX(x_cross);
-                        result.add(s);
+                        result.addSegment(s);
                     }
                 }
             } else {
                 s = LinearSegment.createHorizontalLine(0.0);
                 s.setX(curve_copy.getSegment(i).getX());
                 s.setLeftopen(curve_copy.getSegment(i).isLeftopen());
-                result.add(s);
+                result.addSegment(s);
 
                 if (curve_copy.getSegment(i).getGrad().gtZero()) {
                     Num x_cross = curve_copy.getSegment(i).getXIntersectionWith(x_axis);
@@ -659,7 +771,7 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
                         s = LinearSegment.createHorizontalLine(0.0);
                         s.setX(x_cross);
                         s.setGrad(curve_copy.getSegment(i).getGrad());
-                        result.add(s);
+                        result.addSegment(s);
                     }
                 }
             }
@@ -668,7 +780,7 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
         // FIXME Can have colinear segments but the above beautify(...) method only works on curve instances.
         // Makes creation of affine curve fail if we restrict to at most 2 segmetns when calling createCurve(...).
         // Proposed solution: Overwrite this method with a affine curve specific one in the CurveAffine interface.
-        return Curve.getFactory().createCurve(result);
+        return result.build();
     }
 
     public ServiceCurve min(ServiceCurve c1, ServiceCurve c2) {
@@ -767,8 +879,10 @@ public class CurveUtils_Disco_PwAffine implements CurveUtils {
             segment_i.setX(dx);
             segment_i.setLeftopen(false);
         }
-        for (int j = 1; j <= i; j++) {
-            result.removeSegment(0);
+        if (i > 0) {
+            CurveBuilder segments = new CurveBuilder(result);
+            segments.removeSegments(0, i);
+            setSegments(result, segments);
         }
         for (i = 0; i < result.getSegmentCount(); i++) {
             result.getSegment(i).setX(Num.getUtils(Calculator.getInstance().getNumBackend()).sub(result.getSegment(i).getX(), dx));
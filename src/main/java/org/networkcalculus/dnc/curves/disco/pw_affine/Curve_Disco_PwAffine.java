@@ -27,18 +27,23 @@
 
 package org.networkcalculus.dnc.curves.disco.pw_affine;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.AnalysisConfig.MultiplexingEnforcement;
 import org.networkcalculus.dnc.Calculator;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.CurveFactory_Affine;
 import org.networkcalculus.dnc.curves.CurveUtils;
 import org.networkcalculus.dnc.curves.Curve_Affine;
-import org.networkcalculus.dnc.curves.Curve_ConstantPool;
 import org.networkcalculus.dnc.curves.Curve_PwAffine;
 import org.networkcalculus.dnc.curves.LinearSegment;
 import org.networkcalculus.dnc.curves.disco.Curves_Disco_Configuration;
@@ -65,13 +70,37 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 
 	protected boolean is_delayed_infinite_burst = false;
 
+	private static final Curve_Disco_PwAffine[] NO_COMPONENTS = new Curve_Disco_PwAffine[0];
+
 	protected boolean is_rate_latency = false;
-	protected boolean has_rate_latency_meta_info = false;
-	protected List<Curve_Disco_PwAffine> rate_latencies = new LinkedList<Curve_Disco_PwAffine>();
+	protected volatile boolean has_rate_latency_meta_info = false;
+	protected Curve_Disco_PwAffine[] rate_latencies = NO_COMPONENTS;
 
 	protected boolean is_token_bucket = false;
-	protected boolean has_token_bucket_meta_info = false;
-	protected List<Curve_Disco_PwAffine> token_buckets = new LinkedList<Curve_Disco_PwAffine>();
+	protected volatile boolean has_token_bucket_meta_info = false;
+	protected Curve_Disco_PwAffine[] token_buckets = NO_COMPONENTS;
+
+	// Number of decompositions into rate latencies or token buckets that were actually computed.
+	private static final AtomicLong decomposition_count = new AtomicLong();
+
+	// Copy of the segments that the decompositions and the normalized form were derived from.
+	// getSegment() hands out the live segments, once it was called the segments are compared
+	// to this copy before any derived data is used.
+	private volatile LinearSegment_Disco[] derived_from_segments = null;
+	private boolean segments_exposed = false;
+
+	// Beautified copy of the segments and its hash, computed on demand by equals() and hashCode().
+	// Kept in a single immutable object such that concurrent readers of a shared curve never see
+	// the segments of one computation combined with the hash of another.
+	private volatile NormalizedSegments normalized = null;
+
+	// Set for the canonical instances handed out by intern(). Their segments cannot be changed anymore.
+	private MultiplexingEnforcement interned_multiplexing = null;
+
+	// One table per multiplexing mode, as it determines which curves are considered equal,
+	// and per class, as equal curves of different classes must not share a canonical instance.
+	// Values are weak as well, otherwise an interned curve would keep its own key alive.
+	private static final Map<MultiplexingEnforcement, Map<Class<?>, Map<Curve_Disco_PwAffine, WeakReference<Curve_Disco_PwAffine>>>> intern_tables = new HashMap<>();
 
 	/**
 	 * Creates a <code>CurveDNC</code> instance with a single segment on the x-axis.
@@ -122,21 +151,22 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	}
 
 	public List<Curve_Affine> getRL_Components() {
+		checkDerivedData();
 		List<Curve_Affine> tmp = new LinkedList<>();
 		if (this.is_rate_latency) {
 			tmp.add(this.copy());
 		} else {
-			for (int i = 0; i < rate_latencies.size(); i++) {
-				tmp.add(rate_latencies.get(i));
+			for (int i = 0; i < rate_latencies.length; i++) {
+				tmp.add(rate_latencies[i]);
 			}
 		}
 		return tmp;
 	}
 
 	public void setRL_Components(List<Curve> rate_latencies) {
-		List<Curve_Disco_PwAffine> tmp = new LinkedList<>();
-		for (int i = 0; i < rate_latencies.size(); i++) {
-			tmp.add((Curve_Disco_PwAffine) rate_latencies.get(i));
+		Curve_Disco_PwAffine[] tmp = new Curve_Disco_PwAffine[rate_latencies.size()];
+		for (int i = 0; i < tmp.length; i++) {
+			tmp[i] = (Curve_Disco_PwAffine) rate_latencies.get(i);
 		}
 		this.rate_latencies = tmp;
 	}
@@ -150,21 +180,37 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	}
 
 	public List<Curve_Affine> getTB_Components() {
+		checkDerivedData();
 		List<Curve_Affine> tmp = new LinkedList<>();
-		for (int i = 0; i < token_buckets.size(); i++) {
-			tmp.add(token_buckets.get(i));
+		for (int i = 0; i < token_buckets.length; i++) {
+			tmp.add(token_buckets[i]);
 		}
 		return tmp;
 	}
 
 	public void setTB_Components(List<Curve> token_buckets) {
-		List<Curve_Disco_PwAffine> tmp = new LinkedList<>();
-		for (int i = 0; i < token_buckets.size(); i++) {
-			tmp.add((Curve_Disco_PwAffine) token_buckets.get(i));
+		Curve_Disco_PwAffine[] tmp = new Curve_Disco_PwAffine[token_buckets.size()];
+		for (int i = 0; i < tmp.length; i++) {
+			tmp[i] = (Curve_Disco_PwAffine) token_buckets.get(i);
 		}
 		this.token_buckets = tmp;
 	}
 
+	/**
+	 * Returns how often a curve was actually decomposed into rate latency curves
+	 * or token bucket curves, i.e., without the decomposition being found in the
+	 * curve's meta information.
+	 *
+	 * @return the number of decompositions
+	 */
+	public static long getDecompositionCount() {
+		return decomposition_count.get();
+	}
+
+	public static void resetDecompositionCount() {
+		decomposition_count.set(0);
+	}
+
 	private void createNewCurve(int segment_count, boolean empty) {
 		if (!empty) { // old default
 			createZeroSegmentsCurve(segment_count);
@@ -238,11 +284,46 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	private void clearMetaInfo() {
 		has_token_bucket_meta_info = false;
 		is_token_bucket = false;
-		token_buckets = new LinkedList<Curve_Disco_PwAffine>();
+		token_buckets = NO_COMPONENTS;
 
 		has_rate_latency_meta_info = false;
 		is_rate_latency = false;
-		rate_latencies = new LinkedList<Curve_Disco_PwAffine>();
+		rate_latencies = NO_COMPONENTS;
+
+		normalized = null;
+		derived_from_segments = null;
+	}
+
+	/**
+	 * Drops all data derived from the segments if a segment handed out by
+	 * <code>getSegment</code> was changed since the data was derived.
+	 */
+	private void checkDerivedData() {
+		if (!segments_exposed || derived_from_segments == null) {
+			return;
+		}
+		if (derived_from_segments.length == segments.length) {
+			int i = 0;
+			while (i < segments.length && segments[i].equals(derived_from_segments[i])) {
+				i++;
+			}
+			if (i == segments.length) {
+				return;
+			}
+		}
+		clearMetaInfo();
+	}
+
+	private void deriveFromCurrentSegments() {
+		if (derived_from_segments != null) {
+			return;
+		}
+		// Published only when complete, other threads may read it concurrently.
+		LinearSegment_Disco[] segments_cpy = new LinearSegment_Disco[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			segments_cpy[i] = segments[i].copy();
+		}
+		derived_from_segments = segments_cpy;
 	}
 
 	/**
@@ -259,40 +340,55 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 
 	@Override
 	public void copy(Curve curve) {
+		checkNotInterned();
+
 		LinearSegment_Disco[] segments = new LinearSegment_Disco[curve.getSegmentCount()];
 
 		if (curve instanceof Curve_Disco_PwAffine) {
+			Curve_Disco_PwAffine curve_pwa = (Curve_Disco_PwAffine) curve;
+			curve_pwa.checkDerivedData();
+
+			// Direct access, getSegment() would mark the other curve's segments as exposed.
 			for (int i = 0; i < segments.length; i++) {
-				segments[i] = ((Curve_Disco_PwAffine) curve).getSegment(i).copy();
+				segments[i] = curve_pwa.segments[i].copy();
 			}
+			setSegments(segments);
+
+			// The copied segments equal the ones the other curve's meta information was derived from.
+			this.has_rate_latency_meta_info = curve_pwa.has_rate_latency_meta_info;
+			this.rate_latencies = curve_pwa.rate_latencies;
 
-			this.has_rate_latency_meta_info = ((Curve_Disco_PwAffine) curve).has_rate_latency_meta_info;
-			this.rate_latencies.clear();
-			this.rate_latencies.addAll(((Curve_Disco_PwAffine) curve).rate_latencies);
-			
-			this.has_token_bucket_meta_info = ((Curve_Disco_PwAffine) curve).has_token_bucket_meta_info;
-			this.token_buckets.clear();
-			this.token_buckets.addAll(((Curve_Disco_PwAffine) curve).token_buckets);
-
-			this.is_delayed_infinite_burst = ((Curve_PwAffine) curve).isDelayedInfiniteBurst();
-			this.is_rate_latency = ((Curve_PwAffine) curve).isRateLatency();
-			this.is_token_bucket = ((Curve_PwAffine) curve).isTokenBucket();
+			this.has_token_bucket_meta_info = curve_pwa.has_token_bucket_meta_info;
+			this.token_buckets = curve_pwa.token_buckets;
+
+			this.is_delayed_infinite_burst = curve_pwa.is_delayed_infinite_burst;
+			this.is_rate_latency = curve_pwa.is_rate_latency;
+			this.is_token_bucket = curve_pwa.is_token_bucket;
+
+			this.normalized = curve_pwa.normalized;
+
+			this.derived_from_segments = curve_pwa.derived_from_segments;
 		} else {
 			for (int i = 0; i < curve.getSegmentCount(); i++) {
 				segments[i] = new LinearSegment_Disco(curve.getSegment(i));
 			}
+			setSegments(segments);
 		}
-
-		setSegments(segments);
 	}
 
 	/**
-	 * Starting at 0.
+	 * Starting at 0.<br>
+	 * Returns the segment itself, not a copy. As callers may change it, data
+	 * derived from the segments is checked against them before it is used
+	 * again.
 	 */
 	public LinearSegment_Disco getSegment(int pos) {
 		if (pos < 0 || pos > segments.length - 1) {
 			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ", segments.length="+segments.length+")!");
 		}
+		if (interned_multiplexing == null) {
+			segments_exposed = true;
+		}
 		return segments[pos];
 	}
 
@@ -322,18 +418,50 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 * @return the index of the segment into the array.
 	 */
 	public int getSegmentDefining(Num x) {
-		for (int i = segments.length - 1; i >= 0; i--) {
-			if (segments[i].isLeftopen()) {
-				if (segments[i].getX().lt(x)) {
-					return i;
-				}
+		return getSegmentDefining(x, getLastSegmentStartingAt(x, 0));
+	}
+
+	/**
+	 * Steps back from segment <code>i</code>, the last one starting at or before
+	 * <code>x</code>, over left-open segments that start exactly at <code>x</code>.
+	 *
+	 * @param x
+	 *            the x-coordinate
+	 * @param i
+	 *            the last segment starting at or before <code>x</code>
+	 * @return the index of the segment into the array.
+	 */
+	private int getSegmentDefining(Num x, int i) {
+		while (i >= 0 && segments[i].isLeftopen() && !segments[i].getX().lt(x)) {
+			i--;
+		}
+		return i;
+	}
+
+	/**
+	 * Binary search for the last segment starting at or before <code>x</code>.
+	 * Segments are sorted by their x-coordinate so that the search can be
+	 * restricted to the indices from <code>from</code> on.
+	 *
+	 * @param x
+	 *            the x-coordinate
+	 * @param from
+	 *            the first index to consider
+	 * @return the index of the segment into the array, <code>from - 1</code> if
+	 *         there is no such segment.
+	 */
+	private int getLastSegmentStartingAt(Num x, int from) {
+		int low = from;
+		int high = segments.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (segments[mid].getX().leq(x)) {
+				low = mid + 1;
 			} else {
-				if (segments[i].getX().leq(x)) {
-					return i;
-				}
+				high = mid - 1;
 			}
 		}
-		return -1;
+		return low - 1;
 	}
 
 	/**
@@ -353,15 +481,11 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 			return getSegmentCount();
 		}
 
-		for (int i = segments.length - 1; i >= 0; i--) {
-			if (segments[i].getX().leq(x)) {
-				return i;
-			}
-		}
-		return -1;
+		return getLastSegmentStartingAt(x, 0);
 	}
 
 	public void setSegment(int pos, LinearSegment s) {
+		checkNotInterned();
 		if (pos < 0 || pos >= segments.length) {
 			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
 		}
@@ -381,6 +505,7 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	}
 
 	protected void setSegments(LinearSegment[] segments) {
+		checkNotInterned();
 		if (segments instanceof LinearSegment_Disco[]) {
 			this.segments = (LinearSegment_Disco[]) segments;
 		} else {
@@ -418,6 +543,7 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 *            the segment to be added.
 	 */
 	public void addSegment(int pos, LinearSegment s) {
+		checkNotInterned();
 		if (pos < 0 || pos > segments.length) {
 			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
 		}
@@ -452,6 +578,7 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 *            the index of the segment to be removed.
 	 */
 	public void removeSegment(int pos) {
+		checkNotInterned();
 		if (pos < 0 || pos >= segments.length) {
 			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
 		}
@@ -656,28 +783,23 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 		if (obj == null || !(obj instanceof Curve_Disco_PwAffine)) {
 			return false;
 		}
+		if (this == obj) {
+			return true;
+		}
 
-		Curve_Disco_PwAffine this_cpy = this.copy();
-		Curve_Disco_PwAffine other_cpy = ((Curve_Disco_PwAffine) obj).copy();
-
-		utils.beautify(this_cpy);
-		utils.beautify(other_cpy);
+		Curve_Disco_PwAffine other = (Curve_Disco_PwAffine) obj;
 
-		if (this_cpy.getLatency() == Num.getFactory(Calculator.getInstance().getNumBackend()).getPositiveInfinity()) {
-			this_cpy = Curve_ConstantPool.ZERO_CURVE.get();
-		}
-		if (other_cpy.getLatency() == Num.getFactory(Calculator.getInstance().getNumBackend()).getPositiveInfinity()) {
-			other_cpy = Curve_ConstantPool.ZERO_CURVE.get();
-		}
+		LinearSegment_Disco[] this_segments = getNormalized().segments;
+		LinearSegment_Disco[] other_segments = other.getNormalized().segments;
 
-		int this_segment_length = this_cpy.segments.length;
+		int this_segment_length = this_segments.length;
 
-		if (this_segment_length != other_cpy.segments.length) {
+		if (this_segment_length != other_segments.length) {
 			return false;
 		}
 
 		for (int i = 0; i < this_segment_length; i++) {
-			if (!this_cpy.segments[i].equals(other_cpy.segments[i])) {
+			if (!this_segments[i].equals(other_segments[i])) {
 				return false;
 			}
 		}
@@ -687,7 +809,154 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 
 	@Override
 	public int hashCode() {
-		return Arrays.hashCode(segments);
+		return getNormalized().hash;
+	}
+
+	private NormalizedSegments getNormalized() {
+		checkDerivedData();
+		MultiplexingEnforcement multiplexing = AnalysisConfig.enforceMultiplexingStatic();
+		NormalizedSegments normalized_cached = normalized;
+		if (normalized_cached != null && normalized_cached.multiplexing == multiplexing) {
+			return normalized_cached;
+		}
+
+		LinearSegment_Disco[] segments_cpy = new LinearSegment_Disco[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			segments_cpy[i] = segments[i].copy();
+		}
+		Curve_Disco_PwAffine beautified = new Curve_Disco_PwAffine();
+		beautified.setSegments(segments_cpy);
+		utils.beautify(beautified);
+
+		normalized_cached = new NormalizedSegments(beautified.segments, multiplexing);
+		normalized = normalized_cached;
+		deriveFromCurrentSegments();
+
+		return normalized_cached;
+	}
+
+	private static final class NormalizedSegments {
+		final LinearSegment_Disco[] segments;
+		final int hash;
+		final MultiplexingEnforcement multiplexing;
+
+		NormalizedSegments(LinearSegment_Disco[] segments, MultiplexingEnforcement multiplexing) {
+			this.segments = segments;
+			this.hash = Arrays.hashCode(segments);
+			this.multiplexing = multiplexing;
+		}
+	}
+
+	// ------------------------------------------------------------
+	// Interning
+	// ------------------------------------------------------------
+
+	/**
+	 * Returns the canonical instance for <code>curve</code>, i.e., the first
+	 * interned curve of the same class that is equal to it. If there is none
+	 * yet, a copy of <code>curve</code> becomes the canonical instance.
+	 * Curves that are only equal within the tolerance of their numbers may
+	 * have different hash codes, such that each gets its own canonical instance.<br>
+	 * Canonical instances cannot be changed, any attempt to do so throws an
+	 * exception. Use <code>copy()</code> to get a modifiable curve.<br>
+	 * Curves of other backends are returned as they are.
+	 *
+	 * @param <C>
+	 *            the type of the curve.
+	 * @param curve
+	 *            the curve to intern.
+	 * @return the canonical instance.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends Curve> C intern(C curve) {
+		if (!(curve instanceof Curve_Disco_PwAffine)) {
+			return curve;
+		}
+		return (C) ((Curve_Disco_PwAffine) curve).intern();
+	}
+
+	/**
+	 * Returns the canonical instance that is equal to this curve.
+	 *
+	 * @return the canonical instance.
+	 * @see #intern(Curve)
+	 */
+	public Curve_Disco_PwAffine intern() {
+		MultiplexingEnforcement multiplexing = AnalysisConfig.enforceMultiplexingStatic();
+		if (interned_multiplexing == multiplexing) {
+			return this;
+		}
+
+		synchronized (intern_tables) {
+			Map<Class<?>, Map<Curve_Disco_PwAffine, WeakReference<Curve_Disco_PwAffine>>> class_tables = intern_tables.get(multiplexing);
+			if (class_tables == null) {
+				class_tables = new HashMap<>();
+				intern_tables.put(multiplexing, class_tables);
+			}
+			Map<Curve_Disco_PwAffine, WeakReference<Curve_Disco_PwAffine>> table = class_tables.get(getClass());
+			if (table == null) {
+				table = new WeakHashMap<>();
+				class_tables.put(getClass(), table);
+			}
+
+			WeakReference<Curve_Disco_PwAffine> canonical_ref = table.get(this);
+			Curve_Disco_PwAffine canonical = canonical_ref == null ? null : canonical_ref.get();
+			if (canonical != null) {
+				return canonical;
+			}
+
+			canonical = this.copy();
+			utils.beautify(canonical);
+			LinearSegment_Disco[] frozen_segments = new LinearSegment_Disco[canonical.segments.length];
+			for (int i = 0; i < frozen_segments.length; i++) {
+				frozen_segments[i] = new LinearSegment_Frozen(canonical.segments[i]);
+			}
+			canonical.segments = frozen_segments;
+			canonical.getNormalized();
+			canonical.interned_multiplexing = multiplexing;
+
+			table.put(canonical, new WeakReference<Curve_Disco_PwAffine>(canonical));
+			return canonical;
+		}
+	}
+
+	public boolean isInterned() {
+		return interned_multiplexing != null;
+	}
+
+	private void checkNotInterned() {
+		if (interned_multiplexing != null) {
+			throw new RuntimeException("Interned curves cannot be modified, copy it first.");
+		}
+	}
+
+	/**
+	 * Segment of an interned curve, all setters fail.
+	 */
+	private static final class LinearSegment_Frozen extends LinearSegment_Disco {
+		private LinearSegment_Frozen(LinearSegment_Disco segment) {
+			super(segment);
+		}
+
+		@Override
+		public void setX(Num x) {
+			throw new RuntimeException("Segments of interned curves cannot be modified.");
+		}
+
+		@Override
+		public void setY(Num y) {
+			throw new RuntimeException("Segments of interned curves cannot be modified.");
+		}
+
+		@Override
+		public void setGrad(Num grad) {
+			throw new RuntimeException("Segments of interned curves cannot be modified.");
+		}
+
+		@Override
+		public void setLeftopen(boolean leftopen) {
+			throw new RuntimeException("Segments of interned curves cannot be modified.");
+		}
 	}
 
 	/**
@@ -742,6 +1011,33 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 				segments[i].getY());
 	}
 
+	/**
+	 * Returns the function values at the x-coordinates <code>x</code> that need
+	 * to be given in ascending order. The defining segments are found by a single
+	 * forward walk over the segments instead of one lookup per coordinate.
+	 *
+	 * @param x
+	 *            the x-coordinates in ascending order
+	 * @return the function values, <code>NaN</code> where not defined
+	 */
+	Num[] f(Num[] x) {
+		Num[] values = new Num[x.length];
+		int last = -1;
+		for (int k = 0; k < x.length; k++) {
+			while (last + 1 < segments.length && segments[last + 1].getX().leq(x[k])) {
+				last++;
+			}
+			int i = getSegmentDefining(x[k], last);
+			if (i < 0) {
+				values[k] = Num.getFactory(Calculator.getInstance().getNumBackend()).createNaN();
+			} else {
+				values[k] = Num.getUtils(Calculator.getInstance().getNumBackend()).add(Num.getUtils(Calculator.getInstance().getNumBackend()).mult(Num.getUtils(Calculator.getInstance().getNumBackend()).sub(x[k], segments[i].getX()), segments[i].getGrad()),
+						segments[i].getY());
+			}
+		}
+		return values;
+	}
+
 	// ------------------------------------------------------------
 	// Curve function values
 	// ------------------------------------------------------------
@@ -784,7 +1080,10 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 * @return The smallest x value.
 	 */
 	public Num f_invFIFO(Num y, boolean rightmost) {
-		int i = getSegmentFirstAtValue(y);
+		return f_invFIFO(y, rightmost, getSegmentFirstAtValueFIFO(y, 0));
+	}
+
+	private Num f_invFIFO(Num y, boolean rightmost, int i) {
 		if (i < 0) {
 			return Num.getFactory(Calculator.getInstance().getNumBackend()).createNaN();
 		}
@@ -832,7 +1131,10 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 * @return The smallest x value.
 	 */
 	public Num f_invARB(Num y, boolean rightmost) {
-		int i = getSegmentFirstAtValue(y);
+		return f_invARB(y, rightmost, getSegmentFirstAtValueARB(y, 0));
+	}
+
+	private Num f_invARB(Num y, boolean rightmost, int i) {
 		if (i < 0) {
 			return Num.getFactory(Calculator.getInstance().getNumBackend()).createNaN();
 		}
@@ -852,15 +1154,37 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 		}
 	}
 
-	private int getSegmentFirstAtValue(Num y) {
-		if(AnalysisConfig.enforceMultiplexingStatic() == AnalysisConfig.MultiplexingEnforcement.GLOBAL_FIFO)
-		{
-			return getSegmentFirstAtValueFIFO(y);
-		}
-
-		else{
-			return getSegmentFirstAtValueARB(y);
+	/**
+	 * Returns the x values at which the function values are equal to the
+	 * <code>y</code>-coordinates that need to be given in ascending order. Like
+	 * <code>f_inv(y, rightmost)</code> for each coordinate, yet the search for the
+	 * first segment reaching the value resumes where the previous one stopped.
+	 *
+	 * @param y
+	 *            the y-coordinates in ascending order
+	 * @param rightmost
+	 *            Return the rightmost x coordinates instead of the leftmost ones.
+	 * @return the x values
+	 */
+	Num[] f_inv(Num[] y, boolean rightmost) {
+		boolean fifo = AnalysisConfig.enforceMultiplexingStatic() == AnalysisConfig.MultiplexingEnforcement.GLOBAL_FIFO;
+
+		Num[] values = new Num[y.length];
+		int from = 0;
+		for (int k = 0; k < y.length; k++) {
+			int i;
+			if (fifo) {
+				i = getSegmentFirstAtValueFIFO(y[k], from);
+				values[k] = f_invFIFO(y[k], rightmost, i);
+				// A jump makes the FIFO variant return the segment after the one it stopped at
+				from = Math.max(from, i - 1);
+			} else {
+				i = getSegmentFirstAtValueARB(y[k], from);
+				values[k] = f_invARB(y[k], rightmost, i);
+				from = Math.max(from, i);
+			}
 		}
+		return values;
 	}
 
 	/**
@@ -872,13 +1196,15 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 *
 	 * @param y
 	 *            the y-coordinate
+	 * @param from
+	 *            the first segment to consider, known not to come after the result
 	 * @return the segment number
 	 */
-	private int getSegmentFirstAtValueFIFO(Num y) {
+	private int getSegmentFirstAtValueFIFO(Num y, int from) {
 		if (segments.length == 0 || segments[0].getY().gt(y)) {
 			return -1;
 		}
-		for (int i = 0; i < segments.length; i++) {
+		for (int i = from; i < segments.length; i++) {
 			if (i < segments.length - 1) {
 				if (segments[i + 1].getY().geq(y)) {
 					// have to check for a jump
@@ -927,13 +1253,15 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 *
 	 * @param y
 	 *            the y-coordinate
+	 * @param from
+	 *            the first segment to consider, known not to come after the result
 	 * @return the segment number
 	 */
-	private int getSegmentFirstAtValueARB(Num y) {
+	private int getSegmentFirstAtValueARB(Num y, int from) {
 		if (segments.length == 0 || segments[0].getY().gt(y)) {
 			return -1;
 		}
-		for (int i = 0; i < segments.length; i++) {
+		for (int i = from; i < segments.length; i++) {
 			if (i < segments.length - 1) {
 				if (segments[i + 1].getY().geq(y)) {
 					return i;
@@ -1051,7 +1379,7 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 */
 	public int getRL_ComponentCount() {
 		decomposeIntoRateLatencies();
-		return rate_latencies.size();
+		return rate_latencies.length;
 	}
 
 	/**
@@ -1064,7 +1392,7 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 */
 	public Curve_Disco_PwAffine getRL_Component(int i) {
 		decomposeIntoRateLatencies();
-		return rate_latencies.get(i);
+		return rate_latencies[i];
 	}
 
 	/**
@@ -1073,20 +1401,21 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 * Note: Curve must be convex.
 	 */
 	private void decomposeIntoRateLatencies() {
+		checkDerivedData();
 		if (has_rate_latency_meta_info == true) {
 			return;
 		}
+		decomposition_count.incrementAndGet();
 
 		if (Curves_Disco_Configuration.getInstance().exec_service_curve_checks() && !this.isConvex()) {
 			if (this.equals(this.createZeroDelayInfiniteBurst())) {
-				rate_latencies = new ArrayList<Curve_Disco_PwAffine>();
-				rate_latencies.add(this.createRateLatency(Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity(),
-						Num.getFactory(Calculator.getInstance().getNumBackend()).createZero()));
+				rate_latencies = new Curve_Disco_PwAffine[] { this.createRateLatency(Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity(),
+						Num.getFactory(Calculator.getInstance().getNumBackend()).createZero()) };
 			} else {
 				throw new RuntimeException("Can only decompose convex service curves into rate latency curves.");
 			}
 		} else {
-			rate_latencies = new ArrayList<Curve_Disco_PwAffine>();
+			List<Curve_Disco_PwAffine> rate_latencies = new ArrayList<Curve_Disco_PwAffine>();
 			for (int i = 0; i < segments.length; i++) {
 				if (segments[i].getY().eq(0.0) && segments[i].getGrad().eq(0.0)) {
 					continue;
@@ -1099,11 +1428,13 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 				}
 				rate_latencies.add(this.createRateLatency(rate, latency));
 			}
+			this.rate_latencies = rate_latencies.toArray(NO_COMPONENTS);
 		}
 
-		is_rate_latency = rate_latencies.size() == 1;
+		is_rate_latency = rate_latencies.length == 1;
 
 		has_rate_latency_meta_info = true;
+		deriveFromCurrentSegments();
 	}
 
 	public void setTokenBucket(boolean is_token_bucket) {
@@ -1117,7 +1448,7 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 */
 	public int getTB_ComponentCount() {
 		decomposeIntoTokenBuckets();
-		return token_buckets.size();
+		return token_buckets.length;
 	}
 
 	/**
@@ -1130,7 +1461,7 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 */
 	public Curve_Disco_PwAffine getTB_Component(int i) {
 		decomposeIntoTokenBuckets();
-		return token_buckets.get(i);
+		return token_buckets[i];
 	}
 
 	/**
@@ -1139,15 +1470,17 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 	 * Note: Curve must be concave.
 	 */
 	private void decomposeIntoTokenBuckets() {
+		checkDerivedData();
 		if (has_token_bucket_meta_info == true) {
 			return;
 		}
+		decomposition_count.incrementAndGet();
 
 		if (Curves_Disco_Configuration.getInstance().exec_arrival_curve_checks() && !this.isConcave()) {
 			throw new RuntimeException("Can only decompose concave arrival curves into token buckets.");
 		}
 
-		token_buckets = new ArrayList<Curve_Disco_PwAffine>();
+		List<Curve_Disco_PwAffine> token_buckets = new ArrayList<Curve_Disco_PwAffine>();
 		for (int i = 0; i < segments.length; i++) {
 			if (isDiscontinuity(i)) {
 				continue;
@@ -1157,10 +1490,12 @@ public class Curve_Disco_PwAffine implements Curve_PwAffine, CurveFactory_Affine
 					Num.getUtils(Calculator.getInstance().getNumBackend()).mult(segments[i].getX(), segments[i].getGrad()));
 			token_buckets.add(this.createTokenBucket(rate, burst));
 		}
+		this.token_buckets = token_buckets.toArray(NO_COMPONENTS);
 
-		is_token_bucket = token_buckets.size() == 1;
+		is_token_bucket = this.token_buckets.length == 1;
 
 		has_token_bucket_meta_info = true;
+		deriveFromCurrentSegments();
 	}
 
 	// --------------------------------------------------------------------------------------------------------------
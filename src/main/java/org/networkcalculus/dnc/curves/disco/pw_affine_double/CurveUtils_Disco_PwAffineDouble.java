@@ -0,0 +1,684 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.curves.disco.pw_affine_double;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.CurveUtils;
+import org.networkcalculus.dnc.curves.Curve_ConstantPool;
+import org.networkcalculus.dnc.curves.MaxServiceCurve;
+import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.dnc.curves.disco.pw_affine.CurveUtils_Disco_PwAffine;
+import org.networkcalculus.num.Num;
+
+/**
+ * Curve utils working on the primitive arrays of
+ * <code>Curve_Disco_PwAffineDouble</code>. The operations match the ones of
+ * <code>CurveUtils_Disco_PwAffine</code> but neither create
+ * <code>LinearSegment</code> nor <code>Num</code> objects in their inner loops.
+ * Curves of other backends are converted before being operated on.
+ */
+public class CurveUtils_Disco_PwAffineDouble implements CurveUtils {
+	private static CurveUtils_Disco_PwAffineDouble instance = new CurveUtils_Disco_PwAffineDouble();
+
+	public static CurveUtils_Disco_PwAffineDouble getInstance() {
+		return instance;
+	}
+
+	private static Curve_Disco_PwAffineDouble factory() {
+		return (Curve_Disco_PwAffineDouble) Curve_Disco_PwAffineDouble.getFactory();
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// Generic Manipulations
+	// --------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns a copy of this curve with latency removed, i.e. shifted left by the
+	 * latency.
+	 *
+	 * @param curve The curve to shift.
+	 * @return A copy of this curve without latency
+	 */
+	public Curve removeLatency(Curve curve) {
+		Curve_Disco_PwAffineDouble c = Curve_Disco_PwAffineDouble.of(curve);
+		Curve_Disco_PwAffineDouble result = c.copy();
+
+		if (result.segment_count == 2 && DoubleUtils.eq(result.seg_x[0], 0.0)
+				&& DoubleUtils.eq(result.seg_x[1], 0.0)) { // Some curve that is only 0 in the origin
+			return result;
+		}
+
+		if (result.segment_count == 1) {
+			if (DoubleUtils.eq(result.getBurstValue(), 0.0) && DoubleUtils.eq(result.seg_grad[0], 0.0)) { // A zeroCurve on the x-axis
+				throw new IllegalArgumentException("Cannot remove the latency of a zero curve lying on the x-axis!");
+			} else {
+				return result;
+			}
+		}
+
+		// Remove all segment(s) with y0==0.0 and grad==0.0
+		while (result.segment_count > 0) {
+			if (DoubleUtils.gt(result.seg_y[0], 0.0) || DoubleUtils.gt(result.seg_grad[0], 0.0)) {
+				break;
+			}
+			if (DoubleUtils.lt(c.seg_y[0], 0.0) || DoubleUtils.lt(c.seg_grad[0], 0.0)) {
+				throw new RuntimeException("Should have avoided neg. gradients elsewhere...");
+			}
+			result.removeSegment(0);
+		}
+
+		// In case that we've removed everything, the curve had infinite latency, so
+		// return the zero curve.
+		if (result.segment_count == 0) {
+			return Curve_ConstantPool.ZERO_CURVE.get();
+		}
+
+		// Shift remaining segments left by latency
+		double latency = result.seg_x[0];
+		for (int i = 0; i < result.segment_count; i++) {
+			result.seg_x[i] -= latency;
+		}
+		if (result.seg_leftopen.get(0)) {
+			result.addSegment(0, 0.0, 0.0, 0.0, false);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns a copy of this curve that is shifted to the right by <code>dx</code>,
+	 * i.e. g(x) = f(x-dx).
+	 *
+	 * @param curve The curve to shift.
+	 * @param dx    The offset to shift the curve.
+	 * @return The shifted curve.
+	 */
+	public Curve shiftRight(Curve curve, Num dx) {
+		return shiftRight(curve, dx.doubleValue());
+	}
+
+	public Curve_Disco_PwAffineDouble shiftRight(Curve curve, double dx) {
+		Curve_Disco_PwAffineDouble curve_copy = Curve_Disco_PwAffineDouble.of(curve).copy();
+		if (DoubleUtils.eq(dx, 0.0)) {
+			return curve_copy;
+		}
+
+		if (DoubleUtils.gt(curve_copy.seg_grad[0], 0.0) || DoubleUtils.gt(curve_copy.seg_y[0], 0.0)) {
+			// Add a zero segment at the front
+			curve_copy.addSegment(0, 0.0, 0.0, 0.0, false);
+		}
+
+		for (int i = 1; i < curve_copy.segment_count; i++) {
+			curve_copy.seg_x[i] += dx;
+		}
+
+		beautify(curve_copy);
+		return curve_copy;
+	}
+
+	public void beautify(Curve c) {
+		if (!(c instanceof Curve_Disco_PwAffineDouble)) {
+			// Cannot change the representation of the given instance.
+			CurveUtils_Disco_PwAffine.getInstance().beautify(c);
+			return;
+		}
+
+		if (AnalysisConfig.enforceMultiplexingStatic() == AnalysisConfig.MultiplexingEnforcement.GLOBAL_FIFO) {
+			beautifyFIFO((Curve_Disco_PwAffineDouble) c);
+		} else {
+			beautifyARB((Curve_Disco_PwAffineDouble) c);
+		}
+	}
+
+	public void beautifyFIFO(Curve_Disco_PwAffineDouble c) {
+		// Remove unreal discontinuity.
+		for (int i = 0; i < c.segment_count - 1; i++) {
+			if (c.isUnrealDiscontinuity(i)) {
+				c.seg_leftopen.set(i + 1, c.seg_leftopen.get(i));
+				c.removeSegment(i);
+			}
+		}
+
+		// Join colinear segments.
+		for (int i = 0; i < c.segment_count - 1; i++) {
+			if (!DoubleUtils.eq(c.seg_grad[i], c.seg_grad[i + 1])) {
+				continue;
+			}
+			double y_next = c.seg_y[i] + DoubleUtils.mult(c.seg_x[i + 1] - c.seg_x[i], c.seg_grad[i]);
+			if (!DoubleUtils.eq(y_next, c.seg_y[i + 1])) {
+				continue; // there is a "jump", so can't join the segments
+			}
+
+			// No "jump", delete segment i+1 -- note that they have the same slope
+			c.removeSegment(i + 1);
+		}
+
+		// x-coordinates of segment i and i+1 are the same, the y-coordinates differ
+		for (int i = 0; i < c.segment_count - 1; i++) {
+			if (DoubleUtils.eq(c.seg_x[i], c.seg_x[i + 1])) {
+				if (!c.seg_leftopen.get(i)) {
+					if (!c.seg_leftopen.get(i + 1)) {
+						// both segments are not leftopen and both start at "x" -> can remove segment i
+						c.removeSegment(i);
+					} else {
+						// segment i not leftopen but i+1 is and different y-vals -> "jump", should keep both segments
+						// Found a spot and spot-segments have slope zero by definition
+						c.seg_grad[i] = 0.0;
+					}
+				} else {
+					// segment i is leftopen -> just remove it
+					c.removeSegment(i);
+				}
+			}
+		}
+
+		c.clearMetaInfo();
+	}
+
+	public void beautifyARB(Curve_Disco_PwAffineDouble c) {
+		// Remove unreal discontinuity.
+		for (int i = 0; i < c.segment_count - 1; i++) {
+			if (c.isUnrealDiscontinuity(i)) {
+				c.seg_leftopen.set(i + 1, c.seg_leftopen.get(i));
+				c.removeSegment(i);
+				continue;
+			}
+			i++;
+		}
+
+		// Join colinear segments.
+		for (int i = 0; i < c.segment_count - 1; i++) {
+			if (!DoubleUtils.eq(c.seg_grad[i], c.seg_grad[i + 1])) {
+				continue;
+			}
+			double y_next = c.seg_y[i] + DoubleUtils.mult(c.seg_x[i + 1] - c.seg_x[i], c.seg_grad[i]);
+			if (!DoubleUtils.eq(y_next, c.seg_y[i + 1])) {
+				continue;
+			}
+
+			c.removeSegment(i + 1);
+			if (i + 1 < c.segment_count && !c.seg_leftopen.get(i + 1)) {
+				c.seg_grad[i] = (c.seg_y[i + 1] - c.seg_y[i]) / (c.seg_x[i + 1] - c.seg_x[i]);
+			}
+		}
+
+		for (int i = 0; i < c.segment_count - 1; i++) {
+			if (DoubleUtils.eq(c.seg_x[i], c.seg_x[i + 1])) {
+				c.seg_grad[i] = 0.0;
+			}
+		}
+
+		c.clearMetaInfo();
+	}
+
+	/**
+	 * Returns an <code>ArrayList</code> instance of those x-coordinates at which
+	 * either c1 or c2 or both have an inflection point. There will be multiple
+	 * occurences of an x-coordinate, if at least one curve has a discontinuity at
+	 * that x-coordinate.
+	 *
+	 * @param c1 the first curve.
+	 * @param c2 the second curve.
+	 * @return an <code>ArrayList</code> of <code>Num</code> objects containing
+	 * the x-coordinates of the respective inflection point.
+	 */
+	public ArrayList<Num> computeInflectionPointsX(Curve c1, Curve c2) {
+		Curve_Disco_PwAffineDouble c1_dbl = Curve_Disco_PwAffineDouble.of(c1);
+		Curve_Disco_PwAffineDouble c2_dbl = Curve_Disco_PwAffineDouble.of(c2);
+		return toNumList(mergeCoordinates(c1_dbl.seg_x, c1_dbl.segment_count, c2_dbl.seg_x, c2_dbl.segment_count));
+	}
+
+	/**
+	 * Returns an <code>ArrayList</code> instance of those y-coordinates at which
+	 * either c1 or c2 or both have an inflection point.
+	 *
+	 * @param c1 the first curve.
+	 * @param c2 the second curve.
+	 * @return an <code>ArrayList</code> of <code>Num</code> objects containing
+	 * the y-coordinates of the respective inflection point.
+	 */
+	public ArrayList<Num> computeInflectionPointsY(Curve c1, Curve c2) {
+		Curve_Disco_PwAffineDouble c1_dbl = Curve_Disco_PwAffineDouble.of(c1);
+		Curve_Disco_PwAffineDouble c2_dbl = Curve_Disco_PwAffineDouble.of(c2);
+		return toNumList(mergeCoordinates(c1_dbl.seg_y, c1_dbl.segment_count, c2_dbl.seg_y, c2_dbl.segment_count));
+	}
+
+	private static double[] mergeCoordinates(double[] coords1, int count1, double[] coords2, int count2) {
+		double[] merged = new double[count1 + count2];
+		int merged_count = 0;
+
+		int i1 = 0;
+		int i2 = 0;
+		while (i1 < count1 || i2 < count2) {
+			double v1 = (i1 < count1) ? coords1[i1] : Double.POSITIVE_INFINITY;
+			double v2 = (i2 < count2) ? coords2[i2] : Double.POSITIVE_INFINITY;
+			if (DoubleUtils.lt(v1, v2)) {
+				merged[merged_count++] = v1;
+				i1++;
+			} else if (DoubleUtils.gt(v1, v2)) {
+				merged[merged_count++] = v2;
+				i2++;
+			} else {
+				merged[merged_count++] = v1;
+				i1++;
+				i2++;
+			}
+		}
+		return Arrays.copyOf(merged, merged_count);
+	}
+
+	private static ArrayList<Num> toNumList(double[] values) {
+		ArrayList<Num> list = new ArrayList<Num>(values.length);
+		for (double value : values) {
+			list.add(DoubleUtils.toNum(value));
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the maximum horizontal deviation of curve c2 from curve c1.
+	 *
+	 * @param c1 the first curve.
+	 * @param c2 the second curve.
+	 * @return the value of the horizontal deviation.
+	 */
+	public Num getMaxHorizontalDeviation(Curve c1, Curve c2) {
+		return DoubleUtils.toNum(getMaxHorizontalDeviation(Curve_Disco_PwAffineDouble.of(c1),
+				Curve_Disco_PwAffineDouble.of(c2)));
+	}
+
+	public double getMaxHorizontalDeviation(Curve_Disco_PwAffineDouble c1, Curve_Disco_PwAffineDouble c2) {
+		if (DoubleUtils.gt(c1.getUltAffineRateValue(), c2.getUltAffineRateValue())) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		double result = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < c1.segment_count; i++) {
+			double ip_y = c1.seg_y[i];
+			result = Math.max(result, c2.f_inv(ip_y, true) - c1.f_inv(ip_y, false));
+		}
+		for (int i = 0; i < c2.segment_count; i++) {
+			double ip_y = c2.seg_y[i];
+			result = Math.max(result, c2.f_inv(ip_y, true) - c1.f_inv(ip_y, false));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the maximum vertical deviation of curve c2 from curve c1.
+	 *
+	 * @param c1 the first curve.
+	 * @param c2 the second curve.
+	 * @return the value of the vertical deviation.
+	 */
+	public Num getMaxVerticalDeviation(Curve c1, Curve c2) {
+		return DoubleUtils.toNum(getMaxVerticalDeviation(Curve_Disco_PwAffineDouble.of(c1),
+				Curve_Disco_PwAffineDouble.of(c2)));
+	}
+
+	public double getMaxVerticalDeviation(Curve_Disco_PwAffineDouble c1, Curve_Disco_PwAffineDouble c2) {
+		if (DoubleUtils.gt(c1.getUltAffineRateValue(), c2.getUltAffineRateValue())) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		// Start with the difference of the bursts, see CurveUtils_Disco_PwAffine.getMaxVerticalDeviation.
+		double burst_c1 = c1.fLimitRight(0.0);
+		double burst_c2 = c2.fLimitRight(0.0);
+		double result = Math.max(burst_c1, burst_c2) - Math.min(burst_c1, burst_c2);
+
+		double[] xcoords = mergeCoordinates(c1.seg_x, c1.segment_count, c2.seg_x, c2.segment_count);
+		for (int i = 0; i < xcoords.length; i++) {
+			double ip_x = xcoords[i];
+			result = Math.max(result, c1.f(ip_x) - c2.f(ip_x));
+		}
+		return result;
+	}
+
+	/**
+	 * Iterate over all segments from both <code>curve1</code> and <code>curve2</code> to find the smallest x-coordinate where an intersection occurs.
+	 *
+	 * @param curve1
+	 * @param curve2
+	 * 
+	 * @return 	The smallest x-coordinate at which a curve <code>curve1</code> intersects a curve <code>curve2</code>,
+	 * 			or PositiveInfinity if both curves do not have an intersection.
+	 */
+	public Num getXIntersection(Curve curve1, Curve curve2) {
+		Curve_Disco_PwAffineDouble c1 = Curve_Disco_PwAffineDouble.of(curve1);
+		Curve_Disco_PwAffineDouble c2 = Curve_Disco_PwAffineDouble.of(curve2);
+
+		double x_int = Double.POSITIVE_INFINITY;
+
+		for (int i = 0; i < c1.segment_count; i++) {
+			double x_limit1 = (i == c1.segment_count - 1) ? Double.POSITIVE_INFINITY : c1.seg_x[i + 1];
+
+			for (int j = 0; j < c2.segment_count; j++) {
+				double x_limit2 = (j == c2.segment_count - 1) ? Double.POSITIVE_INFINITY : c2.seg_x[j + 1];
+
+				double x_int_tmp = xIntersection(c1, i, c2, j);
+
+				// Parallel lines do not have an intersection.
+				if (Double.isNaN(x_int_tmp)) {
+					break;
+				}
+
+				if (DoubleUtils.gt(x_int_tmp, 0.0) && DoubleUtils.lt(x_int_tmp, x_limit1)
+						&& DoubleUtils.lt(x_int_tmp, x_limit2) && DoubleUtils.lt(x_int_tmp, x_int)) {
+					x_int = x_int_tmp;
+				}
+			}
+		}
+		return DoubleUtils.toNum(x_int);
+	}
+
+	/**
+	 * Returns the x-coordinate where the lines through segment <code>i1</code> of
+	 * <code>c1</code> and segment <code>i2</code> of <code>c2</code> intersect.
+	 */
+	private static double xIntersection(Curve_Disco_PwAffineDouble c1, int i1, Curve_Disco_PwAffineDouble c2, int i2) {
+		double y1 = c1.seg_y[i1] - DoubleUtils.mult(c1.seg_x[i1], c1.seg_grad[i1]);
+		double y2 = c2.seg_y[i2] - DoubleUtils.mult(c2.seg_x[i2], c2.seg_grad[i2]);
+
+		return (y2 - y1) / (c1.seg_grad[i1] - c2.seg_grad[i2]);
+	}
+
+	/**
+	 * Returns a curve that is the difference between this curve and the given
+	 * curve.
+	 *
+	 * @param curve1 input curve 1.
+	 * @param curve2 input curve 2.
+	 * @return the pointwise difference of the given curves, i.e., curve1 - curve2.
+	 */
+	public Curve sub(Curve curve1, Curve curve2) {
+		return computeResultingCurve(curve1, curve2, CurveOperation.SUB);
+	}
+
+	public ServiceCurve sub(ServiceCurve c1, ArrivalCurve c2) {
+		return factory().createServiceCurve(computeResultingCurve(c1, c2, CurveOperation.SUB));
+	}
+
+	/**
+	 * Common helper for computing a new curve.
+	 *
+	 * @param curve1   Input curve 1.
+	 * @param curve2   Input curve 2.
+	 * @param operator Operation to be applied to the curves.
+	 * @return The resulting curve.
+	 */
+	public Curve computeResultingCurve(Curve curve1, Curve curve2, CurveOperation operator) {
+		Curve ZERO_DELAY_INFINITE_BURST = Curve_ConstantPool.INFINITE_SERVICE_CURVE.get();
+
+		switch (operator) {
+			case ADD:
+			case SUB:
+			case MAX:
+				if (curve1.equals(ZERO_DELAY_INFINITE_BURST) || curve2.equals(ZERO_DELAY_INFINITE_BURST)) {
+					return ZERO_DELAY_INFINITE_BURST;
+				}
+				break;
+			case MIN:
+				if (curve1.equals(ZERO_DELAY_INFINITE_BURST)) {
+					return curve2.copy();
+				}
+				if (curve2.equals(ZERO_DELAY_INFINITE_BURST)) {
+					return curve1.copy();
+				}
+				break;
+			default:
+		}
+
+		Curve_Disco_PwAffineDouble c1 = Curve_Disco_PwAffineDouble.of(curve1);
+		Curve_Disco_PwAffineDouble c2 = Curve_Disco_PwAffineDouble.of(curve2);
+		Curve_Disco_PwAffineDouble result = new Curve_Disco_PwAffineDouble(0);
+
+		double x = 0.0;
+		int i1 = 0;
+		int i2 = 0;
+		while (i1 < c1.segment_count || i2 < c2.segment_count) {
+			double x_next1 = (i1 + 1 < c1.segment_count) ? c1.seg_x[i1 + 1] : Double.POSITIVE_INFINITY;
+			double x_next2 = (i2 + 1 < c2.segment_count) ? c2.seg_x[i2 + 1] : Double.POSITIVE_INFINITY;
+			double x_next = Math.min(x_next1, x_next2);
+
+			boolean leftopen = c1.seg_leftopen.get(i1) || c2.seg_leftopen.get(i2);
+
+			double f1_x = DoubleUtils.mult(x - c1.seg_x[i1], c1.seg_grad[i1]) + c1.seg_y[i1];
+			double f2_x = DoubleUtils.mult(x - c2.seg_x[i2], c2.seg_grad[i2]) + c2.seg_y[i2];
+			double grad1 = c1.seg_grad[i1];
+			double grad2 = c2.seg_grad[i2];
+
+			switch (operator) {
+				case ADD:
+					result.addSegment(x, f1_x + f2_x, grad1 + grad2, leftopen);
+					break;
+				case SUB:
+					result.addSegment(x, f1_x - f2_x, grad1 - grad2, leftopen);
+					break;
+				case MIN:
+				case MAX:
+					boolean is_min = (operator == CurveOperation.MIN);
+					double x_cross = xIntersection(c1, i1, c2, i2);
+					if (Double.isNaN(x_cross)) {
+						x_cross = Double.POSITIVE_INFINITY;
+					}
+					addExtremumSegment(result, is_min, x, f1_x, grad1, f2_x, grad2, leftopen, false);
+					if (DoubleUtils.lt(x, x_cross) && DoubleUtils.lt(x_cross, x_next)) {
+						double f1_cross = DoubleUtils.mult(x_cross - c1.seg_x[i1], grad1) + c1.seg_y[i1];
+						double f2_cross = DoubleUtils.mult(x_cross - c2.seg_x[i2], grad2) + c2.seg_y[i2];
+						addExtremumSegment(result, is_min, x_cross, f1_cross, grad1, f2_cross, grad2, false, true);
+					}
+					break;
+				default:
+					break;
+			}
+
+			if (DoubleUtils.eq(x_next1, x_next) || x_next1 == x_next) {
+				i1++;
+			}
+			if (DoubleUtils.eq(x_next2, x_next) || x_next2 == x_next) {
+				i2++;
+			}
+			x = x_next;
+		}
+
+		beautify(result);
+		return result;
+	}
+
+	/**
+	 * Appends the segment starting in <code>x</code> that is the pointwise minimum
+	 * (maximum) of two lines. Only valid if the lines do not intersect before the
+	 * next inflection point. Corresponds to <code>LinearSegment.min(...)</code>
+	 * and <code>LinearSegment.max(...)</code>.
+	 */
+	private static void addExtremumSegment(Curve_Disco_PwAffineDouble result, boolean is_min, double x, double f1_x,
+			double grad1, double f2_x, double grad2, boolean leftopen, boolean crossed) {
+		if (crossed || DoubleUtils.eq(f1_x, f2_x)) {
+			result.addSegment(x, f1_x, is_min ? Math.min(grad1, grad2) : Math.max(grad1, grad2), leftopen);
+		} else if (is_min ? DoubleUtils.lt(f1_x, f2_x) : DoubleUtils.gt(f1_x, f2_x)) {
+			result.addSegment(x, f1_x, grad1, leftopen);
+		} else {
+			result.addSegment(x, f2_x, grad2, leftopen);
+		}
+	}
+
+	/**
+	 * Returns a curve that is the minimum of this curve and the given curve.
+	 *
+	 * @param curve1 input curve 1.
+	 * @param curve2 input curve 2.
+	 * @return the pointwise minimum of the given curves.
+	 */
+	public Curve min(Curve curve1, Curve curve2) {
+		return computeResultingCurve(curve1, curve2, CurveOperation.MIN);
+	}
+
+	public MaxServiceCurve min(MaxServiceCurve max_service_curve_1, MaxServiceCurve max_service_curve_2) {
+		return factory().createMaxServiceCurve(
+				computeResultingCurve(max_service_curve_1, max_service_curve_2, CurveOperation.MIN));
+	}
+
+	/**
+	 * Returns a copy of curve bounded at the x-axis.
+	 *
+	 * @param curve the curve to bound.
+	 * @return the bounded curve.
+	 */
+	public Curve boundAtXAxis(Curve curve) {
+		Curve_Disco_PwAffineDouble c = Curve_Disco_PwAffineDouble.of(curve);
+		Curve_Disco_PwAffineDouble result = new Curve_Disco_PwAffineDouble(0);
+
+		for (int i = 0; i < c.segment_count; i++) {
+			double x_cross = c.seg_x[i] - c.seg_y[i] / c.seg_grad[i];
+			boolean crosses_in_segment = i + 1 >= c.segment_count || DoubleUtils.lt(x_cross, c.seg_x[i + 1]);
+
+			if (DoubleUtils.gt(c.seg_y[i], 0.0)) {
+				result.addSegment(c.seg_x[i], c.seg_y[i], c.seg_grad[i], c.seg_leftopen.get(i));
+
+				if (DoubleUtils.lt(c.seg_grad[i], 0.0) && crosses_in_segment) {
+					result.addSegment(x_cross, 0.0, 0.0, false);
+				}
+			} else {
+				result.addSegment(c.seg_x[i], 0.0, 0.0, c.seg_leftopen.get(i));
+
+				if (DoubleUtils.gt(c.seg_grad[i], 0.0) && crosses_in_segment) {
+					result.addSegment(x_cross, 0.0, c.seg_grad[i], false);
+				}
+			}
+		}
+
+		beautify(result);
+		return result;
+	}
+
+	public ServiceCurve min(ServiceCurve c1, ServiceCurve c2) {
+		return factory().createServiceCurve(computeResultingCurve(c1, c2, CurveOperation.MIN));
+	}
+
+	public ArrivalCurve min(ArrivalCurve arrival_curve_1, ArrivalCurve arrival_curve_2) {
+		return factory().createArrivalCurve(computeResultingCurve(arrival_curve_1, arrival_curve_2, CurveOperation.MIN));
+	}
+
+	/**
+	 * Returns a curve that is the sum of this curve and the given curve.
+	 *
+	 * @param curve1 input curve 1.
+	 * @param curve2 input curve 2.
+	 * @return the pointwise sum of the given curves.
+	 */
+	public Curve add(Curve curve1, Curve curve2) {
+		return computeResultingCurve(curve1, curve2, CurveOperation.ADD);
+	}
+
+	/**
+	 * Returns a curve that is the maximum of this curve and the given curve.
+	 *
+	 * @param curve1 input curve 1.
+	 * @param curve2 input curve 2.
+	 * @return the pointwise maximum of the given curves.
+	 */
+	public Curve max(Curve curve1, Curve curve2) {
+		return computeResultingCurve(curve1, curve2, CurveOperation.MAX);
+	}
+
+	public MaxServiceCurve add(MaxServiceCurve max_service_curve_1, MaxServiceCurve max_service_curve_2) {
+		return factory().createMaxServiceCurve(
+				computeResultingCurve(max_service_curve_1, max_service_curve_2, CurveOperation.ADD));
+	}
+
+	public MaxServiceCurve add(MaxServiceCurve max_service_curve_1, Num dy) {
+		return factory().createMaxServiceCurve(add((Curve) max_service_curve_1, dy));
+	}
+
+	public ArrivalCurve add(ArrivalCurve arrival_curve_1, ArrivalCurve arrival_curve_2) {
+		return factory().createArrivalCurve(computeResultingCurve(arrival_curve_1, arrival_curve_2, CurveOperation.ADD));
+	}
+
+	public ArrivalCurve add(ArrivalCurve arrival_curve_1, Num dy) {
+		return factory().createArrivalCurve(add((Curve) arrival_curve_1, dy));
+	}
+
+	public ServiceCurve add(ServiceCurve c1, ServiceCurve c2) {
+		return factory().createServiceCurve(computeResultingCurve(c1, c2, CurveOperation.ADD));
+	}
+
+	public ServiceCurve max(ServiceCurve c1, ServiceCurve c2) {
+		return factory().createServiceCurve(computeResultingCurve(c1, c2, CurveOperation.MAX));
+	}
+
+	public ArrivalCurve max(ArrivalCurve arrival_curve_1, ArrivalCurve arrival_curve_2) {
+		return factory().createArrivalCurve(computeResultingCurve(arrival_curve_1, arrival_curve_2, CurveOperation.MAX));
+	}
+
+	/**
+	 * Returns a copy of this curve shifted vertically by <code>dy</code>.
+	 *
+	 * @param curve The curve to shift.
+	 * @param dy    The offset to shift the curve.
+	 * @return The shifted curve.
+	 */
+	public Curve add(Curve curve, Num dy) {
+		Curve_Disco_PwAffineDouble result = Curve_Disco_PwAffineDouble.of(curve).copy();
+		double dy_dbl = dy.doubleValue();
+		for (int i = 0; i < result.segment_count; i++) {
+			result.seg_y[i] += dy_dbl;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a copy of this curve that is shifted to the left by <code>dx</code>,
+	 * i.e. g(x) = f(x+dx). Note that the new curve is clipped at the y-axis so that
+	 * in most cases <code>c.shiftLeftClipping(dx).shiftRight(dx) != c</code>!
+	 *
+	 * @param curve The curve to shift.
+	 * @param dx    The offset to shift the curve.
+	 * @return The shifted curve.
+	 */
+	public Curve shiftLeftClipping(Curve curve, Num dx) {
+		Curve_Disco_PwAffineDouble result = Curve_Disco_PwAffineDouble.of(curve).copy();
+		double dx_dbl = dx.doubleValue();
+
+		int i = result.getSegmentDefining(dx_dbl);
+		if (DoubleUtils.lt(result.seg_x[i], dx_dbl)) {
+			result.seg_y[i] += DoubleUtils.mult(dx_dbl - result.seg_x[i], result.seg_grad[i]);
+			result.seg_x[i] = dx_dbl;
+			result.seg_leftopen.clear(i);
+		}
+		for (int j = 1; j <= i; j++) {
+			result.removeSegment(0);
+		}
+		for (i = 0; i < result.segment_count; i++) {
+			result.seg_x[i] -= dx_dbl;
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,1604 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.curves.disco.pw_affine_double;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.CurveFactory_Affine;
+import org.networkcalculus.dnc.curves.Curve_Affine;
+import org.networkcalculus.dnc.curves.Curve_PwAffine;
+import org.networkcalculus.dnc.curves.LinearSegment;
+import org.networkcalculus.dnc.curves.MaxServiceCurve;
+import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.dnc.curves.disco.Curves_Disco_Configuration;
+import org.networkcalculus.dnc.curves.disco.LinearSegment_Disco;
+import org.networkcalculus.num.Num;
+
+/**
+ * Class representing a piecewise linear curve, defined on [0,inf), that stores
+ * its segments in a struct-of-arrays layout.<br>
+ * The semantics are the ones of <code>Curve_Disco_PwAffine</code>: Segment
+ * <code>i</code> starts at (<code>x[i]</code>, <code>y[i]</code>), continues
+ * to the right with slope <code>grad[i]</code> and excludes its starting point
+ * if bit <code>i</code> of <code>leftopen</code> is set. Yet, coordinates are
+ * primitive doubles in flat arrays instead of <code>LinearSegment</code>
+ * objects holding three <code>Num</code> each. <code>Num</code> objects are
+ * only created at the boundary of the <code>Curve</code> interface, the
+ * backend's curve utils and min-plus operations work on the arrays directly.<br>
+ * <code>getSegment(int)</code> returns a view that reads from and writes
+ * through to the arrays. It is only valid as long as no segment is added or
+ * removed in front of it.
+ */
+public class Curve_Disco_PwAffineDouble implements Curve_PwAffine, CurveFactory_Affine {
+	private static Curve_Disco_PwAffineDouble instance = new Curve_Disco_PwAffineDouble();
+	private static CurveUtils_Disco_PwAffineDouble utils = CurveUtils_Disco_PwAffineDouble.getInstance();
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	protected int segment_count;
+	protected double[] seg_x;
+	protected double[] seg_y;
+	protected double[] seg_grad;
+	protected BitSet seg_leftopen;
+
+	protected boolean is_delayed_infinite_burst = false;
+
+	protected boolean is_rate_latency = false;
+	protected boolean has_rate_latency_meta_info = false;
+	protected List<Curve_Disco_PwAffineDouble> rate_latencies = new LinkedList<Curve_Disco_PwAffineDouble>();
+
+	protected boolean is_token_bucket = false;
+	protected boolean has_token_bucket_meta_info = false;
+	protected List<Curve_Disco_PwAffineDouble> token_buckets = new LinkedList<Curve_Disco_PwAffineDouble>();
+
+	/**
+	 * Creates a curve instance with a single segment on the x-axis.
+	 */
+	protected Curve_Disco_PwAffineDouble() {
+		createZeroSegmentsCurve(1);
+	}
+
+	protected Curve_Disco_PwAffineDouble(Curve curve) {
+		copy(curve);
+	}
+
+	/**
+	 * Creates a curve instance with <code>segment_count</code> zero segments.
+	 *
+	 * @param segment_count
+	 *            the number of segments
+	 */
+	protected Curve_Disco_PwAffineDouble(int segment_count) {
+		createZeroSegmentsCurve(segment_count);
+	}
+
+	public static CurveFactory_Affine getFactory() {
+		return instance;
+	}
+
+	/**
+	 * Returns the given curve if it already belongs to this backend or a copy in
+	 * this backend's representation otherwise. The copy keeps the curve type, i.e.,
+	 * arrival curve, service curve or maximum service curve.
+	 *
+	 * @param curve
+	 *            The curve to convert.
+	 * @return The curve in struct-of-arrays representation.
+	 */
+	public static Curve_Disco_PwAffineDouble of(Curve curve) {
+		if (curve instanceof Curve_Disco_PwAffineDouble) {
+			return (Curve_Disco_PwAffineDouble) curve;
+		}
+		if (curve instanceof ArrivalCurve) {
+			ArrivalCurve_Disco_PwAffineDouble ac = new ArrivalCurve_Disco_PwAffineDouble();
+			ac.copy(curve);
+			return ac;
+		}
+		if (curve instanceof ServiceCurve) {
+			ServiceCurve_Disco_PwAffineDouble sc = new ServiceCurve_Disco_PwAffineDouble();
+			sc.copy(curve);
+			return sc;
+		}
+		if (curve instanceof MaxServiceCurve) {
+			MaxServiceCurve_Disco_PwAffineDouble msc = new MaxServiceCurve_Disco_PwAffineDouble();
+			msc.copy(curve);
+			return msc;
+		}
+		return new Curve_Disco_PwAffineDouble(curve);
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// Interface Implementations
+	// --------------------------------------------------------------------------------------------------------------
+
+	public boolean isRateLatency() {
+		decomposeIntoRateLatencies();
+		return is_rate_latency;
+	}
+
+	public boolean isTokenBucket() {
+		decomposeIntoTokenBuckets();
+		return is_token_bucket;
+	}
+
+	public boolean hasRateLatencyMetaInfo() {
+		return has_rate_latency_meta_info;
+	}
+
+	public void setRL_MetaInfo(boolean has_rate_latency_meta_info) {
+		this.has_rate_latency_meta_info = has_rate_latency_meta_info;
+	}
+
+	public List<Curve_Affine> getRL_Components() {
+		List<Curve_Affine> tmp = new LinkedList<>();
+		if (this.is_rate_latency) {
+			tmp.add(this.copy());
+		} else {
+			tmp.addAll(rate_latencies);
+		}
+		return tmp;
+	}
+
+	public void setRL_Components(List<Curve> rate_latencies) {
+		List<Curve_Disco_PwAffineDouble> tmp = new LinkedList<>();
+		for (Curve rate_latency : rate_latencies) {
+			tmp.add(of(rate_latency));
+		}
+		this.rate_latencies = tmp;
+	}
+
+	public boolean hasTokenBucketMetaInfo() {
+		return has_token_bucket_meta_info;
+	}
+
+	public void setTB_MetaInfo(boolean has_token_bucket_meta_info) {
+		this.has_token_bucket_meta_info = has_token_bucket_meta_info;
+	}
+
+	public List<Curve_Affine> getTB_Components() {
+		return new LinkedList<>(token_buckets);
+	}
+
+	public void setTB_Components(List<Curve> token_buckets) {
+		List<Curve_Disco_PwAffineDouble> tmp = new LinkedList<>();
+		for (Curve token_bucket : token_buckets) {
+			tmp.add(of(token_bucket));
+		}
+		this.token_buckets = tmp;
+	}
+
+	private void createZeroSegmentsCurve(int segment_count) {
+		allocate(segment_count);
+		this.segment_count = segment_count;
+
+		// Arrays are zero-initialized, only the left-open flags need to be set.
+		if (segment_count > 1) {
+			seg_leftopen.set(1, segment_count);
+		}
+	}
+
+	private void allocate(int capacity) {
+		int length = Math.max(capacity, INITIAL_CAPACITY);
+		seg_x = new double[length];
+		seg_y = new double[length];
+		seg_grad = new double[length];
+		seg_leftopen = new BitSet(length);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= seg_x.length) {
+			return;
+		}
+		int length = Math.max(capacity, seg_x.length * 2);
+		seg_x = Arrays.copyOf(seg_x, length);
+		seg_y = Arrays.copyOf(seg_y, length);
+		seg_grad = Arrays.copyOf(seg_grad, length);
+	}
+
+	// Accepts string representations of Curve, ArrivalCurve, ServiceCurve, and
+	// MaxServiceCurve
+	protected void initializeCurve(String curve_str) throws Exception {
+		if (curve_str.substring(0, 2).equals("AC") || curve_str.substring(0, 2).equals("SC")) {
+			curve_str = curve_str.substring(2);
+		} else {
+			if (curve_str.substring(0, 3).equals("MSC")) {
+				curve_str = curve_str.substring(3);
+			}
+		}
+
+		// Must to be a string representation of a "raw" curve object at this location.
+		if (curve_str.charAt(0) != '{' || curve_str.charAt(curve_str.length() - 1) != '}') {
+			throw new RuntimeException("Invalid string representation of a curve.");
+		}
+
+		// Remove enclosing curly brackets
+		String curve_str_internal = curve_str.substring(1, curve_str.length() - 1);
+
+		String[] segments_to_parse = curve_str_internal.split(";");
+		allocate(segments_to_parse.length);
+		segment_count = 0;
+		clearMetaInfo();
+
+		for (int i = 0; i < segments_to_parse.length; i++) {
+			LinearSegment_Disco segment = new LinearSegment_Disco(segments_to_parse[i]);
+			addSegment(segment);
+		}
+		utils.beautify(this);
+	}
+
+	protected void forceThroughOrigin() {
+		if (DoubleUtils.gt(seg_y[0], 0.0)) {
+			addSegment(0, 0.0, 0.0, 0.0, false);
+			seg_leftopen.set(1);
+		}
+	}
+
+	protected void clearMetaInfo() {
+		has_token_bucket_meta_info = false;
+		is_token_bucket = false;
+		token_buckets = new LinkedList<Curve_Disco_PwAffineDouble>();
+
+		has_rate_latency_meta_info = false;
+		is_rate_latency = false;
+		rate_latencies = new LinkedList<Curve_Disco_PwAffineDouble>();
+	}
+
+	/**
+	 * Returns a copy of this instance.
+	 *
+	 * @return a copy of this instance.
+	 */
+	@Override
+	public Curve_Disco_PwAffineDouble copy() {
+		Curve_Disco_PwAffineDouble c_copy = new Curve_Disco_PwAffineDouble();
+		c_copy.copy(this);
+		return c_copy;
+	}
+
+	@Override
+	public void copy(Curve curve) {
+		if (curve instanceof Curve_Disco_PwAffineDouble) {
+			Curve_Disco_PwAffineDouble other = (Curve_Disco_PwAffineDouble) curve;
+			int count = other.segment_count;
+
+			allocate(count);
+			System.arraycopy(other.seg_x, 0, seg_x, 0, count);
+			System.arraycopy(other.seg_y, 0, seg_y, 0, count);
+			System.arraycopy(other.seg_grad, 0, seg_grad, 0, count);
+			seg_leftopen.or(other.seg_leftopen);
+			segment_count = count;
+
+			is_delayed_infinite_burst = other.is_delayed_infinite_burst;
+		} else {
+			int count = curve.getSegmentCount();
+
+			allocate(count);
+			for (int i = 0; i < count; i++) {
+				LinearSegment s = curve.getSegment(i);
+				seg_x[i] = s.getX().doubleValue();
+				seg_y[i] = s.getY().doubleValue();
+				seg_grad[i] = s.getGrad().doubleValue();
+				seg_leftopen.set(i, s.isLeftopen());
+			}
+			segment_count = count;
+
+			is_delayed_infinite_burst = curve.isDelayedInfiniteBurst();
+		}
+
+		clearMetaInfo();
+	}
+
+	/**
+	 * Starting at 0.
+	 */
+	public LinearSegment getSegment(int pos) {
+		if (pos < 0 || pos > segment_count - 1) {
+			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ", segments.length=" + segment_count + ")!");
+		}
+		return new SegmentView(pos);
+	}
+
+	/**
+	 * Returns the number of segments in this curve.
+	 *
+	 * @return the number of segments
+	 */
+	public int getSegmentCount() {
+		return segment_count;
+	}
+
+	// ------------------------------------------------------------
+	// Primitive segment access
+	// ------------------------------------------------------------
+
+	public double getSegmentX(int pos) {
+		return seg_x[pos];
+	}
+
+	public double getSegmentY(int pos) {
+		return seg_y[pos];
+	}
+
+	public double getSegmentGrad(int pos) {
+		return seg_grad[pos];
+	}
+
+	public boolean isSegmentLeftopen(int pos) {
+		return seg_leftopen.get(pos);
+	}
+
+	public void setSegmentX(int pos, double x) {
+		seg_x[pos] = x;
+		clearMetaInfo();
+	}
+
+	public void setSegmentY(int pos, double y) {
+		seg_y[pos] = y;
+		clearMetaInfo();
+	}
+
+	public void setSegmentGrad(int pos, double grad) {
+		seg_grad[pos] = grad;
+		clearMetaInfo();
+	}
+
+	public void setSegmentLeftopen(int pos, boolean leftopen) {
+		seg_leftopen.set(pos, leftopen);
+		clearMetaInfo();
+	}
+
+	/**
+	 * Appends a segment to the end of the curve without creating any objects
+	 * unless the arrays need to grow.
+	 *
+	 * @param x
+	 *            The x-coordinate the segment starts at.
+	 * @param y
+	 *            The y-coordinate the segment starts at.
+	 * @param grad
+	 *            The segment's gradient.
+	 * @param leftopen
+	 *            Set the segment to be left-open.
+	 */
+	public void addSegment(double x, double y, double grad, boolean leftopen) {
+		addSegment(segment_count, x, y, grad, leftopen);
+	}
+
+	public void addSegment(int pos, double x, double y, double grad, boolean leftopen) {
+		if (pos < 0 || pos > segment_count) {
+			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
+		}
+
+		ensureCapacity(segment_count + 1);
+		if (pos < segment_count) {
+			int tail = segment_count - pos;
+			System.arraycopy(seg_x, pos, seg_x, pos + 1, tail);
+			System.arraycopy(seg_y, pos, seg_y, pos + 1, tail);
+			System.arraycopy(seg_grad, pos, seg_grad, pos + 1, tail);
+			for (int i = segment_count; i > pos; i--) {
+				seg_leftopen.set(i, seg_leftopen.get(i - 1));
+			}
+		}
+		seg_x[pos] = x;
+		seg_y[pos] = y;
+		seg_grad[pos] = grad;
+		seg_leftopen.set(pos, leftopen);
+		segment_count++;
+
+		clearMetaInfo();
+	}
+
+	// ------------------------------------------------------------
+	// Curve's segments
+	// ------------------------------------------------------------
+
+	/**
+	 * Returns the number of the segment that defines the function value at
+	 * x-coordinate <code>x</code>. The number of the segment is usually the same as
+	 * the one returned by <code>getSegmentLimitRight(x)</code>, except for if a
+	 * segment starts at <code>x</code> and is left-open. In this case the function
+	 * returns the previous segment, rather than the current segment, as the
+	 * previous segment defines <code>x</code>.
+	 *
+	 * @param x
+	 *            the x-coordinate
+	 * @return the index of the segment into the array.
+	 */
+	public int getSegmentDefining(Num x) {
+		return getSegmentDefining(x.doubleValue());
+	}
+
+	public int getSegmentDefining(double x) {
+		for (int i = segment_count - 1; i >= 0; i--) {
+			if (seg_leftopen.get(i)) {
+				if (DoubleUtils.lt(seg_x[i], x)) {
+					return i;
+				}
+			} else {
+				if (DoubleUtils.leq(seg_x[i], x)) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the number of the segment that defines the value of the function when
+	 * computing the limit to the right of the function at x-coordinate
+	 * <code>x</code>. The number of the segment is usually the same as the one
+	 * returned by <code>getSegmentDefining(x)</code>, except for if a segment
+	 * starts at <code>x</code> and is left-open. In this case the function returns
+	 * the current segment, rather than the previous segment.
+	 *
+	 * @param x
+	 *            the x-coordinate
+	 * @return the index of the segment into the array.
+	 */
+	public int getSegmentLimitRight(Num x) {
+		return getSegmentLimitRight(x.doubleValue());
+	}
+
+	public int getSegmentLimitRight(double x) {
+		if (x == Double.POSITIVE_INFINITY) {
+			return getSegmentCount();
+		}
+
+		for (int i = segment_count - 1; i >= 0; i--) {
+			if (DoubleUtils.leq(seg_x[i], x)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public void setSegment(int pos, LinearSegment s) {
+		if (pos < 0 || pos >= segment_count) {
+			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
+		}
+		if (s == null) {
+			throw new IllegalArgumentException("Tried to insert null!");
+		}
+
+		seg_x[pos] = s.getX().doubleValue();
+		seg_y[pos] = s.getY().doubleValue();
+		seg_grad[pos] = s.getGrad().doubleValue();
+		seg_leftopen.set(pos, s.isLeftopen());
+
+		clearMetaInfo();
+	}
+
+	/**
+	 * Adds a <code>LinearSegment</code> to the end of the curve.<br>
+	 * Note: It is the user's responsibility to add segments in the order of
+	 * increasing x-coordinates.
+	 *
+	 * @param s
+	 *            the segment to be added.
+	 */
+	public void addSegment(LinearSegment s) {
+		addSegment(segment_count, s);
+	}
+
+	/**
+	 * Adds a <code>LinearSegment</code> at the location <code>pos</code> of the
+	 * curve.<br>
+	 * Note1; Segments after pos will be pushed back by one position.<br>
+	 * Note2: It is the user's responsibility to add segments in the order of
+	 * increasing x-coordinates.
+	 *
+	 * @param pos
+	 *            the index into the segment array to add the new segment.
+	 * @param s
+	 *            the segment to be added.
+	 */
+	public void addSegment(int pos, LinearSegment s) {
+		if (s == null) {
+			throw new IllegalArgumentException("Tried to insert null!");
+		}
+		addSegment(pos, s.getX().doubleValue(), s.getY().doubleValue(), s.getGrad().doubleValue(), s.isLeftopen());
+	}
+
+	/**
+	 * Removes the segment at position <code>pos</code>.
+	 *
+	 * @param pos
+	 *            the index of the segment to be removed.
+	 */
+	public void removeSegment(int pos) {
+		if (pos < 0 || pos >= segment_count) {
+			throw new IndexOutOfBoundsException("Index out of bounds (pos=" + pos + ")!");
+		}
+
+		int tail = segment_count - pos - 1;
+		System.arraycopy(seg_x, pos + 1, seg_x, pos, tail);
+		System.arraycopy(seg_y, pos + 1, seg_y, pos, tail);
+		System.arraycopy(seg_grad, pos + 1, seg_grad, pos, tail);
+		for (int i = pos; i < segment_count - 1; i++) {
+			seg_leftopen.set(i, seg_leftopen.get(i + 1));
+		}
+		segment_count--;
+		seg_leftopen.clear(segment_count);
+
+		clearMetaInfo();
+	}
+
+	// ------------------------------------------------------------
+	// Curve properties
+	// ------------------------------------------------------------
+
+	/**
+	 * Returns whether the inflection point is a (real or unreal) discontinuity.
+	 *
+	 * @param pos
+	 *            the index of the IP
+	 * @return <code>true</code> if the IP is a discontinuity, <code>false</code> if
+	 *         not.
+	 */
+	public boolean isDiscontinuity(int pos) {
+		return (pos + 1 < segment_count && DoubleUtils.eq(seg_x[pos + 1], seg_x[pos]));
+	}
+
+	/**
+	 * Returns whether the inflection point is a real discontinuity, i.e. the y0 of
+	 * the leftopen segment differs from the previous one.
+	 *
+	 * @param pos
+	 *            the index of the IP
+	 * @return <code>true</code> if the IP is a real discontinuity,
+	 *         <code>false</code> if not.
+	 */
+	public boolean isRealDiscontinuity(int pos) {
+		return (isDiscontinuity(pos) && !DoubleUtils.eq(seg_y[pos + 1], seg_y[pos]));
+	}
+
+	/**
+	 * Returns whether the inflection point is an unreal discontinuity, i.e. the y0
+	 * of the leftopen segment is coincident with the y0 of the previous segment and
+	 * therefore the unreal discontinuity may safely be removed.
+	 *
+	 * @param pos
+	 *            the index of the IP
+	 * @return <code>true</code> if the IP is an unreal discontinuity,
+	 *         <code>false</code> if not.
+	 */
+	public boolean isUnrealDiscontinuity(int pos) {
+		return (isDiscontinuity(pos) && DoubleUtils.eq(seg_y[pos + 1], seg_y[pos]));
+	}
+
+	/**
+	 * Tests whether the curve is wide-sense increasing.
+	 *
+	 * @return whether the curve is wide-sense increasing.
+	 */
+	public boolean isWideSenseIncreasing() {
+		double y = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < segment_count; i++) {
+			if (DoubleUtils.lt(seg_y[i], y) || DoubleUtils.lt(seg_grad[i], 0.0)) {
+				return false;
+			}
+			y = seg_y[i];
+		}
+		return true;
+	}
+
+	/**
+	 * Tests whether the curve is convex.
+	 *
+	 * @return whether the curve is convex.
+	 */
+	public boolean isConvex() {
+		return isConvexIn(0.0, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Tests whether the curve is convex in [a,b].
+	 *
+	 * @param a
+	 *            the lower bound of the test interval.
+	 * @param b
+	 *            the upper bound of the test interval.
+	 * @return whether the curve is convex
+	 */
+	public boolean isConvexIn(Num a, Num b) {
+		return isConvexIn(a.doubleValue(), b.doubleValue());
+	}
+
+	public boolean isConvexIn(double a, double b) {
+		double last_gradient = Double.NEGATIVE_INFINITY;
+
+		int i_start = getSegmentDefining(a);
+		int i_end = getSegmentDefining(b);
+		if (i_start < 0) {
+			return true;
+		}
+		for (int i = i_start; i <= i_end; i++) {
+			if (i == i_end && seg_x[i] == b) {
+				break;
+			}
+			double gradient = gradientToNext(i);
+			if (DoubleUtils.lt(gradient, last_gradient)) {
+				return false;
+			}
+			last_gradient = gradient;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests whether the curve is concave.
+	 *
+	 * @return whether the curve is concave.
+	 */
+	public boolean isConcave() {
+		return isConcaveIn(0.0, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Tests whether the curve is concave in [a,b].
+	 *
+	 * @param a
+	 *            the lower bound of the test interval.
+	 * @param b
+	 *            the upper bound of the test interval.
+	 * @return whether the curve is concave.
+	 */
+	public boolean isConcaveIn(Num a, Num b) {
+		return isConcaveIn(a.doubleValue(), b.doubleValue());
+	}
+
+	public boolean isConcaveIn(double a, double b) {
+		double last_gradient = Double.POSITIVE_INFINITY;
+
+		int i_start = getSegmentDefining(a);
+		int i_end = getSegmentDefining(b);
+		if (i_start < 0) {
+			return true;
+		}
+		for (int i = i_start; i <= i_end; i++) {
+			if (i == i_end && seg_x[i] == b) {
+				break;
+			}
+			// Handles discontinuities
+			double gradient = gradientToNext(i);
+			if (DoubleUtils.gt(gradient, last_gradient)) {
+				return false;
+			}
+			last_gradient = gradient;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests whether the curve is almost concave, i.e. it is concave once its
+	 * function value is larger than 0.
+	 *
+	 * @return whether the curve is almost concave.
+	 */
+	public boolean isAlmostConcave() {
+		double last_gradient = Double.POSITIVE_INFINITY;
+
+		for (int i = 0; i < segment_count; i++) {
+			// Skip the horizontal part at the beginning
+			if (last_gradient == Double.POSITIVE_INFINITY && DoubleUtils.eq(seg_grad[i], 0.0)) {
+				continue;
+			}
+
+			double gradient = gradientToNext(i);
+			if (DoubleUtils.gt(gradient, last_gradient)) {
+				return false;
+			}
+			last_gradient = gradient;
+		}
+		return true;
+	}
+
+	/**
+	 * The gradient from the start of segment <code>i</code> to the start of the
+	 * next one, i.e., an infinite gradient for discontinuities, or the gradient of
+	 * the last segment.
+	 */
+	private double gradientToNext(int i) {
+		if (i < segment_count - 1) {
+			return (seg_y[i + 1] - seg_y[i]) / (seg_x[i + 1] - seg_x[i]);
+		} else {
+			return seg_grad[i];
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null || !(obj instanceof Curve_Disco_PwAffineDouble)) {
+			return false;
+		}
+
+		Curve_Disco_PwAffineDouble this_cpy = this.copy();
+		Curve_Disco_PwAffineDouble other_cpy = ((Curve_Disco_PwAffineDouble) obj).copy();
+
+		utils.beautify(this_cpy);
+		utils.beautify(other_cpy);
+
+		int this_segment_length = this_cpy.segment_count;
+
+		if (this_segment_length != other_cpy.segment_count) {
+			return false;
+		}
+
+		for (int i = 0; i < this_segment_length; i++) {
+			if (!DoubleUtils.eq(this_cpy.seg_x[i], other_cpy.seg_x[i])
+					|| !DoubleUtils.eq(this_cpy.seg_y[i], other_cpy.seg_y[i])
+					|| !DoubleUtils.eq(this_cpy.seg_grad[i], other_cpy.seg_grad[i])
+					|| this_cpy.seg_leftopen.get(i) != other_cpy.seg_leftopen.get(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (int i = 0; i < segment_count; i++) {
+			result = 31 * result + Double.hashCode(seg_x[i]);
+			result = 31 * result + Double.hashCode(seg_y[i]);
+			result = 31 * result + Double.hashCode(seg_grad[i]);
+			result = 31 * result + Boolean.hashCode(seg_leftopen.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a string representation of this curve.
+	 *
+	 * @return the curve represented as a string.
+	 */
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer("{");
+		for (int i = 0; i < segment_count; i++) {
+			if (i > 0) {
+				result.append(";");
+			}
+			appendSegment(result, i);
+		}
+		result.append("}");
+		return result.toString();
+	}
+
+	private void appendSegment(StringBuffer result, int i) {
+		if (seg_leftopen.get(i)) {
+			result.append("!");
+		}
+		result.append("(");
+		result.append(DoubleUtils.toNum(seg_x[i]).toString());
+		result.append(",");
+		result.append(DoubleUtils.toNum(seg_y[i]).toString());
+		result.append("),");
+		result.append(DoubleUtils.toNum(seg_grad[i]).toString());
+	}
+
+	// ------------------------------------------------------------
+	// Curve function values
+	// ------------------------------------------------------------
+
+	/**
+	 * Returns the function value at x-coordinate <code>x</code>, if
+	 * <code>x&gt;=0</code>, and <code>NaN</code> if not.
+	 *
+	 * @param x
+	 *            the x-coordinate
+	 * @return the function value
+	 */
+	public Num f(Num x) {
+		return DoubleUtils.toNum(f(x.doubleValue()));
+	}
+
+	public double f(double x) {
+		int i = getSegmentDefining(x);
+		if (i < 0) {
+			return Double.NaN;
+		}
+		return DoubleUtils.mult(x - seg_x[i], seg_grad[i]) + seg_y[i];
+	}
+
+	/**
+	 * Returns the limit to the right of the function value at x-coordinate
+	 * <code>x</code>, if <code>x&gt;=0</code>, and <code>NaN</code> if not.
+	 *
+	 * @param x
+	 *            the x-coordinate
+	 * @return the function value
+	 */
+	public Num fLimitRight(Num x) {
+		return DoubleUtils.toNum(fLimitRight(x.doubleValue()));
+	}
+
+	public double fLimitRight(double x) {
+		int i = getSegmentLimitRight(x);
+		if (i < 0) {
+			return Double.NaN;
+		}
+		return DoubleUtils.mult(x - seg_x[i], seg_grad[i]) + seg_y[i];
+	}
+
+	/**
+	 * Returns the smallest x value at which the function value is equal to
+	 * <code>y</code>.
+	 *
+	 * @param y
+	 *            the y-coordinate
+	 * @return the smallest x value
+	 */
+	public Num f_inv(Num y) {
+		return f_inv(y, false);
+	}
+
+	public Num f_inv(Num y, boolean rightmost) {
+		return DoubleUtils.toNum(f_inv(y.doubleValue(), rightmost));
+	}
+
+	public double f_inv(double y, boolean rightmost) {
+		if (AnalysisConfig.enforceMultiplexingStatic() == AnalysisConfig.MultiplexingEnforcement.GLOBAL_FIFO) {
+			return f_invFIFO(y, rightmost);
+		} else {
+			return f_invARB(y, rightmost);
+		}
+	}
+
+	/**
+	 * Returns the x value at which the function value is equal to <code>y</code>.
+	 * If <code>rightmost</code> is <code>true</code>, returns the rightmost
+	 * x-coordinate, otherwise the leftmost coordinate. Jumps over <code>y</code>
+	 * return the x-coordinate of the jump.
+	 *
+	 * @param y
+	 *            The y-coordinate.
+	 * @param rightmost
+	 *            Return the rightmost x coordinate instaed of the leftmost one
+	 *            (default).
+	 * @return The smallest x value.
+	 */
+	public double f_invFIFO(double y, boolean rightmost) {
+		int i = getSegmentFirstAtValueFIFO(y);
+		if (i < 0) {
+			return Double.NaN;
+		}
+
+		// See Curve_Disco_PwAffine.f_invFIFO for the reasoning.
+		if (DoubleUtils.lt(y, seg_y[i])) {
+			return seg_x[i];
+		}
+
+		return f_invAtSegment(i, y, rightmost);
+	}
+
+	/**
+	 * Returns the x value at which the function value is equal to <code>y</code>.
+	 * If <code>rightmost</code> is <code>true</code>, returns the rightmost
+	 * x-coordinate, otherwise the leftmost coordinate.
+	 *
+	 * @param y
+	 *            The y-coordinate.
+	 * @param rightmost
+	 *            Return the rightmost x coordinate instaed of the leftmost one
+	 *            (default).
+	 * @return The smallest x value.
+	 */
+	public double f_invARB(double y, boolean rightmost) {
+		int i = getSegmentFirstAtValueARB(y);
+		if (i < 0) {
+			return Double.NaN;
+		}
+		return f_invAtSegment(i, y, rightmost);
+	}
+
+	private double f_invAtSegment(int i, double y, boolean rightmost) {
+		if (rightmost) {
+			while (i < segment_count && DoubleUtils.eq(seg_grad[i], 0.0)) {
+				i++;
+			}
+			if (i >= segment_count) {
+				return Double.POSITIVE_INFINITY;
+			}
+		}
+		if (!DoubleUtils.eq(seg_grad[i], 0.0)) {
+			return seg_x[i] + (y - seg_y[i]) / seg_grad[i];
+		} else {
+			return seg_x[i];
+		}
+	}
+
+	/**
+	 * Returns the first segment at which the function reaches the value
+	 * <code>y</code>. If there is a jump and <code>y</code> happens to be between
+	 * the "end" of the y-values of segment i and "start" of segment i+1, then it
+	 * returns i+1. It returns -1 if the curve never reaches this value.
+	 *
+	 * @param y
+	 *            the y-coordinate
+	 * @return the segment number
+	 */
+	private int getSegmentFirstAtValueFIFO(double y) {
+		if (segment_count == 0 || DoubleUtils.gt(seg_y[0], y)) {
+			return -1;
+		}
+		for (int i = 0; i < segment_count; i++) {
+			if (i < segment_count - 1) {
+				if (DoubleUtils.geq(seg_y[i + 1], y)) {
+					// have to check for a jump
+					double v = DoubleUtils.mult(seg_x[i + 1] - seg_x[i], seg_grad[i]) + seg_y[i];
+					if (DoubleUtils.lt(v, y)) {
+						return i + 1;
+					} else {
+						return i;
+					}
+				}
+			} else {
+				// i is the last segment
+				if (segment_count > 1) {
+					if (DoubleUtils.gt(seg_grad[i], 0.0)) {
+						return i;
+					}
+				} else {
+					// this curve has only one segment
+					if (DoubleUtils.geq(seg_y[i], y) || DoubleUtils.gt(seg_grad[i], 0.0)) {
+						return i;
+					} else {
+						return -1;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the first segment at which the function reaches the value
+	 * <code>y</code>. It returns -1 if the curve never reaches this value.
+	 *
+	 * @param y
+	 *            the y-coordinate
+	 * @return the segment number
+	 */
+	private int getSegmentFirstAtValueARB(double y) {
+		if (segment_count == 0 || DoubleUtils.gt(seg_y[0], y)) {
+			return -1;
+		}
+		for (int i = 0; i < segment_count; i++) {
+			if (i < segment_count - 1) {
+				if (DoubleUtils.geq(seg_y[i + 1], y)) {
+					return i;
+				}
+			} else {
+				if (DoubleUtils.gt(seg_grad[i], 0.0)) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the x-coordinate of the inflection point after which the function
+	 * values are greater than zero.
+	 *
+	 * @return the latency of this curve.
+	 */
+	public Num getLatency() {
+		return DoubleUtils.toNum(getLatencyValue());
+	}
+
+	public double getLatencyValue() {
+		if (isRateLatency()) {
+			if (segment_count == 2) { // Rate latency other than a simple rate function
+				return seg_x[1];
+			} else { // Single-segment rate functions have latency 0
+				return 0.0;
+			}
+		} else {
+			utils.beautify(this);
+			if (DoubleUtils.gt(seg_y[0], 0.0)) {
+				return 0.0;
+			}
+			for (int i = 0; i < segment_count; i++) {
+				double y0 = seg_y[i];
+				if (DoubleUtils.lt(y0, 0.0)) {
+					y0 = 0.0;
+				}
+				if (DoubleUtils.gt(y0, 0.0) || (DoubleUtils.geq(y0, 0.0) && DoubleUtils.gt(seg_grad[i], 0.0))) {
+					return seg_x[i];
+				}
+				if (DoubleUtils.lt(y0, 0.0) || DoubleUtils.lt(seg_grad[i], 0.0)) {
+					System.out.println("RemoveLatency of " + this.toString());
+					throw new RuntimeException("Should have avoided neg. gradients elsewhere...");
+				}
+			}
+			return Double.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * @return the burstiness
+	 */
+	public Num getBurst() {
+		return DoubleUtils.toNum(getBurstValue());
+	}
+
+	public double getBurstValue() {
+		if (isTokenBucket()) {
+			if (segment_count == 2) { // Token buckets with spot in the origin
+				return seg_y[1];
+			} else { // Single-segment peak rate functions have burstiness 0
+				return 0.0;
+			}
+		} else {
+			return fLimitRight(0.0);
+		}
+	}
+
+	/**
+	 * Returns the gradient to the right of the function value at x-coordinate
+	 * <code>x</code>, if <code>x&gt;=0</code>, and <code>NaN</code> if not.
+	 *
+	 * @param x
+	 *            the x-coordinate
+	 * @return the function value
+	 */
+	public Num getGradientLimitRight(Num x) {
+		int i = getSegmentLimitRight(x.doubleValue());
+		if (i < 0) {
+			return DoubleUtils.toNum(Double.NaN);
+		}
+		return DoubleUtils.toNum(seg_grad[i]);
+	}
+
+	/**
+	 * Returns the gradient of the last segment.
+	 *
+	 * @return the rate of the ultimately affine part.
+	 */
+	public Num getUltAffineRate() {
+		return DoubleUtils.toNum(getUltAffineRateValue());
+	}
+
+	public double getUltAffineRateValue() {
+		return seg_grad[segment_count - 1];
+	}
+
+	// ------------------------------------------------------------
+	// Specific curve shapes
+	// ------------------------------------------------------------
+	// Burst delay
+	public boolean isDelayedInfiniteBurst() {
+		return is_delayed_infinite_burst;
+	}
+
+	// Rate latency
+	public boolean getRL_Property() {
+		decomposeIntoRateLatencies();
+		return is_rate_latency;
+	}
+
+	public void setRateLateny(boolean is_rate_latency) {
+		this.is_rate_latency = is_rate_latency;
+	}
+
+	/**
+	 * Returns the number of rate latency curves the curve can be decomposed into.
+	 *
+	 * @return the number of rate latency curves
+	 */
+	public int getRL_ComponentCount() {
+		decomposeIntoRateLatencies();
+		return rate_latencies.size();
+	}
+
+	/**
+	 * Returns the <code>i</code>the rate latency curve that this curve can be
+	 * decomposed into.
+	 *
+	 * @param i
+	 *            the number of the rate latency curve
+	 * @return the rate latency curve
+	 */
+	public Curve_Disco_PwAffineDouble getRL_Component(int i) {
+		decomposeIntoRateLatencies();
+		return rate_latencies.get(i);
+	}
+
+	/**
+	 * Decomposes this curve into a list of rate latency curves and stores this list
+	 * in the curve's <code>rate_latencies</code> field.<br>
+	 * Note: Curve must be convex.
+	 */
+	private void decomposeIntoRateLatencies() {
+		if (has_rate_latency_meta_info == true) {
+			return;
+		}
+
+		if (Curves_Disco_Configuration.getInstance().exec_service_curve_checks() && !this.isConvex()) {
+			if (this.equals(this.createZeroDelayInfiniteBurst())) {
+				rate_latencies = new ArrayList<Curve_Disco_PwAffineDouble>();
+				rate_latencies.add(this.createRateLatency(Double.POSITIVE_INFINITY, 0.0));
+			} else {
+				throw new RuntimeException("Can only decompose convex service curves into rate latency curves.");
+			}
+		} else {
+			rate_latencies = new ArrayList<Curve_Disco_PwAffineDouble>();
+			for (int i = 0; i < segment_count; i++) {
+				if (DoubleUtils.eq(seg_y[i], 0.0) && DoubleUtils.eq(seg_grad[i], 0.0)) {
+					continue;
+				}
+				double rate = seg_grad[i];
+				double latency = seg_x[i] - seg_y[i] / seg_grad[i];
+				if (DoubleUtils.lt(latency, 0.0)) {
+					continue;
+				}
+				rate_latencies.add(this.createRateLatency(rate, latency));
+			}
+		}
+
+		is_rate_latency = rate_latencies.size() == 1;
+
+		has_rate_latency_meta_info = true;
+	}
+
+	public void setTokenBucket(boolean is_token_bucket) {
+		this.is_token_bucket = is_token_bucket;
+	}
+
+	/**
+	 * Returns the number of token buckets the curve can be decomposed into.
+	 *
+	 * @return the number of token buckets
+	 */
+	public int getTB_ComponentCount() {
+		decomposeIntoTokenBuckets();
+		return token_buckets.size();
+	}
+
+	/**
+	 * Returns the <code>i</code>the token bucket curve that this curve can be
+	 * decomposed into.
+	 *
+	 * @param i
+	 *            the number of the token bucket
+	 * @return the token bucket
+	 */
+	public Curve_Disco_PwAffineDouble getTB_Component(int i) {
+		decomposeIntoTokenBuckets();
+		return token_buckets.get(i);
+	}
+
+	/**
+	 * Decomposes this curve into a list of token bucket curves and stores this list
+	 * in the curve's <code>token_buckets</code> field.<br>
+	 * Note: Curve must be concave.
+	 */
+	private void decomposeIntoTokenBuckets() {
+		if (has_token_bucket_meta_info == true) {
+			return;
+		}
+
+		if (Curves_Disco_Configuration.getInstance().exec_arrival_curve_checks() && !this.isConcave()) {
+			throw new RuntimeException("Can only decompose concave arrival curves into token buckets.");
+		}
+
+		token_buckets = new ArrayList<Curve_Disco_PwAffineDouble>();
+		for (int i = 0; i < segment_count; i++) {
+			if (isDiscontinuity(i)) {
+				continue;
+			}
+			double rate = seg_grad[i];
+			double burst = seg_y[i] - DoubleUtils.mult(seg_x[i], seg_grad[i]);
+			token_buckets.add(this.createTokenBucket(rate, burst));
+		}
+
+		is_token_bucket = token_buckets.size() == 1;
+
+		has_token_bucket_meta_info = true;
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// Segment View
+	// --------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Linear segment reading from and writing through to the curve's arrays.
+	 */
+	private final class SegmentView implements LinearSegment {
+		private final int pos;
+
+		private SegmentView(int pos) {
+			this.pos = pos;
+		}
+
+		public Num f(Num x) {
+			return DoubleUtils.toNum(DoubleUtils.mult(x.doubleValue() - seg_x[pos], seg_grad[pos]) + seg_y[pos]);
+		}
+
+		public Num getX() {
+			return DoubleUtils.toNum(seg_x[pos]);
+		}
+
+		public void setX(Num x) {
+			setSegmentX(pos, x.doubleValue());
+		}
+
+		public Num getY() {
+			return DoubleUtils.toNum(seg_y[pos]);
+		}
+
+		public void setY(Num y) {
+			setSegmentY(pos, y.doubleValue());
+		}
+
+		public Num getGrad() {
+			return DoubleUtils.toNum(seg_grad[pos]);
+		}
+
+		public void setGrad(Num grad) {
+			setSegmentGrad(pos, grad.doubleValue());
+		}
+
+		public boolean isLeftopen() {
+			return seg_leftopen.get(pos);
+		}
+
+		public void setLeftopen(boolean leftopen) {
+			setSegmentLeftopen(pos, leftopen);
+		}
+
+		public Num getXIntersectionWith(LinearSegment other) {
+			double y1 = seg_y[pos] - DoubleUtils.mult(seg_x[pos], seg_grad[pos]);
+			double y2 = other.getY().doubleValue()
+					- DoubleUtils.mult(other.getX().doubleValue(), other.getGrad().doubleValue());
+
+			// returns NaN if lines are parallel
+			return DoubleUtils.toNum((y2 - y1) / (seg_grad[pos] - other.getGrad().doubleValue()));
+		}
+
+		@Override
+		public LinearSegment copy() {
+			return new LinearSegment_Disco(getX(), getY(), getGrad(), isLeftopen());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == null || !(obj instanceof LinearSegment)) {
+				return false;
+			}
+
+			LinearSegment other = (LinearSegment) obj;
+			return DoubleUtils.eq(seg_x[pos], other.getX().doubleValue())
+					&& DoubleUtils.eq(seg_y[pos], other.getY().doubleValue())
+					&& DoubleUtils.eq(seg_grad[pos], other.getGrad().doubleValue())
+					&& seg_leftopen.get(pos) == other.isLeftopen();
+		}
+
+		@Override
+		public int hashCode() {
+			int result = Double.hashCode(seg_x[pos]);
+			result = 31 * result + Double.hashCode(seg_y[pos]);
+			result = 31 * result + Double.hashCode(seg_grad[pos]);
+			return 31 * result + Boolean.hashCode(seg_leftopen.get(pos));
+		}
+
+		@Override
+		public String toString() {
+			StringBuffer result = new StringBuffer();
+			appendSegment(result, pos);
+			return result.toString();
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// Factory Implementation
+	// --------------------------------------------------------------------------------------------------------------
+
+	// ------------------------------------------------------------------------------
+	// Curve Constructors
+	// ------------------------------------------------------------------------------
+
+	// ------------------------------------------------------------
+	// DNC compliance
+	// ------------------------------------------------------------
+	public Curve_Disco_PwAffineDouble createCurve(List<LinearSegment> segments) {
+		Curve_Disco_PwAffineDouble c_dnc = new Curve_Disco_PwAffineDouble(0);
+		c_dnc.allocate(segments.size());
+		for (LinearSegment s : segments) {
+			c_dnc.addSegment(s);
+		}
+		utils.beautify(c_dnc);
+		return c_dnc;
+	}
+
+	public Curve_Disco_PwAffineDouble createZeroCurve() {
+		return new Curve_Disco_PwAffineDouble(); // Constructor's default behavior
+	}
+
+	/**
+	 * Creates a horizontal curve.
+	 *
+	 * @param y
+	 *            the y-intercept of the curve
+	 * @return a <code>Curve</code> instance
+	 */
+	public Curve_Disco_PwAffineDouble createHorizontal(Num y) {
+		Curve_Disco_PwAffineDouble c_dnc = new Curve_Disco_PwAffineDouble();
+		makeHorizontal(c_dnc, y.doubleValue());
+		return c_dnc;
+	}
+
+	// ------------------------------------------------------------------------------
+	// Service Curve Constructors
+	// ------------------------------------------------------------------------------
+
+	// ------------------------------------------------------------
+	// DNC compliance
+	// ------------------------------------------------------------
+	public ServiceCurve_Disco_PwAffineDouble createServiceCurve() {
+		return new ServiceCurve_Disco_PwAffineDouble();
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createServiceCurve(int segment_count) {
+		return new ServiceCurve_Disco_PwAffineDouble(segment_count);
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createServiceCurve(String service_curve_str) throws Exception {
+		return new ServiceCurve_Disco_PwAffineDouble(service_curve_str);
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createServiceCurve(Curve curve) {
+		return new ServiceCurve_Disco_PwAffineDouble(curve);
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createZeroService() {
+		return new ServiceCurve_Disco_PwAffineDouble(); // Constructor's default behavior
+	}
+
+	/**
+	 * Creates an infinite burst curve with zero delay.
+	 *
+	 * @return a <code>ServiceCurve</code> instance
+	 */
+	public ServiceCurve_Disco_PwAffineDouble createZeroDelayInfiniteBurst() {
+		return createDelayedInfiniteBurst(0.0);
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createDelayedInfiniteBurst(double delay) {
+		ServiceCurve_Disco_PwAffineDouble sc_dnc = new ServiceCurve_Disco_PwAffineDouble();
+		makeDelayedInfiniteBurst(sc_dnc, delay);
+		return sc_dnc;
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createDelayedInfiniteBurst(Num delay) {
+		return createDelayedInfiniteBurst(delay.doubleValue());
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createRateLatency(double rate, double latency) {
+		ServiceCurve_Disco_PwAffineDouble sc_dnc = new ServiceCurve_Disco_PwAffineDouble();
+		makeRateLatency(sc_dnc, rate, latency);
+		return sc_dnc;
+	}
+
+	public ServiceCurve_Disco_PwAffineDouble createRateLatency(Num rate, Num latency) {
+		return createRateLatency(rate.doubleValue(), latency.doubleValue());
+	}
+
+	// ------------------------------------------------------------------------------
+	// Arrival Curve Constructors
+	// ------------------------------------------------------------------------------
+
+	// ------------------------------------------------------------
+	// DNC compliance
+	// ------------------------------------------------------------
+	public ArrivalCurve_Disco_PwAffineDouble createArrivalCurve() {
+		return new ArrivalCurve_Disco_PwAffineDouble();
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createArrivalCurve(int segment_count) {
+		return new ArrivalCurve_Disco_PwAffineDouble(segment_count);
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createArrivalCurve(String arrival_curve_str) throws Exception {
+		return new ArrivalCurve_Disco_PwAffineDouble(arrival_curve_str);
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createArrivalCurve(Curve curve) {
+		return new ArrivalCurve_Disco_PwAffineDouble(curve);
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createArrivalCurve(Curve curve, boolean remove_latency) {
+		return createArrivalCurve(utils.removeLatency(curve));
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createZeroArrivals() {
+		return new ArrivalCurve_Disco_PwAffineDouble(); // Constructor's default behavior
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createInfiniteArrivals() {
+		ArrivalCurve_Disco_PwAffineDouble ac_dnc = new ArrivalCurve_Disco_PwAffineDouble();
+		makeDelayedInfiniteBurst(ac_dnc, 0.0);
+		return ac_dnc;
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createPeakArrivalRate(double rate) {
+		ArrivalCurve_Disco_PwAffineDouble ac_dnc = new ArrivalCurve_Disco_PwAffineDouble();
+		makePeakRate(ac_dnc, rate);
+		return ac_dnc;
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createPeakArrivalRate(Num rate) {
+		return createPeakArrivalRate(rate.doubleValue());
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createTokenBucket(double rate, double burst) {
+		ArrivalCurve_Disco_PwAffineDouble ac_dnc = new ArrivalCurve_Disco_PwAffineDouble();
+		makeTokenBucket(ac_dnc, rate, burst);
+		return ac_dnc;
+	}
+
+	public ArrivalCurve_Disco_PwAffineDouble createTokenBucket(Num rate, Num burst) {
+		return createTokenBucket(rate.doubleValue(), burst.doubleValue());
+	}
+
+	// ------------------------------------------------------------------------------
+	// Maximum Service Curve Constructors
+	// ------------------------------------------------------------------------------
+
+	// ------------------------------------------------------------
+	// DNC compliance
+	// ------------------------------------------------------------
+	public MaxServiceCurve_Disco_PwAffineDouble createMaxServiceCurve() {
+		return new MaxServiceCurve_Disco_PwAffineDouble();
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createMaxServiceCurve(int segment_count) {
+		return new MaxServiceCurve_Disco_PwAffineDouble(segment_count);
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createMaxServiceCurve(String max_service_curve_str) throws Exception {
+		return new MaxServiceCurve_Disco_PwAffineDouble(max_service_curve_str);
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createMaxServiceCurve(Curve curve) {
+		return new MaxServiceCurve_Disco_PwAffineDouble(curve);
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createZeroDelayInfiniteBurstMSC() {
+		return createDelayedInfiniteBurstMSC(0.0);
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createDelayedInfiniteBurstMSC(double delay) {
+		MaxServiceCurve_Disco_PwAffineDouble msc_dnc = new MaxServiceCurve_Disco_PwAffineDouble();
+		makeDelayedInfiniteBurst(msc_dnc, delay);
+		return msc_dnc;
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createDelayedInfiniteBurstMSC(Num delay) {
+		return createDelayedInfiniteBurstMSC(delay.doubleValue());
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createRateLatencyMSC(double rate, double latency) {
+		MaxServiceCurve_Disco_PwAffineDouble msc_dnc = new MaxServiceCurve_Disco_PwAffineDouble();
+		makeRateLatency(msc_dnc, rate, latency);
+		return msc_dnc;
+	}
+
+	public MaxServiceCurve_Disco_PwAffineDouble createRateLatencyMSC(Num rate, Num latency) {
+		return createRateLatencyMSC(rate.doubleValue(), latency.doubleValue());
+	}
+
+	// ------------------------------------------------------------------------------
+	// Curve assembly
+	// ------------------------------------------------------------------------------
+	private void setSegments(Curve_Disco_PwAffineDouble c_dnc, double[] x, double[] y, double[] grad, boolean[] leftopen) {
+		c_dnc.allocate(x.length);
+		System.arraycopy(x, 0, c_dnc.seg_x, 0, x.length);
+		System.arraycopy(y, 0, c_dnc.seg_y, 0, y.length);
+		System.arraycopy(grad, 0, c_dnc.seg_grad, 0, grad.length);
+		for (int i = 0; i < leftopen.length; i++) {
+			c_dnc.seg_leftopen.set(i, leftopen[i]);
+		}
+		c_dnc.segment_count = x.length;
+		c_dnc.clearMetaInfo();
+	}
+
+	private void makeHorizontal(Curve_Disco_PwAffineDouble c_dnc, double y) {
+		setSegments(c_dnc, new double[] { 0.0 }, new double[] { y }, new double[] { 0.0 }, new boolean[] { false });
+	}
+
+	private void makeDelayedInfiniteBurst(Curve_Disco_PwAffineDouble c_dnc, double delay) {
+		if (DoubleUtils.lt(delay, 0.0)) {
+			throw new IllegalArgumentException("Delayed infinite burst curve must have delay >= 0.0");
+		}
+
+		setSegments(c_dnc, new double[] { 0.0, delay }, new double[] { 0.0, Double.POSITIVE_INFINITY },
+				new double[] { 0.0, 0.0 }, new boolean[] { false, true });
+		c_dnc.is_delayed_infinite_burst = true;
+	}
+
+	private void makePeakRate(Curve_Disco_PwAffineDouble c_dnc, double rate) {
+		if (rate == Double.POSITIVE_INFINITY) {
+			throw new IllegalArgumentException(
+					"Peak rate with rate infinity equals a delayed infinite burst curve with delay < 0.0");
+		}
+		if (DoubleUtils.eq(rate, 0.0)) {
+			makeHorizontal(c_dnc, 0.0);
+			return;
+		}
+
+		setSegments(c_dnc, new double[] { 0.0 }, new double[] { 0.0 }, new double[] { rate }, new boolean[] { false });
+		c_dnc.is_rate_latency = true; // with latency 0
+		c_dnc.is_token_bucket = true; // with burstiness 0
+	}
+
+	private void makeRateLatency(Curve_Disco_PwAffineDouble c_dnc, double rate, double latency) {
+		if (rate == Double.POSITIVE_INFINITY) {
+			makeDelayedInfiniteBurst(c_dnc, latency);
+			return;
+		}
+		if (DoubleUtils.eq(rate, 0.0) || latency == Double.POSITIVE_INFINITY) {
+			makeHorizontal(c_dnc, 0.0);
+			return;
+		}
+		if (DoubleUtils.leq(latency, 0.0)) {
+			makePeakRate(c_dnc, rate);
+			return;
+		}
+
+		setSegments(c_dnc, new double[] { 0.0, latency }, new double[] { 0.0, 0.0 }, new double[] { 0.0, rate },
+				new boolean[] { false, true });
+		c_dnc.is_rate_latency = true;
+	}
+
+	private void makeTokenBucket(Curve_Disco_PwAffineDouble c_dnc, double rate, double burst) {
+		if (rate == Double.POSITIVE_INFINITY || burst == Double.POSITIVE_INFINITY) {
+			makeDelayedInfiniteBurst(c_dnc, 0.0);
+			return;
+		}
+		if (DoubleUtils.eq(rate, 0.0)) { // burst is finite
+			makeHorizontal(c_dnc, burst);
+			return;
+		}
+		if (DoubleUtils.eq(burst, 0.0)) {
+			makePeakRate(c_dnc, rate);
+			return;
+		}
+
+		setSegments(c_dnc, new double[] { 0.0, 0.0 }, new double[] { 0.0, burst }, new double[] { 0.0, rate },
+				new boolean[] { false, true });
+		c_dnc.is_token_bucket = true;
+	}
+}
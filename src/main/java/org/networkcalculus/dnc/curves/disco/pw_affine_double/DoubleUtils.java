@@ -0,0 +1,102 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.curves.disco.pw_affine_double;
+
+import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.num.Num;
+
+/**
+ * Comparisons and conversions on primitive doubles used by the
+ * <code>PwAffineDouble</code> curve backend instead of <code>Num</code>
+ * objects. The tolerance mirrors the one of the double precision number
+ * backend so that both curve backends agree on equality.
+ */
+public final class DoubleUtils {
+	public static final double EPSILON = 5E-10;
+
+	private DoubleUtils() {
+	}
+
+	public static boolean eq(double a, double b) {
+		if (a == b) {
+			return true;
+		}
+		if (Double.isInfinite(a) || Double.isInfinite(b)) {
+			return false;
+		}
+		return Math.abs(a - b) <= EPSILON;
+	}
+
+	public static boolean lt(double a, double b) {
+		return a < b && !eq(a, b);
+	}
+
+	public static boolean leq(double a, double b) {
+		return a <= b || eq(a, b);
+	}
+
+	public static boolean gt(double a, double b) {
+		return a > b && !eq(a, b);
+	}
+
+	public static boolean geq(double a, double b) {
+		return a >= b || eq(a, b);
+	}
+
+	/**
+	 * Multiplication that treats 0 * inf as 0, i.e., a horizontal segment never
+	 * grows no matter how far away the evaluated x-coordinate is.
+	 */
+	public static double mult(double a, double b) {
+		if (a == 0.0 || b == 0.0) {
+			return 0.0;
+		}
+		return a * b;
+	}
+
+	public static double toDouble(Num num) {
+		return num.doubleValue();
+	}
+
+	/**
+	 * Converts a primitive value to a <code>Num</code> of the currently selected
+	 * number backend. Only required at the boundary of the curve interface.
+	 *
+	 * @param value The value to convert.
+	 * @return The value as <code>Num</code>.
+	 */
+	public static Num toNum(double value) {
+		if (Double.isNaN(value)) {
+			return Num.getFactory(Calculator.getInstance().getNumBackend()).createNaN();
+		}
+		if (value == Double.POSITIVE_INFINITY) {
+			return Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity();
+		}
+		if (value == Double.NEGATIVE_INFINITY) {
+			return Num.getFactory(Calculator.getInstance().getNumBackend()).createNegativeInfinity();
+		}
+		return Num.getFactory(Calculator.getInstance().getNumBackend()).create(value);
+	}
+}
@@ -26,28 +26,240 @@
 
 package org.networkcalculus.dnc.feedforward;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import org.networkcalculus.dnc.AnalysisConfig;
 import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.AnalysisConfig.ArrivalBoundMethod;
+import org.networkcalculus.dnc.AnalysisConfig.MaxScEnforcement;
+import org.networkcalculus.dnc.AnalysisConfig.MultiplexingEnforcement;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.ServiceCurve;
 import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.Path;
 import org.networkcalculus.dnc.network.server_graph.Server;
+import org.networkcalculus.dnc.network.server_graph.ServerGraph;
 import org.networkcalculus.dnc.network.server_graph.Turn;
+import org.networkcalculus.dnc.tandem.analyses.PmooAnalysis;
+import org.networkcalculus.dnc.tandem.analyses.SeparateFlowAnalysis;
+import org.networkcalculus.dnc.tandem.analyses.SeparateFlowResults;
+import org.networkcalculus.dnc.tandem.analyses.TandemMatchingAnalysis;
 
+/**
+ * Stores arrival bounds per server and per turn. The cache can be shared by
+ * analyses running concurrently.
+ * <p>
+ * Entries are found by a single lookup of their {@link CacheKey}.
+ * An arrival bound requested via <code>computeArrivalBounds</code> is computed once,
+ * further requests for it wait until it is available instead of computing it, too.
+ * <p>
+ * The size of the cache can be limited by a capacity. It is measured in the number
+ * of segments of the stored curves. Once it is exceeded, the least recently used
+ * entries are evicted until the cache is filled to three quarters of the capacity.
+ * <p>
+ * If the analysis configuration leaves multiplexing or the maximum service curves to the servers,
+ * i.e., enforces them <code>SERVER_LOCAL</code>, keys include the upstream servers' settings.
+ * <p>
+ * An {@link ArrivalBoundCacheFile} can be attached as a persistent tier.
+ * It is asked before an arrival bound is computed and stores the computed ones.
+ * <p>
+ * Besides arrival bounds, the cache stores the left-over service curves that segregated
+ * arrival bounding derives on the prefixes of flows' paths.
+ */
 public class ArrivalBoundCache {
-	private Map<Server,Set<CacheEntryServer>> map__server__entries = new HashMap<Server,Set<CacheEntryServer>>();
-	private Map<Turn,Set<CacheEntryTurn>> map__turn__entries = new HashMap<Turn,Set<CacheEntryTurn>>();
+	// Rough estimates for a 64-bit JVM with compressed references,
+	// a segment consists of three numbers and an entry of its key, a configuration copy and a set of flows.
+	private static final long ESTIMATED_BYTES_PER_SEGMENT = 80;
+	private static final long ESTIMATED_BYTES_PER_ENTRY = 400;
+	private static final long ESTIMATED_BYTES_PER_BOUNDED_FLOW = 40;
+
+	private final ConcurrentMap<CacheKey,CacheEntryServer> map__key__server_entry = new ConcurrentHashMap<CacheKey,CacheEntryServer>();
+	private final ConcurrentMap<CacheKey,CacheEntryTurn> map__key__turn_entry = new ConcurrentHashMap<CacheKey,CacheEntryTurn>();
+	private final ConcurrentMap<PrefixKey,CacheEntryPrefix> map__key__prefix_entry = new ConcurrentHashMap<PrefixKey,CacheEntryPrefix>();
+	
+	private volatile long capacity = Long.MAX_VALUE;
+	private final AtomicLong weight = new AtomicLong();
+	private final ReentrantLock eviction_lock = new ReentrantLock();
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+	
+	private volatile ArrivalBoundCacheFile cache_file = null;
+	
+	// Servers upstream of a server or turn, ordered by id.
+	private final ConcurrentMap<Object,Server[]> map__location__upstream_servers = new ConcurrentHashMap<Object,Server[]>();
 	
 	protected ArrivalBoundCache() {};
 	
+	protected ArrivalBoundCache( long capacity ) {
+		this.capacity = capacity;
+	};
+	
 	protected void clearCache() {
-		map__server__entries = new HashMap<Server,Set<CacheEntryServer>>();
-		map__turn__entries = new HashMap<Turn,Set<CacheEntryTurn>>();
+		map__key__server_entry.clear();
+		map__key__turn_entry.clear();
+		map__key__prefix_entry.clear();
+		map__location__upstream_servers.clear();
+		weight.set( 0 );
+	}
+	
+	/**
+	 * Removes the entries of the given servers and of the turns leaving them,
+	 * the left-over service curves of path prefixes crossing them
+	 * and the upstream servers memorized for these locations.
+	 * 
+	 * @param servers The servers whose arrival bounds and the ones of their out-turns may have changed.
+	 */
+	protected void invalidate( Set<Server> servers ) {
+		invalidate( map__key__server_entry, servers );
+		invalidate( map__key__turn_entry, servers );
+		for ( Map.Entry<PrefixKey,CacheEntryPrefix> mapping : map__key__prefix_entry.entrySet() ) {
+			if ( mapping.getValue().crossesAny( servers ) && map__key__prefix_entry.remove( mapping.getKey(), mapping.getValue() ) ) {
+				weight.addAndGet( -mapping.getValue().weight );
+				invalidations.incrementAndGet();
+			}
+		}
+		map__location__upstream_servers.keySet().removeIf( location -> isAffected( location, servers ) );
+	}
+	
+	private <E extends CacheEntry> void invalidate( ConcurrentMap<CacheKey,E> entries, Set<Server> servers ) {
+		for ( Map.Entry<CacheKey,E> mapping : entries.entrySet() ) {
+			if ( isAffected( mapping.getKey().location, servers ) && entries.remove( mapping.getKey(), mapping.getValue() ) ) {
+				weight.addAndGet( -mapping.getValue().weight );
+				invalidations.incrementAndGet();
+			}
+		}
+	}
+	
+	private static boolean isAffected( Object location, Set<Server> servers ) {
+		if ( location instanceof Turn ) {
+			return servers.contains( ((Turn) location).getSource() );
+		}
+		return servers.contains( location );
+	}
+	
+	public ArrivalBoundCacheFile getCacheFile() {
+		return cache_file;
+	}
+	
+	/**
+	 * @param cache_file The persistent tier, <code>null</code> to detach it.
+	 */
+	public void setCacheFile( ArrivalBoundCacheFile cache_file ) {
+		this.cache_file = cache_file;
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Capacity and statistics
+	// --------------------------------------------------------------------------------------------------------------
+	
+	public long getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * @param capacity The maximum number of segments of all stored curves, <code>Long.MAX_VALUE</code> for an unbounded cache.
+	 */
+	public void setCapacity( long capacity ) {
+		this.capacity = capacity;
+		if ( weight.get() > capacity ) {
+			evict();
+		}
+	}
+	
+	/**
+	 * @return The number of segments of all stored curves.
+	 */
+	public long getWeight() {
+		return weight.get();
+	}
+	
+	/**
+	 * @return The number of stored arrival bounds and path prefixes' left-over service curves.
+	 */
+	public int getEntryCount() {
+		return map__key__server_entry.size() + map__key__turn_entry.size() + map__key__prefix_entry.size();
+	}
+	
+	/**
+	 * @return The number of path prefixes whose left-over service curves are stored.
+	 */
+	public int getPrefixCount() {
+		return map__key__prefix_entry.size();
+	}
+	
+	/**
+	 * @return A rough estimate of the heap memory retained by the cache in bytes.
+	 */
+	public long getRetainedSizeEstimate() {
+		long size = 0;
+		for ( CacheEntry entry : map__key__server_entry.values() ) {
+			size += entry.getRetainedSizeEstimate();
+		}
+		for ( CacheEntry entry : map__key__turn_entry.values() ) {
+			size += entry.getRetainedSizeEstimate();
+		}
+		for ( CacheEntryPrefix entry : map__key__prefix_entry.values() ) {
+			size += ESTIMATED_BYTES_PER_ENTRY + ESTIMATED_BYTES_PER_SEGMENT * entry.weight;
+		}
+		return size;
+	}
+	
+	/**
+	 * @return The number of lookups that found an entry, including the ones that waited for it to be computed.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+	
+	public long getMissCount() {
+		return misses.get();
+	}
+	
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+	
+	/**
+	 * @return The number of entries removed because the server graph changed upstream of them.
+	 */
+	public long getInvalidationCount() {
+		return invalidations.get();
+	}
+	
+	public void resetCounts() {
+		hits.set( 0 );
+		misses.set( 0 );
+		evictions.set( 0 );
+		invalidations.set( 0 );
+	}
+	
+	@Override
+	public String toString() {
+		return "ArrivalBoundCache(entries " + getEntryCount() + ", segments " + getWeight()
+				+ ( capacity == Long.MAX_VALUE ? "" : " of " + capacity )
+				+ ", hits " + getHitCount() + ", misses " + getMissCount() + ", evictions " + getEvictionCount()
+				+ ", ~" + getRetainedSizeEstimate() + " bytes)";
 	}
 
 	/**
@@ -57,6 +269,7 @@ public class ArrivalBoundCache {
 	 * and the arrival bounds are not convolved into a single one,
 	 * then the cache just replaces any existing cache entry. 
 	 * 
+	 * @param server_graph
 	 * @param configuration
 	 * @param server
 	 * @param bounded_flows
@@ -65,41 +278,24 @@ public class ArrivalBoundCache {
 	 * @return
 	 * @throws Exception
 	 */
-	protected void addArrivalBounds( AnalysisConfig configuration,
-												  Server server,
-												  Set<Flow> bounded_flows,
-												  Flow flow_of_interest,
-												  Set<ArrivalCurve> arrival_bounds ) throws Exception {
-		if( bounded_flows.contains( flow_of_interest )
-				|| bounded_flows.isEmpty()
-				|| arrival_bounds.isEmpty() ) {
+	protected void addArrivalBounds( ServerGraph server_graph,
+									 AnalysisConfig configuration,
+									 Server server,
+									 Set<Flow> bounded_flows,
+									 Flow flow_of_interest,
+									 Set<ArrivalCurve> arrival_bounds ) throws Exception {
+		CacheKey key = createKey( server_graph, configuration, server, bounded_flows, flow_of_interest );
+		Set<ArrivalCurve> arrival_bounds_stored = toStore( configuration, bounded_flows, flow_of_interest, arrival_bounds );
+		if( key == null || arrival_bounds_stored.isEmpty() ) {
 			return;
 		}
-		
-		// Remove possible old entry
-		CacheEntryServer entry = getCacheEntry( configuration, server, bounded_flows, flow_of_interest ); 
-		if ( entry != null ) {
-			// get(...) cannot return null as the entry was already confirmed to exist.
-			map__server__entries.get( server ).remove( entry );
-		}
-		
-		Set<ArrivalCurve> arrival_bounds_stored;
-		
-		// Create arrival bound to store
-		if( configuration.convolveAlternativeArrivalBounds() ) {	// Convolve given bounds into one.
-			arrival_bounds_stored = Collections.singleton( Calculator.getInstance().getMinPlus().convolve( arrival_bounds ) );
-		} else { 													// Take them as they are.
-			arrival_bounds_stored = new HashSet<ArrivalCurve>( arrival_bounds );
-		}
-		entry = new CacheEntryServer( configuration.copy(), server, new HashSet<Flow>( bounded_flows ), flow_of_interest, arrival_bounds_stored );
-		
-		// No need to check if the maps has entries for the server or the flow of interest.
-		// If missing they were created by the call to getCacheEntry(...) above.
-		map__server__entries.get( server ).add( entry );
+		CacheEntryServer new_entry = new CacheEntryServer( configuration.copy(), server, new HashSet<Flow>( bounded_flows ), flow_of_interest );
+		new_entry.complete( arrival_bounds_stored );
+		put( map__key__server_entry, key, new_entry );
 	}
 	
-	protected Set<ArrivalCurve> getArrivalBounds( AnalysisConfig configuration, Server server, Set<Flow> bounded_flows, Flow flow_of_interest ) {
-		CacheEntryServer entry = getCacheEntry( configuration, server, bounded_flows, flow_of_interest );
+	protected Set<ArrivalCurve> getArrivalBounds( ServerGraph server_graph, AnalysisConfig configuration, Server server, Set<Flow> bounded_flows, Flow flow_of_interest ) {
+		CacheEntryServer entry = getCacheEntry( server_graph, configuration, server, bounded_flows, flow_of_interest );
 		if ( entry == null ) {
 			return new HashSet<ArrivalCurve>();
 		} else {
@@ -111,42 +307,49 @@ public class ArrivalBoundCache {
 	 * 
 	 * Returns the cache entry for the given parameters if there is one.
 	 * 
-	 * If not, it returns null.
-	 * 
-	 * In addition, if there's no entry, the internal mappings will be created as a subsequent adding of an according entry is expected.
+	 * If not, it returns null. Entries that are still computed are not returned.
 	 * 
 	 * @param server
 	 * @param bounded_flows
 	 * @param flow_of_interest
 	 * @return
 	 */
-	protected CacheEntryServer getCacheEntry( AnalysisConfig configuration, Server server, Set<Flow> bounded_flows, Flow flow_of_interest ) {
-		// Most important feature is an efficient search
-		boolean return_null = false;
-		Set<CacheEntryServer> entries_s = map__server__entries.get( server );
-		if ( entries_s == null ) {
-			map__server__entries.put( server, new HashSet<CacheEntryServer>() );
-			return_null = true;
-		}
-		
-		if ( return_null ) {
+	protected CacheEntryServer getCacheEntry( ServerGraph server_graph, AnalysisConfig configuration, Server server, Set<Flow> bounded_flows, Flow flow_of_interest ) {
+		CacheKey key = createKey( server_graph, configuration, server, bounded_flows, flow_of_interest );
+		if ( key == null ) {
 			return null;
 		}
+		return getCompleted( map__key__server_entry.get( key ) );
+	}
 
-		Set<CacheEntryServer> candidates = new HashSet<CacheEntryServer>( entries_s );
-
-		for ( CacheEntryServer entry : candidates ) {
-			if( entry.configuration.enforceMultiplexing() == configuration.enforceMultiplexing()
-				&& entry.configuration.enforceMaxSC() == configuration.enforceMaxSC()
-				&& entry.configuration.enforceMaxScOutputRate() == configuration.enforceMaxScOutputRate()
-				&& entry.bounded_flows.size() == bounded_flows.size()
-				&& entry.flow_of_interest.getId() == flow_of_interest.getId()
-				&& entry.bounded_flows.containsAll( bounded_flows ) // should be the most expensive operation so do it last 
-			) {
-				return entry;
-			}
+	/**
+	 * Returns the cached arrival bounds if there are any that match the configuration.
+	 * Otherwise, they are computed with <code>computation</code> and added to the cache.
+	 * If another thread already computes them, this thread waits for its result.
+	 * 
+	 * @param server_graph The server graph containing <code>server</code>.
+	 * @param configuration
+	 * @param server
+	 * @param bounded_flows
+	 * @param flow_of_interest
+	 * @param computation Computes the arrival bounds if they are not cached.
+	 * @return The arrival bounds, computed ones are returned as they are.
+	 * @throws Exception Potential exception raised by <code>computation</code>.
+	 */
+	protected Set<ArrivalCurve> computeArrivalBounds( ServerGraph server_graph,
+													  AnalysisConfig configuration,
+													  Server server,
+													  Set<Flow> bounded_flows,
+													  Flow flow_of_interest,
+													  Callable<Set<ArrivalCurve>> computation ) throws Exception {
+		CacheKey key = createKey( server_graph, configuration, server, bounded_flows, flow_of_interest );
+		if( key == null ) {
+			return computation.call();
 		}
-		return null;
+		return computeOrAwait( map__key__server_entry, key,
+				() -> new CacheEntryServer( configuration.copy(), server, new HashSet<Flow>( bounded_flows ), flow_of_interest ),
+				() -> ArrivalBoundCacheFile.fingerprint( server_graph, configuration, server, bounded_flows, flow_of_interest ),
+				configuration, bounded_flows, flow_of_interest, computation );
 	}
 
 	/**
@@ -156,6 +359,7 @@ public class ArrivalBoundCache {
 	 * and the arrival bounds are not convolved into a single one,
 	 * then the cache just replaces any existing cache entry. 
 	 * 
+	 * @param server_graph
 	 * @param configuration
 	 * @param server
 	 * @param bounded_flows
@@ -164,22 +368,502 @@ public class ArrivalBoundCache {
 	 * @return
 	 * @throws Exception
 	 */
-	protected void addArrivalBounds( AnalysisConfig configuration,
-												  Turn turn,
-												  Set<Flow> bounded_flows,
-												  Flow flow_of_interest,
-												  Set<ArrivalCurve> arrival_bounds ) throws Exception {
-		if( bounded_flows.contains( flow_of_interest )
-				|| bounded_flows.isEmpty()
-				|| arrival_bounds.isEmpty() ) {
+	protected void addArrivalBounds( ServerGraph server_graph,
+									 AnalysisConfig configuration,
+									 Turn turn,
+									 Set<Flow> bounded_flows,
+									 Flow flow_of_interest,
+									 Set<ArrivalCurve> arrival_bounds ) throws Exception {
+		CacheKey key = createKey( server_graph, configuration, turn, bounded_flows, flow_of_interest );
+		Set<ArrivalCurve> arrival_bounds_stored = toStore( configuration, bounded_flows, flow_of_interest, arrival_bounds );
+		if( key == null || arrival_bounds_stored.isEmpty() ) {
 			return;
 		}
+		CacheEntryTurn new_entry = new CacheEntryTurn( configuration.copy(), turn, new HashSet<Flow>( bounded_flows ), flow_of_interest );
+		new_entry.complete( arrival_bounds_stored );
+		put( map__key__turn_entry, key, new_entry );
+	}
+	
+	protected Set<ArrivalCurve> getArrivalBounds( ServerGraph server_graph, AnalysisConfig configuration, Turn turn, Set<Flow> bounded_flows, Flow flow_of_interest ) {
+		CacheEntryTurn entry = getCacheEntry( server_graph, configuration, turn, bounded_flows, flow_of_interest );
+		if ( entry == null ) {
+			return new HashSet<ArrivalCurve>();
+		} else {
+			return new HashSet<ArrivalCurve>( entry.arrival_bounds );
+		}
+	}
+	
+	protected CacheEntryTurn getCacheEntry( ServerGraph server_graph, AnalysisConfig configuration, Turn turn, Set<Flow> bounded_flows, Flow flow_of_interest ) {
+		CacheKey key = createKey( server_graph, configuration, turn, bounded_flows, flow_of_interest );
+		if ( key == null ) {
+			return null;
+		}
+		return getCompleted( map__key__turn_entry.get( key ) );
+	}
+
+	/**
+	 * See {@link #computeArrivalBounds(ServerGraph, AnalysisConfig, Server, Set, Flow, Callable)}.
+	 */
+	protected Set<ArrivalCurve> computeArrivalBounds( ServerGraph server_graph,
+													  AnalysisConfig configuration,
+													  Turn turn,
+													  Set<Flow> bounded_flows,
+													  Flow flow_of_interest,
+													  Callable<Set<ArrivalCurve>> computation ) throws Exception {
+		CacheKey key = createKey( server_graph, configuration, turn, bounded_flows, flow_of_interest );
+		if( key == null ) {
+			return computation.call();
+		}
+		return computeOrAwait( map__key__turn_entry, key,
+				() -> new CacheEntryTurn( configuration.copy(), turn, new HashSet<Flow>( bounded_flows ), flow_of_interest ),
+				() -> ArrivalBoundCacheFile.fingerprint( server_graph, configuration, turn, bounded_flows, flow_of_interest ),
+				configuration, bounded_flows, flow_of_interest, computation );
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Left-over service curves of path prefixes
+	// --------------------------------------------------------------------------------------------------------------
+	
+	/**
+	 * Returns the left-over service curves that segregated arrival bounding derives
+	 * for a flow on a prefix of its path, i.e., from its source to the source of the turn to bound.
+	 * <p>
+	 * A flow crosses many turns whose bounds each need the left-over service curves of another prefix of the same path.
+	 * SEGR_PBOO extends the stored curves of the next shorter prefix by the left-over service curves of the prefix's last server,
+	 * such that the separate flow analysis of all prefixes of a path costs as much as the one of the entire path.
+	 * The PMOO and tandem matching analyses of a prefix are not composed of shorter prefixes' ones,
+	 * the cache computes each prefix once and serves it to all further turns.
+	 * <p>
+	 * The prefixes are analyzed with a default configuration, their keys thus include the
+	 * server-local settings of the prefix's last server and all servers upstream of it.
+	 * They count against the capacity like arrival bounds.
+	 * 
+	 * @param arrival_bound_method SEGR_PBOO, SEGR_PMOO or SEGR_TM.
+	 * @param flow The flow to derive the left-over service curves for.
+	 * @param prefix_sink The last server of the prefix of the flow's path.
+	 * @return The left-over service curves of the flow on the prefix. The set must not be changed.
+	 * @throws Exception The prefix sink is not on the flow's path or the analysis of the prefix failed.
+	 */
+	protected Set<ServiceCurve> getLeftOverServiceCurves( ServerGraph server_graph, ArrivalBoundMethod arrival_bound_method,
+			Flow flow, Server prefix_sink ) throws Exception {
+		int prefix_length = flow.getPath().indexOf( prefix_sink ) + 1;
+		if ( prefix_length == 0 ) {
+			throw new Exception( "Given server is not on the flow's path." );
+		}
+		return getLeftOverServiceCurves( server_graph, arrival_bound_method, flow, prefix_length );
+	}
+	
+	private Set<ServiceCurve> getLeftOverServiceCurves( ServerGraph server_graph, ArrivalBoundMethod arrival_bound_method,
+			Flow flow, int prefix_length ) throws Exception {
+		Server prefix_sink = flow.getPath().getServer( prefix_length - 1 );
+		byte[] settings_signature = getUpstreamSignature( server_graph, prefix_sink, 1, true, true, true );
+		settings_signature[settings_signature.length - 1] = getSettingsSignature( prefix_sink, true, true, true );
+		// Curve operations depend on the multiplexing enforcement of the calling thread.
+		PrefixKey key = new PrefixKey( arrival_bound_method, prefix_sink, flow.getId(),
+				AnalysisConfig.enforceMultiplexingStatic(), settings_signature );
 		
-		// Remove possible old entry
-		CacheEntryTurn entry = getCacheEntry( configuration, turn, bounded_flows, flow_of_interest ); 
-		if ( entry != null ) {
-			// get(...) cannot return null as the entry was already confirmed to exist.
-			map__turn__entries.get( turn ).remove( entry );
+		CacheEntryPrefix entry = map__key__prefix_entry.get( key );
+		if ( entry == null ) {
+			CacheEntryPrefix new_entry = new CacheEntryPrefix( flow, prefix_length );
+			entry = map__key__prefix_entry.putIfAbsent( key, new_entry );
+			if ( entry == null ) {
+				misses.incrementAndGet();
+				try {
+					new_entry.complete( Collections.unmodifiableSet(
+							computeLeftOverServiceCurves( server_graph, arrival_bound_method, flow, prefix_length ) ) );
+				} catch ( Throwable t ) {
+					// Waiting threads get the same exception, the next request retries the computation.
+					map__key__prefix_entry.remove( key, new_entry );
+					new_entry.result.completeExceptionally( t );
+					throw t;
+				}
+				if ( weight.addAndGet( new_entry.weight ) > capacity ) {
+					evict();
+				}
+				return new_entry.betas_lo;
+			}
+		}
+		
+		hits.incrementAndGet();
+		entry.last_access = System.nanoTime();
+		try {
+			return entry.result.join();
+		} catch ( CompletionException e ) {
+			if ( e.getCause() instanceof Exception ) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+	
+	private Set<ServiceCurve> computeLeftOverServiceCurves( ServerGraph server_graph, ArrivalBoundMethod arrival_bound_method,
+			Flow flow, int prefix_length ) throws Exception {
+		Server prefix_sink = flow.getPath().getServer( prefix_length - 1 );
+		
+		switch ( arrival_bound_method ) {
+			case SEGR_PBOO:
+				// The separate flow analysis convolves the left-over service curves of the servers one after another,
+				// the ones of a server do not depend on the prefix.
+				Set<ServiceCurve> betas_lo_shorter_prefix = prefix_length == 1 ? Collections.emptySet()
+						: getLeftOverServiceCurves( server_graph, arrival_bound_method, flow, prefix_length - 1 );
+				SeparateFlowResults sfa_results = SeparateFlowAnalysis.tandemAnalysis( server_graph, flow,
+						flow.getSubPath( prefix_sink, prefix_sink ), Collections.singleton( flow ), new AnalysisConfig() );
+				return Calculator.getInstance().getMinPlus().convolve( betas_lo_shorter_prefix,
+						sfa_results.getBetasServerMap().get( prefix_sink ) );
+			
+			case SEGR_PMOO:
+				PmooAnalysis pmoo = new PmooAnalysis( server_graph );
+				pmoo.performAnalysis( flow, flow.getSubPath( flow.getSource(), prefix_sink ) );
+				return pmoo.getLeftOverServiceCurves();
+			
+			case SEGR_TM:
+				TandemMatchingAnalysis tma = new TandemMatchingAnalysis( server_graph );
+				tma.performAnalysis( flow, flow.getSubPath( flow.getSource(), prefix_sink ) );
+				return tma.getLeftOverServiceCurves();
+			
+			default:
+				throw new IllegalArgumentException( "No segregated arrival bound method: " + arrival_bound_method );
+		}
+	}
+	
+	/**
+	 * Immutable key of a path prefix's left-over service curves. The prefix is identified by its last server
+	 * and the flow's id, the flow itself is only referenced by the entry.
+	 */
+	private static final class PrefixKey {
+		private final ArrivalBoundMethod arrival_bound_method;
+		private final Server prefix_sink;
+		private final int flow_id;
+		private final MultiplexingEnforcement multiplexing_enforcement;
+		private final byte[] settings_signature;
+		private final int hash;
+		
+		private PrefixKey( ArrivalBoundMethod arrival_bound_method, Server prefix_sink, int flow_id,
+				MultiplexingEnforcement multiplexing_enforcement, byte[] settings_signature ) {
+			this.arrival_bound_method = arrival_bound_method;
+			this.prefix_sink = prefix_sink;
+			this.flow_id = flow_id;
+			this.multiplexing_enforcement = multiplexing_enforcement;
+			this.settings_signature = settings_signature;
+			this.hash = 31 * Objects.hash( arrival_bound_method, prefix_sink, flow_id, multiplexing_enforcement )
+					+ Arrays.hashCode( settings_signature );
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals( Object obj ) {
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !(obj instanceof PrefixKey) ) {
+				return false;
+			}
+			PrefixKey other = (PrefixKey) obj;
+			return hash == other.hash
+					&& flow_id == other.flow_id
+					&& arrival_bound_method == other.arrival_bound_method
+					&& multiplexing_enforcement == other.multiplexing_enforcement
+					&& prefix_sink.equals( other.prefix_sink )
+					&& Arrays.equals( settings_signature, other.settings_signature );
+		}
+	}
+	
+	private static final class CacheEntryPrefix {
+		private final Flow flow;
+		private final int prefix_length;
+		private volatile Set<ServiceCurve> betas_lo;
+		private final CompletableFuture<Set<ServiceCurve>> result = new CompletableFuture<Set<ServiceCurve>>();
+		
+		// Number of segments of the left-over service curves, set once they are available.
+		private long weight = 0;
+		private volatile long last_access = System.nanoTime();
+		
+		private CacheEntryPrefix( Flow flow, int prefix_length ) {
+			this.flow = flow;
+			this.prefix_length = prefix_length;
+		}
+		
+		private void complete( Set<ServiceCurve> betas_lo ) {
+			long weight = 0;
+			for ( ServiceCurve beta_lo : betas_lo ) {
+				weight += beta_lo.getSegmentCount();
+			}
+			this.weight = weight;
+			this.betas_lo = betas_lo;
+			result.complete( betas_lo );
+		}
+		
+		private boolean crossesAny( Set<Server> servers ) {
+			Path path = flow.getPath();
+			for ( int i = 0; i < prefix_length; i++ ) {
+				if ( servers.contains( path.getServer( i ) ) ) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Internals shared by server and turn entries
+	// --------------------------------------------------------------------------------------------------------------
+	
+	private CacheKey createKey( ServerGraph server_graph, AnalysisConfig configuration, Object location,
+			Set<Flow> bounded_flows, Flow flow_of_interest ) {
+		boolean local_multiplexing = configuration.enforceMultiplexing() == MultiplexingEnforcement.SERVER_LOCAL;
+		boolean local_max_sc = configuration.enforceMaxSC() == MaxScEnforcement.SERVER_LOCAL;
+		boolean local_max_sc_rate = configuration.enforceMaxScOutputRate() == MaxScEnforcement.SERVER_LOCAL;
+		if( !(local_multiplexing || local_max_sc || local_max_sc_rate) ) {
+			return CacheKey.create( configuration, location, bounded_flows, flow_of_interest, CacheKey.NO_UPSTREAM_SIGNATURE );
+		}
+		
+		byte[] upstream_signature = getUpstreamSignature( server_graph, location, 0, local_multiplexing, local_max_sc, local_max_sc_rate );
+		return CacheKey.create( configuration, location, bounded_flows, flow_of_interest, upstream_signature );
+	}
+	
+	/**
+	 * @param extra_length Number of bytes to leave empty at the end of the signature.
+	 * @return The server-local settings of the servers upstream of <code>location</code>
+	 * that are not enforced globally, one byte per server.
+	 */
+	private byte[] getUpstreamSignature( ServerGraph server_graph, Object location, int extra_length,
+			boolean local_multiplexing, boolean local_max_sc, boolean local_max_sc_rate ) {
+		Server[] upstream_servers = map__location__upstream_servers.computeIfAbsent( location, l -> {
+			Server[] servers = getUpstreamServers( server_graph, location ).toArray( new Server[0] );
+			Arrays.sort( servers, Comparator.comparingInt( Server::getId ) );
+			return servers;
+		} );
+		byte[] upstream_signature = new byte[upstream_servers.length + extra_length];
+		for( int i = 0; i < upstream_servers.length; i++ ) {
+			upstream_signature[i] = getSettingsSignature( upstream_servers[i], local_multiplexing, local_max_sc, local_max_sc_rate );
+		}
+		return upstream_signature;
+	}
+	
+	private static byte getSettingsSignature( Server server, boolean local_multiplexing, boolean local_max_sc, boolean local_max_sc_rate ) {
+		return (byte) ( ( local_multiplexing ? server.multiplexing().ordinal() + 1 : 0 )
+				| ( local_max_sc && server.useMaxSC() ? 1 << 2 : 0 )
+				| ( local_max_sc_rate && server.useMaxScRate() ? 1 << 3 : 0 ) );
+	}
+	
+	/**
+	 * @param location A server or a turn.
+	 * @return All servers upstream of a server, excluding the server itself,
+	 * or all servers upstream of a turn, including the turn's source.
+	 */
+	static Set<Server> getUpstreamServers( ServerGraph server_graph, Object location ) {
+		LinkedList<Server> servers_to_visit = new LinkedList<Server>();
+		if( location instanceof Turn ) {
+			servers_to_visit.add( ((Turn) location).getSource() );
+		} else {
+			servers_to_visit.addAll( server_graph.getPredecessors( (Server) location ) );
+		}
+		
+		Set<Server> upstream_servers = new HashSet<Server>();
+		while( !servers_to_visit.isEmpty() ) {
+			Server upstream_server = servers_to_visit.removeFirst();
+			if( upstream_servers.add( upstream_server ) ) {
+				servers_to_visit.addAll( server_graph.getPredecessors( upstream_server ) );
+			}
+		}
+		return upstream_servers;
+	}
+	
+	private <E extends CacheEntry> E getCompleted( E entry ) {
+		if ( entry == null || entry.arrival_bounds == null ) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		entry.touch();
+		return entry;
+	}
+	
+	private <E extends CacheEntry> void put( ConcurrentMap<CacheKey,E> entries, CacheKey key, E completed_entry ) {
+		E replaced_entry = entries.put( key, completed_entry );
+		if ( replaced_entry != null ) {
+			weight.addAndGet( -replaced_entry.weight );
+		}
+		addWeight( completed_entry );
+	}
+	
+	private void addWeight( CacheEntry completed_entry ) {
+		if ( weight.addAndGet( completed_entry.weight ) > capacity ) {
+			evict();
+		}
+	}
+	
+	/**
+	 * Evicts the least recently used entries until the cache is filled to three quarters of its capacity.
+	 * If another thread is evicting already, this thread leaves the work to it.
+	 */
+	private void evict() {
+		if ( !eviction_lock.tryLock() ) {
+			return;
+		}
+		try {
+			// Access times are copied, other threads keep updating them while the candidates are sorted.
+			List<EvictionCandidate> candidates = new ArrayList<EvictionCandidate>();
+			for ( Map.Entry<CacheKey,? extends CacheEntry> mapping : map__key__server_entry.entrySet() ) {
+				candidates.add( new EvictionCandidate( map__key__server_entry, mapping.getKey(), mapping.getValue() ) );
+			}
+			for ( Map.Entry<CacheKey,? extends CacheEntry> mapping : map__key__turn_entry.entrySet() ) {
+				candidates.add( new EvictionCandidate( map__key__turn_entry, mapping.getKey(), mapping.getValue() ) );
+			}
+			for ( Map.Entry<PrefixKey,CacheEntryPrefix> mapping : map__key__prefix_entry.entrySet() ) {
+				candidates.add( new EvictionCandidate( map__key__prefix_entry, mapping.getKey(), mapping.getValue() ) );
+			}
+			
+			// Recount, concurrent updates and clearing may have left the counter slightly off.
+			long weight_total = 0;
+			for ( EvictionCandidate candidate : candidates ) {
+				weight_total += candidate.weight;
+			}
+			long weight_target = capacity - capacity / 4;
+			if ( weight_total <= capacity ) {
+				weight.set( weight_total );
+				return;
+			}
+			
+			candidates.sort( Comparator.comparingLong( candidate -> candidate.last_access ) );
+			for ( EvictionCandidate candidate : candidates ) {
+				if ( weight_total <= weight_target ) {
+					break;
+				}
+				if ( !candidate.completed ) { // Still computed, waiting threads need it.
+					continue;
+				}
+				if ( candidate.entries.remove( candidate.key, candidate.entry ) ) {
+					weight_total -= candidate.weight;
+					evictions.incrementAndGet();
+				}
+			}
+			weight.set( weight_total );
+		} finally {
+			eviction_lock.unlock();
+		}
+	}
+	
+	private static final class EvictionCandidate {
+		private final Map<?,?> entries;
+		private final Object key;
+		private final Object entry;
+		private final boolean completed;
+		private final long weight;
+		private final long last_access;
+		
+		private EvictionCandidate( Map<CacheKey,? extends CacheEntry> entries, CacheKey key, CacheEntry entry ) {
+			this.entries = entries;
+			this.key = key;
+			this.entry = entry;
+			this.completed = entry.arrival_bounds != null;
+			this.weight = entry.weight;
+			this.last_access = entry.last_access;
+		}
+		
+		private EvictionCandidate( Map<PrefixKey,CacheEntryPrefix> entries, PrefixKey key, CacheEntryPrefix entry ) {
+			this.entries = entries;
+			this.key = key;
+			this.entry = entry;
+			this.completed = entry.betas_lo != null;
+			this.weight = entry.weight;
+			this.last_access = entry.last_access;
+		}
+	}
+	
+	/**
+	 * @param entry_factory Creates the entry to add if there is none for the key yet.
+	 * @param fingerprint_factory Creates the entry's fingerprint in the persistent tier.
+	 */
+	private <E extends CacheEntry> Set<ArrivalCurve> computeOrAwait( ConcurrentMap<CacheKey,E> entries, CacheKey key,
+			Supplier<E> entry_factory, Callable<String> fingerprint_factory,
+			AnalysisConfig configuration, Set<Flow> bounded_flows, Flow flow_of_interest,
+			Callable<Set<ArrivalCurve>> computation ) throws Exception {
+		E entry = entries.get( key );
+		E new_entry = null;
+		if( entry == null ) {
+			new_entry = entry_factory.get();
+			entry = entries.putIfAbsent( key, new_entry );
+		}
+		if( entry != null ) {
+			Set<ArrivalCurve> arrival_bounds_cached = entry.await();
+			if( !arrival_bounds_cached.isEmpty()
+					&& !(arrival_bounds_cached.size() > 1 && configuration.convolveAlternativeArrivalBounds()) ) { // Inconsistency between cache content and current setting.
+				hits.incrementAndGet();
+				entry.touch();
+				return new HashSet<ArrivalCurve>( arrival_bounds_cached );
+			}
+			
+			misses.incrementAndGet();
+			new_entry = entry_factory.get();
+			Set<ArrivalCurve> arrival_bounds = computeOrRead( new_entry, fingerprint_factory,
+					configuration, bounded_flows, flow_of_interest, computation );
+			if( !new_entry.arrival_bounds.isEmpty() ) {
+				put( entries, key, new_entry );
+			}
+			return arrival_bounds;
+		}
+
+		misses.incrementAndGet();
+		try {
+			Set<ArrivalCurve> arrival_bounds = computeOrRead( new_entry, fingerprint_factory,
+					configuration, bounded_flows, flow_of_interest, computation );
+			if( new_entry.arrival_bounds.isEmpty() ) {
+				entries.remove( key, new_entry );
+			} else {
+				addWeight( new_entry );
+			}
+			return arrival_bounds;
+		} catch( Throwable t ) {
+			// Waiting threads get the same exception, the next request retries the computation.
+			entries.remove( key, new_entry );
+			new_entry.result.completeExceptionally( t );
+			throw t;
+		}
+	}
+	
+	/**
+	 * Reads the arrival bounds from the persistent tier or computes them.
+	 * Completes <code>new_entry</code> with the arrival bounds to store.
+	 * 
+	 * @return The arrival bounds, computed ones are returned as they are.
+	 */
+	private Set<ArrivalCurve> computeOrRead( CacheEntry new_entry, Callable<String> fingerprint_factory,
+			AnalysisConfig configuration, Set<Flow> bounded_flows, Flow flow_of_interest,
+			Callable<Set<ArrivalCurve>> computation ) throws Exception {
+		ArrivalBoundCacheFile cache_file = this.cache_file;
+		String fingerprint = null;
+		if( cache_file != null && !bounded_flows.contains( flow_of_interest ) ) {
+			fingerprint = fingerprint_factory.call();
+			Set<ArrivalCurve> arrival_bounds_read = cache_file.read( fingerprint );
+			if( arrival_bounds_read != null ) {
+				new_entry.complete( Collections.unmodifiableSet( arrival_bounds_read ) );
+				return new HashSet<ArrivalCurve>( arrival_bounds_read );
+			}
+		}
+		
+		Set<ArrivalCurve> arrival_bounds = computation.call();
+		Set<ArrivalCurve> arrival_bounds_stored = toStore( configuration, bounded_flows, flow_of_interest, arrival_bounds );
+		if( fingerprint != null && !arrival_bounds_stored.isEmpty() ) {
+			cache_file.write( fingerprint, arrival_bounds_stored );
+		}
+		new_entry.complete( arrival_bounds_stored );
+		return arrival_bounds;
+	}
+	
+	/**
+	 * @return The arrival bounds to store in the cache, an empty set if they must not be stored.
+	 */
+	private static Set<ArrivalCurve> toStore( AnalysisConfig configuration, Set<Flow> bounded_flows, Flow flow_of_interest,
+			Set<ArrivalCurve> arrival_bounds ) throws Exception {
+		if( bounded_flows.contains( flow_of_interest )
+				|| bounded_flows.isEmpty()
+				|| arrival_bounds.isEmpty() ) {
+			return Collections.emptySet();
 		}
 		
 		Set<ArrivalCurve> arrival_bounds_stored;
@@ -190,47 +874,104 @@ public class ArrivalBoundCache {
 		} else { 													// Take them as they are.
 			arrival_bounds_stored = new HashSet<ArrivalCurve>( arrival_bounds );
 		}
-		entry = new CacheEntryTurn(configuration, turn, new HashSet<Flow>( bounded_flows ), flow_of_interest, arrival_bounds_stored );
 		
-		map__turn__entries.get( turn ).add( entry );
-	}
-	
-	protected Set<ArrivalCurve> getArrivalBounds( AnalysisConfig configuration, Turn turn, Set<Flow> bounded_flows, Flow flow_of_interest ) {
-		CacheEntryTurn entry = getCacheEntry( configuration, turn, bounded_flows, flow_of_interest );
-		if ( entry == null ) {
-			return new HashSet<ArrivalCurve>();
-		} else {
-			return new HashSet<ArrivalCurve>( entry.arrival_bounds );
+		// Readers beautify the bounds they get from the cache.
+		// Doing so before they are shared makes this a no-op that does not change shared curves.
+		for( ArrivalCurve arrival_bound : arrival_bounds_stored ) {
+			Curve.getUtils().beautify( arrival_bound );
 		}
+		return Collections.unmodifiableSet( arrival_bounds_stored );
 	}
 	
-	protected CacheEntryTurn getCacheEntry( AnalysisConfig configuration, Turn turn, Set<Flow> bounded_flows, Flow flow_of_interest ) {
-		// Most important feature is an efficient search
-		boolean return_null = false;
-		Set<CacheEntryTurn> entries_l = map__turn__entries.get( turn );
-		if ( entries_l == null ) {
-			map__turn__entries.put( turn, new HashSet<CacheEntryTurn>() );
-			return_null = true;
+	/**
+	 * Immutable key of a cache entry. It consists of
+	 * <ul>
+	 * <li>the server or turn,</li>
+	 * <li>the sorted ids of the bounded flows,</li>
+	 * <li>the id of the flow of interest and</li>
+	 * <li>the configuration settings the cache distinguishes, packed into a single int.</li>
+	 * </ul>
+	 * The hash is computed once, such that a lookup is a single hash probe.
+	 */
+	static final class CacheKey {
+		private final Object location;
+		private final int[] bounded_flow_ids;
+		private final int flow_of_interest_id;
+		private final int configuration_fingerprint;
+		private final byte[] upstream_signature;
+		private final int hash;
+		
+		static final byte[] NO_UPSTREAM_SIGNATURE = new byte[0];
+		
+		private CacheKey( Object location, int[] bounded_flow_ids, int flow_of_interest_id, int configuration_fingerprint,
+				byte[] upstream_signature ) {
+			this.location = location;
+			this.bounded_flow_ids = bounded_flow_ids;
+			this.flow_of_interest_id = flow_of_interest_id;
+			this.configuration_fingerprint = configuration_fingerprint;
+			this.upstream_signature = upstream_signature;
+			
+			int hash = location.hashCode();
+			hash = 31 * hash + Arrays.hashCode( bounded_flow_ids );
+			hash = 31 * hash + flow_of_interest_id;
+			hash = 31 * hash + configuration_fingerprint;
+			this.hash = 31 * hash + Arrays.hashCode( upstream_signature );
 		}
 		
-		if ( return_null ) {
-			return null;
+		/**
+		 * @param upstream_signature The server-local settings of the upstream servers,
+		 * multiplexing and the use of the maximum service curve and its rate, one byte per server.
+		 * @return The key, <code>null</code> if the bounded flows contain dummy flows.
+		 * Dummy flows share a single id and can thus not be distinguished.
+		 */
+		static CacheKey create( AnalysisConfig configuration, Object location, Set<Flow> bounded_flows, Flow flow_of_interest,
+				byte[] upstream_signature ) {
+			int[] bounded_flow_ids = new int[bounded_flows.size()];
+			int i = 0;
+			for( Flow flow : bounded_flows ) {
+				if( flow.getId() < 0 ) {
+					return null;
+				}
+				bounded_flow_ids[i++] = flow.getId();
+			}
+			Arrays.sort( bounded_flow_ids );
+			return new CacheKey( location, bounded_flow_ids, flow_of_interest.getId(), fingerprint( configuration ), upstream_signature );
 		}
-
-		Set<CacheEntryTurn> candidates = new HashSet<CacheEntryTurn>( entries_l );
-
-		for ( CacheEntryTurn entry : candidates ) {
-			if( entry.configuration.enforceMultiplexing() == configuration.enforceMultiplexing()
-				&& entry.configuration.enforceMaxSC() == configuration.enforceMaxSC()
-				&& entry.configuration.enforceMaxScOutputRate() == configuration.enforceMaxScOutputRate()
-				&& entry.bounded_flows.size() == bounded_flows.size()
-				&& entry.flow_of_interest.getId() == flow_of_interest.getId()
-				&& entry.bounded_flows.containsAll( bounded_flows ) // should be the most expensive operation so do it last 
-			) {
-				return entry;
+		
+		/**
+		 * @return The multiplexing and maximum service curve enforcements, two bits each,
+		 * followed by the pruning of alternative arrival bounds and their maximum number.
+		 * Maximum numbers beyond 2^24 are not distinguished.
+		 */
+		static int fingerprint( AnalysisConfig configuration ) {
+			return configuration.enforceMultiplexing().ordinal()
+					| configuration.enforceMaxSC().ordinal() << 2
+					| configuration.enforceMaxScOutputRate().ordinal() << 4
+					| ( configuration.pruneDominatedArrivalBounds() ? 1 : 0 ) << 6
+					| Math.min( configuration.maxAlternativeArrivalBounds(), ( 1 << 24 ) - 1 ) << 7;
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals( Object obj ) {
+			if ( this == obj ) {
+				return true;
 			}
+			if ( !(obj instanceof CacheKey) ) {
+				return false;
+			}
+			CacheKey other = (CacheKey) obj;
+			return hash == other.hash
+					&& flow_of_interest_id == other.flow_of_interest_id
+					&& configuration_fingerprint == other.configuration_fingerprint
+					&& location.equals( other.location )
+					&& Arrays.equals( bounded_flow_ids, other.bounded_flow_ids )
+					&& Arrays.equals( upstream_signature, other.upstream_signature );
 		}
-		return null;
 	}
 	
 	// Cache entry types
@@ -238,16 +979,50 @@ public class ArrivalBoundCache {
 		protected AnalysisConfig configuration;
 		protected Set<Flow> bounded_flows;
 		protected Flow flow_of_interest;
-		protected Set<ArrivalCurve> arrival_bounds;
+		protected volatile Set<ArrivalCurve> arrival_bounds;
+		protected final CompletableFuture<Set<ArrivalCurve>> result = new CompletableFuture<Set<ArrivalCurve>>();
+		
+		// Number of segments of the arrival bounds, set once they are available.
+		protected long weight = 0;
+		protected volatile long last_access = System.nanoTime();
 		
 		protected CacheEntry( AnalysisConfig configuration,
 							  Set<Flow> bounded_flows,
-							  Flow flow_of_interest,
-							  Set<ArrivalCurve> arrival_bounds ) {
+							  Flow flow_of_interest ) {
 			this.configuration = configuration;
 			this.bounded_flows = bounded_flows;
 			this.flow_of_interest = flow_of_interest;
+		}
+		
+		protected void complete( Set<ArrivalCurve> arrival_bounds ) {
+			long weight = 0;
+			for ( ArrivalCurve arrival_bound : arrival_bounds ) {
+				weight += arrival_bound.getSegmentCount();
+			}
+			this.weight = weight;
 			this.arrival_bounds = arrival_bounds;
+			result.complete( arrival_bounds );
+		}
+		
+		protected void touch() {
+			last_access = System.nanoTime();
+		}
+		
+		protected long getRetainedSizeEstimate() {
+			return ESTIMATED_BYTES_PER_ENTRY
+					+ ESTIMATED_BYTES_PER_BOUNDED_FLOW * bounded_flows.size()
+					+ ESTIMATED_BYTES_PER_SEGMENT * weight;
+		}
+		
+		protected Set<ArrivalCurve> await() throws Exception {
+			try {
+				return result.join();
+			} catch( CompletionException e ) {
+				if( e.getCause() instanceof Exception ) {
+					throw (Exception) e.getCause();
+				}
+				throw e;
+			}
 		}
 		
 		@Override
@@ -286,9 +1061,8 @@ public class ArrivalBoundCache {
 		protected CacheEntryServer( AnalysisConfig configuration,
 									Server server,
 									Set<Flow> bounded_flows,
-									Flow flow_of_interest,
-									Set<ArrivalCurve> arrival_bounds ) {
-			super( configuration, bounded_flows, flow_of_interest, arrival_bounds );
+									Flow flow_of_interest ) {
+			super( configuration, bounded_flows, flow_of_interest );
 			this.server = server;
 		}
 		
@@ -312,8 +1086,8 @@ public class ArrivalBoundCache {
 	class CacheEntryTurn extends CacheEntry {
 		protected Turn turn;
 		
-		protected CacheEntryTurn( AnalysisConfig configuration, Turn turn, Set<Flow> bounded_flows, Flow flow_of_interest, Set<ArrivalCurve> arrival_bounds ) {
-			super( configuration, bounded_flows, flow_of_interest, arrival_bounds );
+		protected CacheEntryTurn( AnalysisConfig configuration, Turn turn, Set<Flow> bounded_flows, Flow flow_of_interest ) {
+			super( configuration, bounded_flows, flow_of_interest );
 			this.turn = turn;
 		}
 		
@@ -334,4 +1108,4 @@ public class ArrivalBoundCache {
 			return result + superclass;
 		}
 	}
-}
\ No newline at end of file
+}
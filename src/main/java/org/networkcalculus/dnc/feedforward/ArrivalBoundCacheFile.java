@@ -0,0 +1,438 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.feedforward;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.AnalysisConfig.ArrivalBoundMethod;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.Server;
+import org.networkcalculus.dnc.network.server_graph.ServerGraph;
+import org.networkcalculus.dnc.network.server_graph.Turn;
+
+/**
+ * Persistent tier of the {@link ArrivalBoundCache}. Arrival bounds are appended to a file
+ * and read back via a memory mapping of it, such that a later run can start with the
+ * arrival bounds computed by earlier ones.
+ * <p>
+ * Each record is keyed by a fingerprint of everything the arrival bound depends on:
+ * the servers upstream of its location and the turns between them, the flows crossing these servers,
+ * the bounded flows, the flow of interest, the analysis configuration and the calculator's backends.
+ * Once any of these changed, the fingerprint differs and the record is not found anymore.
+ * <p>
+ * Fingerprints use the ids of servers and flows. Thus, records can only be reused
+ * if the server graph is built in the same order.
+ * The file is locked while it is open, it cannot be shared by concurrently running JVMs.
+ */
+public class ArrivalBoundCacheFile implements Closeable {
+	private static final int MAGIC = 0x444E4341; // "DNCA"
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = 8;
+	private static final int RECORD_HEADER_LENGTH = 8; // Payload length and its CRC-32.
+	
+	private final FileChannel channel;
+	private final FileLock lock;
+	
+	// Offsets of the records' payloads per fingerprint.
+	private final ConcurrentMap<String,Long> map__fingerprint__offset = new ConcurrentHashMap<String,Long>();
+	private volatile MappedByteBuffer mapping;
+	private long length;
+	private volatile boolean closed = false;
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong writes = new AtomicLong();
+	
+	private ArrivalBoundCacheFile( FileChannel channel, FileLock lock ) {
+		this.channel = channel;
+		this.lock = lock;
+	}
+	
+	/**
+	 * Opens the file, creates it if it does not exist yet.
+	 * A file written by another version of the format is started over.
+	 * Records that are incomplete due to an aborted run are dropped.
+	 * 
+	 * @param file The file storing the arrival bounds.
+	 * @return The opened file.
+	 * @throws Exception The file cannot be opened or is locked by another process.
+	 */
+	public static ArrivalBoundCacheFile open( Path file ) throws Exception {
+		FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE );
+		FileLock lock;
+		try {
+			lock = channel.tryLock();
+		} catch ( IOException e ) {
+			channel.close();
+			throw e;
+		}
+		if ( lock == null ) {
+			channel.close();
+			throw new Exception( "Arrival bound cache file " + file + " is in use by another process." );
+		}
+		
+		ArrivalBoundCacheFile cache_file = new ArrivalBoundCacheFile( channel, lock );
+		try {
+			cache_file.load();
+		} catch ( IOException e ) {
+			cache_file.close();
+			throw e;
+		}
+		return cache_file;
+	}
+	
+	private void load() throws IOException {
+		long size = channel.size();
+		if ( size < HEADER_LENGTH || readHeader() != VERSION ) {
+			ByteBuffer header = ByteBuffer.allocate( HEADER_LENGTH );
+			header.putInt( MAGIC ).putInt( VERSION ).flip();
+			channel.truncate( 0 );
+			writeFully( header, 0 );
+			length = HEADER_LENGTH;
+			mapping = channel.map( FileChannel.MapMode.READ_ONLY, 0, length );
+			return;
+		}
+		
+		mapping = channel.map( FileChannel.MapMode.READ_ONLY, 0, size );
+		long offset = HEADER_LENGTH;
+		while ( offset + RECORD_HEADER_LENGTH <= size ) {
+			int payload_length = mapping.getInt( (int) offset );
+			int payload_crc = mapping.getInt( (int) offset + 4 );
+			long payload_offset = offset + RECORD_HEADER_LENGTH;
+			if ( payload_length <= 0 || payload_offset + payload_length > size
+					|| crc( mapping, payload_offset, payload_length ) != payload_crc ) {
+				break;
+			}
+			ByteBuffer payload = slice( mapping, payload_offset, payload_length );
+			map__fingerprint__offset.put( readString( payload ), payload_offset );
+			offset = payload_offset + payload_length;
+		}
+		if ( offset < size ) {
+			channel.truncate( offset );
+			mapping = channel.map( FileChannel.MapMode.READ_ONLY, 0, offset );
+		}
+		length = offset;
+	}
+	
+	private int readHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate( HEADER_LENGTH );
+		while ( header.hasRemaining() ) {
+			if ( channel.read( header, header.position() ) < 0 ) {
+				return -1;
+			}
+		}
+		header.flip();
+		if ( header.getInt() != MAGIC ) {
+			return -1;
+		}
+		return header.getInt();
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Reading and writing
+	// --------------------------------------------------------------------------------------------------------------
+	
+	/**
+	 * @param fingerprint The fingerprint created by one of the <code>fingerprint</code> functions.
+	 * @return The stored arrival bounds, <code>null</code> if there are none.
+	 */
+	public Set<ArrivalCurve> read( String fingerprint ) {
+		Long payload_offset = map__fingerprint__offset.get( fingerprint );
+		if ( closed || payload_offset == null ) {
+			misses.incrementAndGet();
+			return null;
+		}
+		
+		try {
+			MappedByteBuffer mapping = getMapping( payload_offset );
+			int payload_length = mapping.getInt( (int) (payload_offset - RECORD_HEADER_LENGTH) );
+			ByteBuffer payload = slice( mapping, payload_offset, payload_length );
+			if ( !readString( payload ).equals( fingerprint ) ) {
+				misses.incrementAndGet();
+				return null;
+			}
+			
+			int arrival_bounds_count = payload.getInt();
+			Set<ArrivalCurve> arrival_bounds = new HashSet<ArrivalCurve>();
+			for ( int i = 0; i < arrival_bounds_count; i++ ) {
+				arrival_bounds.add( Curve.getFactory().createArrivalCurve( readString( payload ) ) );
+			}
+			hits.incrementAndGet();
+			return arrival_bounds;
+		} catch ( Exception e ) {
+			// A record that cannot be parsed, e.g., due to a different curve backend, is treated as missing.
+			misses.incrementAndGet();
+			return null;
+		}
+	}
+	
+	/**
+	 * Appends the arrival bounds to the file unless there is a record for the fingerprint already.
+	 * 
+	 * @param fingerprint The fingerprint created by one of the <code>fingerprint</code> functions.
+	 * @param arrival_bounds The arrival bounds to store.
+	 * @throws IOException Writing to the file failed.
+	 */
+	public synchronized void write( String fingerprint, Set<ArrivalCurve> arrival_bounds ) throws IOException {
+		if ( closed || map__fingerprint__offset.containsKey( fingerprint ) ) {
+			return;
+		}
+		
+		List<byte[]> strings = new ArrayList<byte[]>();
+		strings.add( fingerprint.getBytes( StandardCharsets.UTF_8 ) );
+		for ( ArrivalCurve arrival_bound : arrival_bounds ) {
+			strings.add( arrival_bound.toString().getBytes( StandardCharsets.UTF_8 ) );
+		}
+		int payload_length = 4;
+		for ( byte[] string : strings ) {
+			payload_length += 4 + string.length;
+		}
+		if ( length + RECORD_HEADER_LENGTH + payload_length > Integer.MAX_VALUE ) { // A mapping is limited to 2 GiB.
+			return;
+		}
+		
+		ByteBuffer record = ByteBuffer.allocate( RECORD_HEADER_LENGTH + payload_length );
+		record.putInt( payload_length );
+		record.putInt( 0 ); // CRC-32 is set below.
+		putString( record, strings.get( 0 ) );
+		record.putInt( arrival_bounds.size() );
+		for ( byte[] string : strings.subList( 1, strings.size() ) ) {
+			putString( record, string );
+		}
+		record.putInt( 4, crc( record, RECORD_HEADER_LENGTH, payload_length ) );
+		record.flip();
+		
+		writeFully( record, length );
+		map__fingerprint__offset.put( fingerprint, length + RECORD_HEADER_LENGTH );
+		length += RECORD_HEADER_LENGTH + payload_length;
+		writes.incrementAndGet();
+	}
+	
+	private MappedByteBuffer getMapping( long payload_offset ) throws IOException {
+		MappedByteBuffer mapping = this.mapping;
+		if ( payload_offset < mapping.capacity() ) {
+			return mapping;
+		}
+		synchronized ( this ) {
+			// Records written after the file was mapped are not covered by the mapping yet.
+			if ( payload_offset >= this.mapping.capacity() ) {
+				this.mapping = channel.map( FileChannel.MapMode.READ_ONLY, 0, length );
+			}
+			return this.mapping;
+		}
+	}
+	
+	private void writeFully( ByteBuffer buffer, long offset ) throws IOException {
+		while ( buffer.hasRemaining() ) {
+			offset += channel.write( buffer, offset );
+		}
+	}
+	
+	private static ByteBuffer slice( ByteBuffer buffer, long offset, int length ) {
+		ByteBuffer slice = buffer.duplicate();
+		slice.limit( (int) offset + length );
+		slice.position( (int) offset );
+		return slice.slice();
+	}
+	
+	private static int crc( ByteBuffer buffer, long offset, int length ) {
+		CRC32 crc = new CRC32();
+		crc.update( slice( buffer, offset, length ) );
+		return (int) crc.getValue();
+	}
+	
+	private static void putString( ByteBuffer buffer, byte[] string ) {
+		buffer.putInt( string.length );
+		buffer.put( string );
+	}
+	
+	private static String readString( ByteBuffer buffer ) {
+		byte[] string = new byte[buffer.getInt()];
+		buffer.get( string );
+		return new String( string, StandardCharsets.UTF_8 );
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Fingerprints
+	// --------------------------------------------------------------------------------------------------------------
+	
+	/**
+	 * The fingerprint of the arrival bound of <code>bounded_flows</code> at <code>server</code>.
+	 * It covers all servers upstream of <code>server</code>, but not <code>server</code> itself.
+	 */
+	public static String fingerprint( ServerGraph server_graph, AnalysisConfig configuration, Server server,
+			Set<Flow> bounded_flows, Flow flow_of_interest ) throws Exception {
+		Set<Server> upstream_servers = ArrivalBoundCache.getUpstreamServers( server_graph, server );
+		return fingerprint( server_graph, configuration, "S" + server.getId(), server, upstream_servers, bounded_flows, flow_of_interest );
+	}
+	
+	/**
+	 * The fingerprint of the arrival bound of <code>bounded_flows</code> at <code>turn</code>.
+	 * It covers the turn's source and all servers upstream of it.
+	 */
+	public static String fingerprint( ServerGraph server_graph, AnalysisConfig configuration, Turn turn,
+			Set<Flow> bounded_flows, Flow flow_of_interest ) throws Exception {
+		Set<Server> upstream_servers = ArrivalBoundCache.getUpstreamServers( server_graph, turn );
+		return fingerprint( server_graph, configuration, "T" + turn.getSource().getId() + ">" + turn.getDest().getId(), turn.getDest(),
+				upstream_servers, bounded_flows, flow_of_interest );
+	}
+	
+	private static String fingerprint( ServerGraph server_graph, AnalysisConfig configuration, String location, Server location_server,
+			Set<Server> upstream_servers, Set<Flow> bounded_flows, Flow flow_of_interest ) throws Exception {
+		StringBuilder description = new StringBuilder();
+		description.append( VERSION ).append( '|' )
+				.append( Calculator.getInstance().getNumBackend() ).append( '|' )
+				.append( Calculator.getInstance().getDncBackend() ).append( '\n' );
+		
+		// Configuration
+		description.append( configuration.enforceMultiplexing() ).append( '|' )
+				.append( configuration.enforceMaxSC() ).append( '|' )
+				.append( configuration.enforceMaxScOutputRate() ).append( '|' )
+				.append( new TreeSet<ArrivalBoundMethod>( configuration.arrivalBoundMethods() ) ).append( '|' )
+				.append( configuration.convolveAlternativeArrivalBounds() ).append( '|' )
+				.append( configuration.serverBacklogArrivalBound() ).append( '|' )
+				.append( configuration.pruneDominatedArrivalBounds() ).append( '|' )
+				.append( configuration.maxAlternativeArrivalBounds() ).append( '|' )
+				.append( configuration.useFlowProlongation() ).append( '\n' );
+		
+		// Location
+		description.append( location ).append( '|' ).append( flow_of_interest.getId() ).append( '|' );
+		List<Flow> bounded_flows_sorted = new ArrayList<Flow>( bounded_flows );
+		bounded_flows_sorted.sort( Comparator.comparingInt( Flow::getId ) );
+		for ( Flow flow : bounded_flows_sorted ) {
+			description.append( flow.getId() ).append( ',' );
+		}
+		description.append( '\n' );
+		
+		// Upstream servers and turns
+		List<Server> upstream_servers_sorted = new ArrayList<Server>( upstream_servers );
+		upstream_servers_sorted.sort( Comparator.comparingInt( Server::getId ) );
+		Set<Flow> flows = new HashSet<Flow>( bounded_flows );
+		for ( Server server : upstream_servers_sorted ) {
+			description.append( server.getId() ).append( '|' )
+					.append( server.multiplexing() ).append( '|' )
+					.append( server.useMaxSC() ).append( '|' )
+					.append( server.useMaxScRate() ).append( '|' )
+					.append( server.getServiceCurve() ).append( '|' )
+					.append( server.getStoredMaxSC() ).append( '|' );
+			List<Integer> successor_ids = new ArrayList<Integer>();
+			for ( Server successor : server_graph.getSuccessors( server ) ) {
+				if ( upstream_servers.contains( successor ) || successor.equals( location_server ) ) {
+					successor_ids.add( successor.getId() );
+				}
+			}
+			Collections.sort( successor_ids );
+			description.append( successor_ids ).append( '\n' );
+			
+			flows.addAll( server_graph.getFlows( server ) );
+		}
+		
+		// Flows crossing the upstream servers, their paths are only relevant up to the location.
+		// Prolonged flows are analyzed up to their sinks.
+		List<Flow> flows_sorted = new ArrayList<Flow>( flows );
+		flows_sorted.sort( Comparator.comparingInt( Flow::getId ) );
+		for ( Flow flow : flows_sorted ) {
+			description.append( flow.getId() ).append( '|' ).append( flow.getArrivalCurve() ).append( '|' );
+			for ( Server server : flow.getServersOnPath() ) {
+				if ( configuration.useFlowProlongation()
+						|| upstream_servers.contains( server ) || server.equals( location_server ) ) {
+					description.append( server.getId() ).append( ',' );
+				}
+			}
+			description.append( '\n' );
+		}
+		
+		byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest( description.toString().getBytes( StandardCharsets.UTF_8 ) );
+		StringBuilder fingerprint = new StringBuilder( 2 * digest.length );
+		for ( byte b : digest ) {
+			fingerprint.append( Character.forDigit( (b >> 4) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+		}
+		return fingerprint.toString();
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Statistics
+	// --------------------------------------------------------------------------------------------------------------
+	
+	public int getRecordCount() {
+		return map__fingerprint__offset.size();
+	}
+	
+	public long getHitCount() {
+		return hits.get();
+	}
+	
+	public long getMissCount() {
+		return misses.get();
+	}
+	
+	public long getWriteCount() {
+		return writes.get();
+	}
+	
+	@Override
+	public synchronized void close() throws IOException {
+		if ( closed ) {
+			return;
+		}
+		closed = true;
+		try {
+			channel.force( false );
+			lock.release();
+		} finally {
+			channel.close();
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "ArrivalBoundCacheFile(records " + getRecordCount() + ", hits " + getHitCount()
+				+ ", misses " + getMissCount() + ", writes " + getWriteCount() + ")";
+	}
+}
@@ -27,12 +27,16 @@
 package org.networkcalculus.dnc.feedforward;
 
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.CalculationContext;
 import org.networkcalculus.dnc.Calculator;
 import org.networkcalculus.dnc.AnalysisConfig.ArrivalBoundMethod;
-import org.networkcalculus.dnc.AnalysisConfig.MultiplexingEnforcement;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.Curve_ConstantPool;
@@ -42,6 +46,8 @@ import org.networkcalculus.dnc.feedforward.arrivalbounds.AggregatePboo_PerServer
 import org.networkcalculus.dnc.feedforward.arrivalbounds.AggregatePmoo;
 import org.networkcalculus.dnc.feedforward.arrivalbounds.AggregateTandemMatching;
 import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.IndexedServerGraph;
+import org.networkcalculus.dnc.network.server_graph.Path;
 import org.networkcalculus.dnc.network.server_graph.Server;
 import org.networkcalculus.dnc.network.server_graph.ServerGraph;
 import org.networkcalculus.dnc.network.server_graph.Turn;
@@ -54,27 +60,191 @@ public abstract class ArrivalBoundDispatch {
 	// --------------------------------------------------------------------------------------------------------------
 	// Arrival Bound Cache
 	// --------------------------------------------------------------------------------------------------------------
-	protected static Map<Set<ArrivalBoundMethod>,ArrivalBoundCache> ab_caches = new HashMap<Set<ArrivalBoundMethod>,ArrivalBoundCache>();
+	protected static Map<Set<ArrivalBoundMethod>,ArrivalBoundCache> ab_caches = new ConcurrentHashMap<Set<ArrivalBoundMethod>,ArrivalBoundCache>();
+	private static volatile long ab_cache_capacity = Long.MAX_VALUE;
+	private static volatile ArrivalBoundCacheFile ab_cache_file = null;
 	
 	private static ArrivalBoundCache getCache( Set<ArrivalBoundMethod> ab_methods ) {
-		for ( Entry<Set<ArrivalBoundMethod>,ArrivalBoundCache> cache_entry : ab_caches.entrySet() ) {
-			if( cache_entry.getKey().size() == ab_methods.size()
-					&& cache_entry.getKey().containsAll( ab_methods ) ) {
-				return cache_entry.getValue();
+		// Sets are equal if they contain the same ab_methods.
+		// If there is no cache for them yet, one is created and added to the map.
+		return ab_caches.computeIfAbsent( ab_methods, methods -> {
+			ArrivalBoundCache ab_cache = new ArrivalBoundCache( ab_cache_capacity );
+			ab_cache.setCacheFile( ab_cache_file );
+			return ab_cache;
+		} );
+	}
+	
+	public static void clearAllCaches() {
+		ab_caches.clear();
+	}
+	
+	/**
+	 * Removes the cached data that depends on the given servers instead of clearing all caches.
+	 * <p>
+	 * An arrival bound depends on the servers upstream of its location, the turns between them
+	 * and the flows crossing them. After adding or removing a flow, the servers on its path changed,
+	 * after setting a server's curves or multiplexing, the server itself. The arrival bounds at
+	 * these servers and all servers downstream of them, at the turns leaving these servers and
+	 * the left-over service curves of path prefixes crossing them are removed. All other entries stay valid.
+	 * <p>
+	 * The servers downstream are found in the server graph as it is. Servers and turns must thus be
+	 * invalidated before they are removed. The server graph must not be analyzed meanwhile.
+	 * 
+	 * @param server_graph The server graph that changed.
+	 * @param changed_servers The servers that changed or that flows were added to or removed from.
+	 * @return The given servers and all servers downstream of them.
+	 * Bounds of flows crossing none of them remain the same.
+	 */
+	public static Set<Server> invalidate( ServerGraph server_graph, Collection<Server> changed_servers ) {
+		Set<Server> servers = server_graph.getServers();
+		Set<Server> affected_servers = new HashSet<Server>();
+		LinkedList<Server> servers_to_visit = new LinkedList<Server>( changed_servers );
+		while( !servers_to_visit.isEmpty() ) {
+			Server server = servers_to_visit.removeFirst();
+			// Servers removed already have no successors anymore.
+			if( affected_servers.add( server ) && servers.contains( server ) ) {
+				servers_to_visit.addAll( server_graph.getSuccessors( server ) );
 			}
 		}
 		
-		// Reaching this code here means that there is
-		// no cache for this set of ab_methods in the set of caches yet.
-		// So we create one, add it to the map and return it.
-		ArrivalBoundCache new_ab_cache = new ArrivalBoundCache();
-		ab_caches.put( ab_methods, new_ab_cache );
+		for ( ArrivalBoundCache ab_cache : ab_caches.values() ) {
+			ab_cache.invalidate( affected_servers );
+		}
+		return affected_servers;
+	}
+	
+	/**
+	 * Limits the size of each arrival bound cache, existing ones and the ones created later on.
+	 * 
+	 * @param capacity The maximum number of segments of the curves stored per cache, <code>Long.MAX_VALUE</code> for unbounded caches.
+	 */
+	public static void setCacheCapacity( long capacity ) {
+		ab_cache_capacity = capacity;
+		for ( ArrivalBoundCache ab_cache : ab_caches.values() ) {
+			ab_cache.setCapacity( capacity );
+		}
+	}
+	
+	public static long getCacheCapacity() {
+		return ab_cache_capacity;
+	}
+	
+	/**
+	 * Attaches a persistent tier to each arrival bound cache, existing ones and the ones created later on.
+	 * A single file serves all sets of arrival bound methods, they are part of the records' fingerprints.
+	 * The caller remains responsible for closing the file.
+	 * 
+	 * @param cache_file The file to read and store arrival bounds, <code>null</code> to detach it.
+	 */
+	public static void setCacheFile( ArrivalBoundCacheFile cache_file ) {
+		ab_cache_file = cache_file;
+		for ( ArrivalBoundCache ab_cache : ab_caches.values() ) {
+			ab_cache.setCacheFile( cache_file );
+		}
+	}
+	
+	public static ArrivalBoundCacheFile getCacheFile() {
+		return ab_cache_file;
+	}
+	
+	/**
+	 * @return The arrival bound caches per set of arrival bound methods, e.g., to query their statistics.
+	 */
+	public static Map<Set<ArrivalBoundMethod>,ArrivalBoundCache> getCaches() {
+		return Collections.unmodifiableMap( ab_caches );
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Parallel Arrival Bounding
+	// --------------------------------------------------------------------------------------------------------------
+	private static volatile ForkJoinPool ab_pool = null;
+	
+	/**
+	 * Enables bounding the arrivals of a server's in-turns in parallel.
+	 * The in-turns' arrival bounds are computed as tasks of <code>pool</code>,
+	 * their permutations are added up afterwards in the order of the sequential computation.
+	 * The pool can be the one an {@link org.networkcalculus.dnc.tandem.AllFlowsAnalysis} runs in.
+	 * 
+	 * @param pool The pool to compute arrival bounds in, <code>null</code> to compute them sequentially (default).
+	 */
+	public static void setForkJoinPool( ForkJoinPool pool ) {
+		ab_pool = pool;
+	}
+	
+	public static ForkJoinPool getForkJoinPool() {
+		return ab_pool;
+	}
+	
+	@SuppressWarnings("serial")
+	private static class InTurnArrivalBound extends RecursiveTask<Set<ArrivalCurve>> {
+		private final ServerGraph server_graph;
+		private final AnalysisConfig configuration;
+		private final Turn in_turn;
+		private final Set<Flow> flows_to_bound;
+		private final Flow flow_of_interest;
+		private final CalculationContext context;
+		private Exception exception;
+		
+		private InTurnArrivalBound( ServerGraph server_graph, AnalysisConfig configuration, Turn in_turn,
+				Set<Flow> flows_to_bound, Flow flow_of_interest, CalculationContext context ) {
+			this.server_graph = server_graph;
+			this.configuration = configuration;
+			this.in_turn = in_turn;
+			this.flows_to_bound = flows_to_bound;
+			this.flow_of_interest = flow_of_interest;
+			this.context = context;
+		}
+		
+		@Override
+		protected Set<ArrivalCurve> compute() {
+			try {
+				if ( context == null ) {
+					return computeArrivalBounds( server_graph, configuration, in_turn, flows_to_bound, flow_of_interest );
+				}
+				// Workers use the calculation settings of the thread that forked the task.
+				return context.call( () -> computeArrivalBounds( server_graph, configuration, in_turn, flows_to_bound, flow_of_interest ) );
+			} catch ( Exception e ) {
+				exception = e;
+				return null;
+			}
+		}
 		
-		return new_ab_cache;
+		/**
+		 * @return The arrival bounds of the completed task.
+		 * @throws Exception The exception raised while computing them.
+		 */
+		private Set<ArrivalCurve> getArrivalBounds() throws Exception {
+			if ( exception != null ) {
+				throw exception;
+			}
+			return getRawResult();
+		}
 	}
 	
-	public static void clearAllCaches() {
-		ab_caches.clear();
+	/**
+	 * @return The completed tasks in the order of <code>in_turns</code>.
+	 * Exceptions are raised once the arrival bounds are taken from a task,
+	 * such that they are only raised where the sequential computation raises them, too.
+	 */
+	private static List<InTurnArrivalBound> computeInTurnArrivalBoundsParallel( ForkJoinPool pool, ServerGraph server_graph,
+			AnalysisConfig configuration, List<Turn> in_turns, List<Set<Flow>> flows_to_bound_per_turn, Flow flow_of_interest ) {
+		CalculationContext context = CalculationContext.current();
+		List<InTurnArrivalBound> tasks = new ArrayList<InTurnArrivalBound>( in_turns.size() );
+		for ( int i = 0; i < in_turns.size(); i++ ) {
+			tasks.add( new InTurnArrivalBound( server_graph, configuration, in_turns.get( i ), flows_to_bound_per_turn.get( i ), flow_of_interest, context ) );
+		}
+		
+		if ( ForkJoinTask.getPool() == pool ) {
+			ForkJoinTask.invokeAll( tasks );
+		} else {
+			pool.invoke( new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll( tasks );
+				}
+			} );
+		}
+		return tasks;
 	}
 	
 	// --------------------------------------------------------------------------------------------------------------
@@ -115,33 +285,62 @@ public abstract class ArrivalBoundDispatch {
 			return arrival_bounds;
 		}
 
-		Set<Flow> f_server = server_graph.getFlows(server);
-		Set<Flow> f_xfcaller_server = SetUtils.getIntersection(f_server, flows_to_bound);
-		if (f_xfcaller_server.isEmpty()) {
-			return arrival_bounds;
+		Set<Flow> f_xfcaller_server;
+		IndexedServerGraph index = server_graph.getIndex();
+		if (index != null) {
+			long[] f_xfcaller_server_bits = IndexedServerGraph.and(index.getFlowBits(server), index.toFlowBits(flows_to_bound));
+			if (IndexedServerGraph.isEmpty(f_xfcaller_server_bits)) {
+				return arrival_bounds;
+			}
+			f_xfcaller_server = index.toFlows(f_xfcaller_server_bits);
+		} else {
+			Set<Flow> f_server = server_graph.getFlows(server);
+			f_xfcaller_server = SetUtils.getIntersection(f_server, flows_to_bound);
+			if (f_xfcaller_server.isEmpty()) {
+				return arrival_bounds;
+			}
 		}
 		
-		if( configuration.useArrivalBoundsCache() 
-				&& configuration.enforceMultiplexing() != MultiplexingEnforcement.SERVER_LOCAL ) { // Do not cache in that case. Too many variables, the cache does not check all of them.
-			ArrivalBoundCache.CacheEntryServer entry = getCache( configuration.arrivalBoundMethods() ).getCacheEntry( configuration, server, flows_to_bound, flow_of_interest );
-			if( entry != null && !entry.arrival_bounds.isEmpty()
-					&& !(entry.arrival_bounds.size() > 1 && configuration.convolveAlternativeArrivalBounds()) // Inconsistency between current cache content and current setting.
-					) {
-				// Be cautious here! By using the original cache entry instead of the getArrivalBounds function, we need to repack the result in a new set manually!
-				return new HashSet<ArrivalCurve>( entry.arrival_bounds );
-			}
+		if( configuration.useArrivalBoundsCache() ) {
+			return getCache( configuration.arrivalBoundMethods() ).computeArrivalBounds( server_graph, configuration, server, flows_to_bound, flow_of_interest,
+					() -> computeArrivalBoundsUncached( server_graph, configuration, server, f_xfcaller_server, flow_of_interest ) );
 		}
+		return computeArrivalBoundsUncached( server_graph, configuration, server, f_xfcaller_server, flow_of_interest );
+	}
+
+	private static Set<ArrivalCurve> computeArrivalBoundsUncached(ServerGraph server_graph, AnalysisConfig configuration, Server server,
+																	Set<Flow> f_xfcaller_server, Flow flow_of_interest) throws Exception {
+		Set<ArrivalCurve> arrival_bounds = new HashSet<ArrivalCurve>(
+				Collections.singleton(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get()));
+
+		// With an indexed view of the server graph, the flows are intersected as bitsets
+		// and only collected into sets if they need to be bounded.
+		IndexedServerGraph index = server_graph.getIndex();
+		long[] f_xfcaller_server_bits = index == null ? null : index.without(index.toFlowBits(f_xfcaller_server), flow_of_interest);
 
 		// Get cross-traffic originating in server
-		Set<Flow> f_xfcaller_sourceflows_server = SetUtils.getIntersection(f_xfcaller_server,
-				server_graph.getSourceFlows(server));
-		if( !f_xfcaller_sourceflows_server.isEmpty() ) {
-			f_xfcaller_sourceflows_server.remove(flow_of_interest);
-			ArrivalCurve alpha_xfcaller_sourceflows_server = server_graph.getSourceFlowArrivalCurve(server,f_xfcaller_sourceflows_server); // Will at least be a zeroArrivalCurve
-			arrival_bounds = new HashSet<ArrivalCurve>(Collections.singleton(alpha_xfcaller_sourceflows_server));
-
-			if (f_xfcaller_sourceflows_server.containsAll(f_xfcaller_server)) {
-				return arrival_bounds;
+		if (index != null) {
+			long[] f_xfcaller_sourceflows_server_bits = IndexedServerGraph.and(f_xfcaller_server_bits, index.getSourceFlowBits(server));
+			if (!IndexedServerGraph.isEmpty(f_xfcaller_sourceflows_server_bits)) {
+				arrival_bounds = new HashSet<ArrivalCurve>(Collections.singleton(
+						server_graph.getSourceFlowArrivalCurve(server, index.toFlows(f_xfcaller_sourceflows_server_bits))));
+
+				if (IndexedServerGraph.containsAll(f_xfcaller_sourceflows_server_bits, f_xfcaller_server_bits)
+						&& !f_xfcaller_server.contains(flow_of_interest)) {
+					return arrival_bounds;
+				}
+			}
+		} else {
+			Set<Flow> f_xfcaller_sourceflows_server = SetUtils.getIntersection(f_xfcaller_server,
+					server_graph.getSourceFlows(server));
+			if( !f_xfcaller_sourceflows_server.isEmpty() ) {
+				f_xfcaller_sourceflows_server.remove(flow_of_interest);
+				ArrivalCurve alpha_xfcaller_sourceflows_server = server_graph.getSourceFlowArrivalCurve(server,f_xfcaller_sourceflows_server); // Will at least be a zeroArrivalCurve
+				arrival_bounds = new HashSet<ArrivalCurve>(Collections.singleton(alpha_xfcaller_sourceflows_server));
+
+				if (f_xfcaller_sourceflows_server.containsAll(f_xfcaller_server)) {
+					return arrival_bounds;
+				}
 			}
 		}
 
@@ -150,19 +349,47 @@ public abstract class ArrivalBoundDispatch {
 		Set<ArrivalCurve> arrival_bounds_turn;
 		Set<ArrivalCurve> arrival_bounds_turn_permutations = new HashSet<ArrivalCurve>();
 
+		List<Turn> in_turns = new ArrayList<Turn>();
+		List<Set<Flow>> f_xfcaller_per_in_turn = new ArrayList<Set<Flow>>();
 		Iterator<Turn> in_turn_iter = server_graph.getInTurns(server).iterator();
 		while (in_turn_iter.hasNext()) {
 
 			Turn in_l = in_turn_iter.next();
-			Set<Flow> f_xfcaller_in_l = SetUtils.getIntersection(server_graph.getFlows(in_l), f_xfcaller_server);
-			f_xfcaller_in_l.remove(flow_of_interest);
+			Set<Flow> f_xfcaller_in_l;
+			if (index != null) {
+				long[] f_xfcaller_in_l_bits = IndexedServerGraph.and(index.getFlowBits(in_l), f_xfcaller_server_bits);
+				if (IndexedServerGraph.isEmpty(f_xfcaller_in_l_bits)) { // Do not check turns without flows of interest
+					continue;
+				}
+				f_xfcaller_in_l = index.toFlows(f_xfcaller_in_l_bits);
+			} else {
+				f_xfcaller_in_l = SetUtils.getIntersection(server_graph.getFlows(in_l), f_xfcaller_server);
+				f_xfcaller_in_l.remove(flow_of_interest);
 
-			if (f_xfcaller_in_l.isEmpty()) { // Do not check turns without flows of interest
-				continue;
+				if (f_xfcaller_in_l.isEmpty()) { // Do not check turns without flows of interest
+					continue;
+				}
 			}
+			in_turns.add(in_l);
+			f_xfcaller_per_in_turn.add(f_xfcaller_in_l);
+		}
 
+		// Computed in advance if there is a pool to do so in parallel, otherwise one after another.
+		// The sequential computation stops at the first in-turn with an infinite arrival bound.
+		ForkJoinPool pool = ab_pool;
+		List<InTurnArrivalBound> arrival_bounds_per_in_turn = null;
+		if (pool != null && in_turns.size() > 1) {
+			arrival_bounds_per_in_turn = computeInTurnArrivalBoundsParallel(pool, server_graph, configuration,
+					in_turns, f_xfcaller_per_in_turn, flow_of_interest);
+		}
+
+		for (int i = 0; i < in_turns.size(); i++) {
 
-			arrival_bounds_turn = computeArrivalBounds(server_graph, configuration, in_l, f_xfcaller_in_l, flow_of_interest);
+			if (arrival_bounds_per_in_turn != null) {
+				arrival_bounds_turn = arrival_bounds_per_in_turn.get(i).getArrivalBounds();
+			} else {
+				arrival_bounds_turn = computeArrivalBounds(server_graph, configuration, in_turns.get(i), f_xfcaller_per_in_turn.get(i), flow_of_interest);
+			}
 
 			// Add the new bounds to the others:
 			// * Consider all the permutations of different bounds per in turn.
@@ -187,20 +414,13 @@ public abstract class ArrivalBoundDispatch {
 			}
 
 			arrival_bounds.clear();
-			arrival_bounds.addAll(arrival_bounds_turn_permutations);
+			arrival_bounds.addAll(ArrivalBoundPruning.prune(configuration, arrival_bounds_turn_permutations));
 			arrival_bounds_turn_permutations.clear();
 		}
 
 		if( configuration.convolveAlternativeArrivalBounds() ) {
 			arrival_bounds = new HashSet<ArrivalCurve>( Collections.singleton( Calculator.getInstance().getMinPlus().convolve( arrival_bounds ) ) );
 		} 
-		
-		if( configuration.useArrivalBoundsCache() 
-				&& configuration.enforceMultiplexing() != MultiplexingEnforcement.SERVER_LOCAL ) { // Do not cache in that case. Too many variables, the cache does not check all of them.
-			
-			// As we checked for an existing cache entry at the beginning (and returned it of present), we do not hav to care about the potential overwriting of a cache entry here. 
-			getCache( configuration.arrivalBoundMethods() ).addArrivalBounds( configuration, server, flows_to_bound, flow_of_interest, arrival_bounds );
-		}
 
 		return new HashSet<ArrivalCurve>( arrival_bounds );
 	}
@@ -212,16 +432,15 @@ public abstract class ArrivalBoundDispatch {
 			return new HashSet<ArrivalCurve>(Collections.singleton(Curve_ConstantPool.ZERO_ARRIVAL_CURVE.get()));
 		}
 		
-		if( configuration.useArrivalBoundsCache() && configuration.enforceMultiplexing() != MultiplexingEnforcement.SERVER_LOCAL ) { // Do not cache in that case. Too many variables.
-			ArrivalBoundCache.CacheEntryTurn entry = getCache( configuration.arrivalBoundMethods() ).getCacheEntry( configuration, turn, flows_to_bound, flow_of_interest );
-			if( entry != null && !entry.arrival_bounds.isEmpty()
-					&& !(entry.arrival_bounds.size() > 1 && configuration.convolveAlternativeArrivalBounds()) // Inconsistency between current cache content and current setting.
-					) {
-				// Be cautious here! By using the original cache entry instead of the getArrivalBounds function, we need to repack the result in a new set manually!
-				return new HashSet<ArrivalCurve>( entry.arrival_bounds );
-			}
+		if( configuration.useArrivalBoundsCache() ) {
+			return getCache( configuration.arrivalBoundMethods() ).computeArrivalBounds( server_graph, configuration, turn, flows_to_bound, flow_of_interest,
+					() -> computeArrivalBoundsUncached( server_graph, configuration, turn, flows_to_bound, flow_of_interest ) );
 		}
+		return computeArrivalBoundsUncached( server_graph, configuration, turn, flows_to_bound, flow_of_interest );
+	}
 
+	private static Set<ArrivalCurve> computeArrivalBoundsUncached(ServerGraph server_graph, AnalysisConfig configuration, Turn turn,
+			Set<Flow> flows_to_bound, Flow flow_of_interest) throws Exception {
 		Set<ArrivalCurve> arrival_bounds_xfcaller = new HashSet<ArrivalCurve>();
 		
 		for (AnalysisConfig.ArrivalBoundMethod arrival_bound_method : configuration.arrivalBoundMethods()) {
@@ -229,23 +448,17 @@ public abstract class ArrivalBoundDispatch {
 
 			switch (arrival_bound_method) {
 			case AGGR_PBOO_PER_SERVER:
-				AggregatePboo_PerServer aggr_pboo_per_server = AggregatePboo_PerServer.getInstance();
-				aggr_pboo_per_server.setServerGraph(server_graph);
-				aggr_pboo_per_server.setConfiguration(configuration);
+				AggregatePboo_PerServer aggr_pboo_per_server = new AggregatePboo_PerServer(server_graph, configuration);
 				arrival_bounds_tmp = aggr_pboo_per_server.computeArrivalBound(turn, flows_to_bound, flow_of_interest);
 				break;
 
 			case AGGR_PBOO_CONCATENATION:
-				AggregatePboo_Concatenation aggr_pboo_concatenation = AggregatePboo_Concatenation.getInstance();
-				aggr_pboo_concatenation.setServerGraph(server_graph);
-				aggr_pboo_concatenation.setConfiguration(configuration);
+				AggregatePboo_Concatenation aggr_pboo_concatenation = new AggregatePboo_Concatenation(server_graph, configuration);
 				arrival_bounds_tmp = aggr_pboo_concatenation.computeArrivalBound(turn, flows_to_bound, flow_of_interest);
 				break;
 
 			case AGGR_PMOO:
-				AggregatePmoo aggr_pmoo = AggregatePmoo.getInstance();
-				aggr_pmoo.setServerGraph(server_graph);
-				aggr_pmoo.setConfiguration(configuration);
+				AggregatePmoo aggr_pmoo = new AggregatePmoo(server_graph, configuration);
 				arrival_bounds_tmp = aggr_pmoo.computeArrivalBound(turn, flows_to_bound, flow_of_interest);
 				break;
 
@@ -255,20 +468,16 @@ public abstract class ArrivalBoundDispatch {
 			 */
 				
 			case AGGR_TM:
-				AggregateTandemMatching aggr_tm = AggregateTandemMatching.getInstance();
-				aggr_tm.setServerGraph(server_graph);
-				aggr_tm.setConfiguration(configuration);
+				AggregateTandemMatching aggr_tm = new AggregateTandemMatching(server_graph, configuration);
 				arrival_bounds_tmp = aggr_tm.computeArrivalBound(turn, flows_to_bound, flow_of_interest);
 				break;
 
 			// This arrival bound is known to be inferior to PMOO and the PBOO_* variants.
 			case SEGR_PBOO:
 				for (Flow flow : flows_to_bound) {
-					SeparateFlowAnalysis sfa = new SeparateFlowAnalysis(server_graph);
-					sfa.performAnalysis(flow, flow.getSubPath(flow.getSource(), turn.getSource()));
-
-					arrival_bounds_tmp = getPermutations(arrival_bounds_tmp,
-							singleFlowABs(configuration, flow.getArrivalCurve(), sfa.getLeftOverServiceCurves()));
+					arrival_bounds_tmp = getPermutations(configuration, arrival_bounds_tmp,
+							singleFlowABs(configuration, flow.getArrivalCurve(),
+									getSegregatedLeftOverServiceCurves(server_graph, configuration, arrival_bound_method, flow, turn)));
 				}
 				break;
 
@@ -281,21 +490,17 @@ public abstract class ArrivalBoundDispatch {
 			 */
 			case SEGR_PMOO:
 				for (Flow flow : flows_to_bound) {
-					PmooAnalysis pmoo = new PmooAnalysis(server_graph);
-					pmoo.performAnalysis(flow, flow.getSubPath(flow.getSource(), turn.getSource()));
-
-					arrival_bounds_tmp = getPermutations(arrival_bounds_tmp,
-							singleFlowABs(configuration, flow.getArrivalCurve(), pmoo.getLeftOverServiceCurves()));
+					arrival_bounds_tmp = getPermutations(configuration, arrival_bounds_tmp,
+							singleFlowABs(configuration, flow.getArrivalCurve(),
+									getSegregatedLeftOverServiceCurves(server_graph, configuration, arrival_bound_method, flow, turn)));
 				}
 				break;
 
 			case SEGR_TM:
 				for (Flow flow : flows_to_bound) {
-					TandemMatchingAnalysis tma = new TandemMatchingAnalysis(server_graph);
-					tma.performAnalysis(flow, flow.getSubPath(flow.getSource(), turn.getSource()));
-
-					arrival_bounds_tmp = getPermutations(arrival_bounds_tmp,
-							singleFlowABs(configuration, flow.getArrivalCurve(), tma.getLeftOverServiceCurves()));
+					arrival_bounds_tmp = getPermutations(configuration, arrival_bounds_tmp,
+							singleFlowABs(configuration, flow.getArrivalCurve(),
+									getSegregatedLeftOverServiceCurves(server_graph, configuration, arrival_bound_method, flow, turn)));
 				}
 				break;
 
@@ -308,19 +513,38 @@ public abstract class ArrivalBoundDispatch {
 
 			arrival_bounds_xfcaller.addAll( arrival_bounds_tmp );
 		}
+		arrival_bounds_xfcaller = ArrivalBoundPruning.prune( configuration, arrival_bounds_xfcaller );
 		
 		if( configuration.convolveAlternativeArrivalBounds() ) {
 			arrival_bounds_xfcaller = new HashSet<ArrivalCurve>( Collections.singleton( Calculator.getInstance().getMinPlus().convolve( arrival_bounds_xfcaller ) ) );
 		}
+		
+		return arrival_bounds_xfcaller;
+	}
 
-		if( configuration.useArrivalBoundsCache() 
-				&& configuration.enforceMultiplexing() != MultiplexingEnforcement.SERVER_LOCAL ) { // Do not cache in that case. Too many variables, the cache does not check all of them.
-			
-			// As we checked for an existing cache entry before the for-loop (and returned it of present), we do not hav to care about the potential overwriting of a cache entry here. 
-			getCache( configuration.arrivalBoundMethods() ).addArrivalBounds( configuration, turn, flows_to_bound, flow_of_interest, arrival_bounds_xfcaller );
+	private static Set<ServiceCurve> getSegregatedLeftOverServiceCurves(ServerGraph server_graph, AnalysisConfig configuration,
+			ArrivalBoundMethod arrival_bound_method, Flow flow, Turn turn) throws Exception {
+		if (configuration.useArrivalBoundsCache()) {
+			return getCache(configuration.arrivalBoundMethods()).getLeftOverServiceCurves(server_graph, arrival_bound_method, flow, turn.getSource());
 		}
 		
-		return arrival_bounds_xfcaller;
+		Path prefix = flow.getSubPath(flow.getSource(), turn.getSource());
+		switch (arrival_bound_method) {
+		case SEGR_PBOO:
+			SeparateFlowAnalysis sfa = new SeparateFlowAnalysis(server_graph);
+			sfa.performAnalysis(flow, prefix);
+			return sfa.getLeftOverServiceCurves();
+		case SEGR_PMOO:
+			PmooAnalysis pmoo = new PmooAnalysis(server_graph);
+			pmoo.performAnalysis(flow, prefix);
+			return pmoo.getLeftOverServiceCurves();
+		case SEGR_TM:
+			TandemMatchingAnalysis tma = new TandemMatchingAnalysis(server_graph);
+			tma.performAnalysis(flow, prefix);
+			return tma.getLeftOverServiceCurves();
+		default:
+			throw new IllegalArgumentException("No segregated arrival bound method: " + arrival_bound_method);
+		}
 	}
 
 	private static Set<ArrivalCurve> singleFlowABs(AnalysisConfig configuration, ArrivalCurve alpha,
@@ -332,10 +556,10 @@ public abstract class ArrivalBoundDispatch {
 			arrival_bounds_f.add(Calculator.getInstance().getMinPlus().deconvolve(alpha, beta_lo));
 		}
 
-		return arrival_bounds_f;
+		return ArrivalBoundPruning.prune(configuration, arrival_bounds_f);
 	}
 
-	private static Set<ArrivalCurve> getPermutations(Set<ArrivalCurve> arrival_curves_1,
+	private static Set<ArrivalCurve> getPermutations(AnalysisConfig configuration, Set<ArrivalCurve> arrival_curves_1,
 			Set<ArrivalCurve> arrival_curves_2) {
 		if (arrival_curves_1.isEmpty()) {
 			return new HashSet<ArrivalCurve>(arrival_curves_2);
@@ -352,6 +576,6 @@ public abstract class ArrivalBoundDispatch {
 			}
 		}
 
-		return arrival_bounds_merged;
+		return ArrivalBoundPruning.prune(configuration, arrival_bounds_merged);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.feedforward;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.CalculationContext;
+import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.Server;
+import org.networkcalculus.dnc.network.server_graph.ServerGraph;
+import org.networkcalculus.dnc.network.server_graph.Turn;
+
+/**
+ * Fills the arrival bound cache with the bounds of all servers and turns of a server graph
+ * before the flows are analyzed.
+ * <p>
+ * The servers are sorted into topological levels, a server's level is the length of the
+ * longest path from a source to it. Level by level, the bounds of each server's in-turns
+ * and of the server itself are computed, all for the entire traffic and without a flow of interest.
+ * Their recursion thus only reaches into bounds of upstream levels that are cached already.
+ * The servers of a level are independent of each other and computed in parallel.
+ * <p>
+ * Afterwards, the corresponding requests of the analyses are cache lookups,
+ * e.g., all server arrival bounds of the {@link org.networkcalculus.dnc.tandem.analyses.TotalFlowAnalysis}.
+ * Requests for a subset of a location's flows or with a flow of interest are computed on demand as before.
+ */
+public final class ArrivalBoundPrecomputation {
+	
+	private ArrivalBoundPrecomputation() {}
+	
+	/**
+	 * Precomputes the arrival bounds on the pool set for the arrival bound dispatch, on the common pool if there is none.
+	 *
+	 * @param server_graph The feed-forward server graph.
+	 * @param configuration The configuration of the analyses that are going to query the bounds.
+	 * @throws Exception The server graph is not feed-forward, the cache is disabled
+	 * or an arrival bound could not be computed.
+	 */
+	public static void precompute( ServerGraph server_graph, AnalysisConfig configuration ) throws Exception {
+		ForkJoinPool pool = ArrivalBoundDispatch.getForkJoinPool();
+		precompute( server_graph, configuration, pool != null ? pool : ForkJoinPool.commonPool() );
+	}
+	
+	/**
+	 * @param server_graph The feed-forward server graph.
+	 * @param configuration The configuration of the analyses that are going to query the bounds.
+	 * @param pool The pool to compute the servers of a level in.
+	 * @throws Exception The server graph is not feed-forward, the cache is disabled
+	 * or an arrival bound could not be computed. The exception of the first server of
+	 * the first failing level is raised, lower levels are not computed anymore.
+	 */
+	public static void precompute( ServerGraph server_graph, AnalysisConfig configuration, ForkJoinPool pool ) throws Exception {
+		if ( !configuration.useArrivalBoundsCache() ) {
+			throw new IllegalArgumentException( "Precomputed arrival bounds need the arrival bound cache" );
+		}
+		
+		CalculationContext context = CalculationContext.current();
+		for ( List<Server> level : getTopologicalLevels( server_graph ) ) {
+			List<ServerArrivalBounds> tasks = new ArrayList<ServerArrivalBounds>( level.size() );
+			for ( Server server : level ) {
+				tasks.add( new ServerArrivalBounds( server_graph, configuration, server, context ) );
+			}
+			
+			if ( ForkJoinTask.getPool() == pool ) {
+				ForkJoinTask.invokeAll( tasks );
+			} else {
+				pool.invoke( new RecursiveAction() {
+					@Override
+					protected void compute() {
+						invokeAll( tasks );
+					}
+				} );
+			}
+			
+			for ( ServerArrivalBounds task : tasks ) {
+				if ( task.exception != null ) {
+					throw task.exception;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param server_graph The server graph to sort.
+	 * @return The servers per topological level, starting with the sources. Servers of a level are ordered by id.
+	 * @throws Exception The server graph is not feed-forward.
+	 */
+	public static List<List<Server>> getTopologicalLevels( ServerGraph server_graph ) throws Exception {
+		Map<Server,Integer> map__server__unsorted_predecessors = new HashMap<Server,Integer>();
+		List<Server> level = new ArrayList<Server>();
+		for ( Server server : server_graph.getServers() ) {
+			int predecessors = server_graph.getPredecessors( server ).size();
+			if ( predecessors == 0 ) {
+				level.add( server );
+			} else {
+				map__server__unsorted_predecessors.put( server, predecessors );
+			}
+		}
+		
+		List<List<Server>> levels = new ArrayList<List<Server>>();
+		while ( !level.isEmpty() ) {
+			level.sort( Comparator.comparingInt( Server::getId ) );
+			levels.add( level );
+			
+			List<Server> next_level = new ArrayList<Server>();
+			for ( Server server : level ) {
+				for ( Server successor : server_graph.getSuccessors( server ) ) {
+					int predecessors = map__server__unsorted_predecessors.merge( successor, -1, Integer::sum );
+					if ( predecessors == 0 ) {
+						map__server__unsorted_predecessors.remove( successor );
+						next_level.add( successor );
+					}
+				}
+			}
+			level = next_level;
+		}
+		
+		if ( !map__server__unsorted_predecessors.isEmpty() ) {
+			throw new Exception( "The server graph is not feed-forward, "
+					+ map__server__unsorted_predecessors.size() + " servers are part of or behind a cycle" );
+		}
+		return levels;
+	}
+	
+	@SuppressWarnings("serial")
+	private static class ServerArrivalBounds extends RecursiveAction {
+		private final ServerGraph server_graph;
+		private final AnalysisConfig configuration;
+		private final Server server;
+		private final CalculationContext context;
+		private Exception exception;
+		
+		private ServerArrivalBounds( ServerGraph server_graph, AnalysisConfig configuration, Server server,
+				CalculationContext context ) {
+			this.server_graph = server_graph;
+			this.configuration = configuration;
+			this.server = server;
+			this.context = context;
+		}
+		
+		@Override
+		protected void compute() {
+			try {
+				if ( context == null ) {
+					computeArrivalBounds();
+				} else {
+					// Workers use the calculation settings of the thread that forked the task.
+					context.call( () -> {
+						computeArrivalBounds();
+						return null;
+					} );
+				}
+			} catch ( Exception e ) {
+				exception = e;
+			}
+		}
+		
+		private void computeArrivalBounds() throws Exception {
+			List<Turn> in_turns = new ArrayList<Turn>( server_graph.getInTurns( server ) );
+			in_turns.sort( Comparator.comparingInt( Turn::getId ) );
+			for ( Turn in_turn : in_turns ) {
+				Set<Flow> f_in_turn = new HashSet<Flow>( server_graph.getFlows( in_turn ) );
+				if ( !f_in_turn.isEmpty() ) {
+					ArrivalBoundDispatch.computeArrivalBounds( server_graph, configuration, in_turn, f_in_turn, Flow.NULL_FLOW );
+				}
+			}
+			ArrivalBoundDispatch.computeArrivalBounds( server_graph, configuration, server );
+		}
+	}
+}
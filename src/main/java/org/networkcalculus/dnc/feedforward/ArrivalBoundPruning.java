@@ -0,0 +1,201 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.feedforward;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.num.Num;
+
+/**
+ * Prunes sets of alternative arrival bounds that are not convolved into a single one.
+ * <p>
+ * An arrival bound that lies pointwise above another one of the set cannot yield better results
+ * in any of the analyses, dropping it does not change their bounds.
+ * The exception are FIFO left-over service curves: their theta is derived from the arrival bound's
+ * burst and does not grow with the bound, such that results can deviate marginally in either direction.
+ * The remaining bounds form a Pareto front. If it is larger than the configured maximum,
+ * bounds are dropped such that the kept ones spread evenly over the front ordered by rate,
+ * including the ones with the lowest and highest rates. This keeps the results valid
+ * but they can become less tight.
+ * <p>
+ * Pruning does not apply to bounds that are convolved, the convolution with a dominated
+ * bound can still be below the dominating bound.
+ */
+public final class ArrivalBoundPruning {
+	private static final AtomicLong candidates = new AtomicLong();
+	private static final AtomicLong pruned_dominated = new AtomicLong();
+	private static final AtomicLong pruned_capped = new AtomicLong();
+	
+	private ArrivalBoundPruning() {}
+	
+	/**
+	 * @param configuration The configuration deciding about pruning.
+	 * @param arrival_bounds Alternative arrival bounds of the same flows.
+	 * @return <code>arrival_bounds</code> if there is nothing to prune, a new set with the kept bounds otherwise.
+	 */
+	public static Set<ArrivalCurve> prune( AnalysisConfig configuration, Set<ArrivalCurve> arrival_bounds ) {
+		if ( configuration.convolveAlternativeArrivalBounds() || arrival_bounds.size() < 2
+				|| ( !configuration.pruneDominatedArrivalBounds() && arrival_bounds.size() <= configuration.maxAlternativeArrivalBounds() ) ) {
+			return arrival_bounds;
+		}
+		candidates.addAndGet( arrival_bounds.size() );
+		
+		// Ordered to make the choice between equal bounds and the capping deterministic.
+		List<ArrivalCurve> arrival_bounds_kept = new ArrayList<ArrivalCurve>( arrival_bounds );
+		arrival_bounds_kept.sort( Comparator.comparing( ( ArrivalCurve alpha ) -> alpha.getUltAffineRate().doubleValue() )
+				.thenComparing( alpha -> alpha.fLimitRight( Num.getFactory( Calculator.getInstance().getNumBackend() ).getZero() ).doubleValue() )
+				.thenComparing( ArrivalCurve::toString ) );
+		
+		if ( configuration.pruneDominatedArrivalBounds() ) {
+			List<ArrivalCurve> arrival_bounds_nondominated = new ArrayList<ArrivalCurve>( arrival_bounds_kept.size() );
+			for ( int i = 0; i < arrival_bounds_kept.size(); i++ ) {
+				ArrivalCurve alpha = arrival_bounds_kept.get( i );
+				boolean dominated = false;
+				for ( int j = 0; j < arrival_bounds_kept.size() && !dominated; j++ ) {
+					if ( i == j ) {
+						continue;
+					}
+					ArrivalCurve alpha_other = arrival_bounds_kept.get( j );
+					// Of equal bounds, the first one is kept.
+					dominated = isLeq( alpha_other, alpha ) && ( j < i || !isLeq( alpha, alpha_other ) );
+				}
+				if ( !dominated ) {
+					arrival_bounds_nondominated.add( alpha );
+				}
+			}
+			pruned_dominated.addAndGet( arrival_bounds_kept.size() - arrival_bounds_nondominated.size() );
+			arrival_bounds_kept = arrival_bounds_nondominated;
+		}
+		
+		int max_arrival_bounds = configuration.maxAlternativeArrivalBounds();
+		if ( arrival_bounds_kept.size() > max_arrival_bounds ) {
+			List<ArrivalCurve> arrival_bounds_capped = new ArrayList<ArrivalCurve>( max_arrival_bounds );
+			if ( max_arrival_bounds == 1 ) {
+				arrival_bounds_capped.add( arrival_bounds_kept.get( 0 ) );
+			} else {
+				int last = arrival_bounds_kept.size() - 1;
+				for ( int i = 0; i < max_arrival_bounds; i++ ) {
+					arrival_bounds_capped.add( arrival_bounds_kept.get( (int) ( (long) i * last / ( max_arrival_bounds - 1 ) ) ) );
+				}
+			}
+			pruned_capped.addAndGet( arrival_bounds_kept.size() - arrival_bounds_capped.size() );
+			arrival_bounds_kept = arrival_bounds_capped;
+		}
+		
+		if ( arrival_bounds_kept.size() == arrival_bounds.size() ) {
+			return arrival_bounds;
+		}
+		return new HashSet<ArrivalCurve>( arrival_bounds_kept );
+	}
+	
+	/**
+	 * Checks whether <code>c1</code> lies pointwise below or on <code>c2</code>.
+	 * Both curves are affine between their common inflection points,
+	 * so it is sufficient to compare their values, their right limits and
+	 * their left limits at these points, the latter are derived from the middle between two points.
+	 * Curves with an infinite burst are never considered to be below another one.
+	 * 
+	 * @param c1 The first curve.
+	 * @param c2 The second curve.
+	 * @return Whether c1 &le; c2 holds for all x.
+	 */
+	public static boolean isLeq( Curve c1, Curve c2 ) {
+		if ( c1.isDelayedInfiniteBurst() || c2.isDelayedInfiniteBurst()
+				|| c1.getUltAffineRate().gt( c2.getUltAffineRate() ) ) {
+			return false;
+		}
+		
+		Num[] ips_x = Curve.getUtils().computeInflectionPointsX( c1, c2 ).toArray( new Num[0] );
+		Num two = Num.getFactory( Calculator.getInstance().getNumBackend() ).create( 2.0 );
+		Num diff_right_prev = null;
+		for ( int i = 0; i < ips_x.length; i++ ) {
+			Num x = ips_x[i];
+			if ( i > 0 ) {
+				// The difference is affine between the previous and this point, its left limit at x
+				// is twice the one in the middle minus the one right of the previous point.
+				Num x_mid = Num.getUtils( Calculator.getInstance().getNumBackend() ).div(
+						Num.getUtils( Calculator.getInstance().getNumBackend() ).add( ips_x[i - 1], x ), two );
+				Num diff_mid = Num.getUtils( Calculator.getInstance().getNumBackend() ).sub( c1.f( x_mid ), c2.f( x_mid ) );
+				Num diff_left = Num.getUtils( Calculator.getInstance().getNumBackend() ).sub(
+						Num.getUtils( Calculator.getInstance().getNumBackend() ).mult( two, diff_mid ), diff_right_prev );
+				if ( diff_left.gtZero() ) {
+					return false;
+				}
+			}
+			if ( c1.f( x ).gt( c2.f( x ) ) ) {
+				return false;
+			}
+			diff_right_prev = Num.getUtils( Calculator.getInstance().getNumBackend() ).sub( c1.fLimitRight( x ), c2.fLimitRight( x ) );
+			if ( diff_right_prev.gtZero() ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	// --------------------------------------------------------------------------------------------------------------
+	// Statistics
+	// --------------------------------------------------------------------------------------------------------------
+	
+	/**
+	 * @return The number of arrival bounds in all sets that were checked for pruning.
+	 */
+	public static long getCandidateCount() {
+		return candidates.get();
+	}
+	
+	/**
+	 * @return The number of arrival bounds dropped because another bound of their set lies below them.
+	 */
+	public static long getDominatedCount() {
+		return pruned_dominated.get();
+	}
+	
+	/**
+	 * @return The number of arrival bounds dropped because their set exceeded the maximum number of alternatives.
+	 */
+	public static long getCappedCount() {
+		return pruned_capped.get();
+	}
+	
+	public static void resetCounts() {
+		candidates.set( 0 );
+		pruned_dominated.set( 0 );
+		pruned_capped.set( 0 );
+	}
+	
+	public static String getStatistics() {
+		return "candidates " + getCandidateCount() + ", dominated " + getDominatedCount() + ", capped " + getCappedCount();
+	}
+}
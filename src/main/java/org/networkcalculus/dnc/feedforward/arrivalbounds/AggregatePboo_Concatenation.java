@@ -41,6 +41,7 @@ import org.networkcalculus.dnc.feedforward.AbstractArrivalBound;
 import org.networkcalculus.dnc.feedforward.ArrivalBound;
 import org.networkcalculus.dnc.feedforward.ArrivalBoundDispatch;
 import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.IndexedServerGraph;
 import org.networkcalculus.dnc.network.server_graph.Path;
 import org.networkcalculus.dnc.network.server_graph.Server;
 import org.networkcalculus.dnc.network.server_graph.ServerGraph;
@@ -60,6 +61,11 @@ public class AggregatePboo_Concatenation extends AbstractArrivalBound implements
 		this.configuration = configuration;
 	}
 
+	/**
+	 * @deprecated The shared instance is not thread-safe, its server graph and configuration are
+	 * set by each user. Use {@link #AggregatePboo_Concatenation(ServerGraph, AnalysisConfig)} instead.
+	 */
+	@Deprecated
 	public static AggregatePboo_Concatenation getInstance() {
 		return instance;
 	}
@@ -102,6 +108,8 @@ public class AggregatePboo_Concatenation extends AbstractArrivalBound implements
 		Set<ServiceCurve> betas_lo_s;
 		Turn turn_from_prev_s;
 		Path foi_path = flow_of_interest.getPath();
+		IndexedServerGraph index = server_graph.getIndex();
+		long[] f_xfcaller_foi_bits = index == null ? null : index.with(index.toFlowBits(f_xfcaller), flow_of_interest);
 		for (Server server : common_subpath.getServers()) {
 			try {
 				turn_from_prev_s = server_graph.findTurn(foi_path.getPrecedingServer(server), server);
@@ -109,15 +117,23 @@ public class AggregatePboo_Concatenation extends AbstractArrivalBound implements
 				turn_from_prev_s = null; // reset to null
 			}
 
-			Set<Flow> f_xxfcaller_server = server_graph.getFlows(server);
-			f_xxfcaller_server.removeAll(f_xfcaller);
-			f_xxfcaller_server.remove(flow_of_interest);
+			Set<Flow> f_xxfcaller_server;
+			Set<Flow> f_xxfcaller_server_path;
+			if (index != null) {
+				long[] f_xxfcaller_server_bits = IndexedServerGraph.andNot(index.getFlowBits(server), f_xfcaller_foi_bits);
+				f_xxfcaller_server_path = index.toFlows(IndexedServerGraph.and(f_xxfcaller_server_bits, index.getFlowBits(turn_from_prev_s)));
+				f_xxfcaller_server = index.toFlows(IndexedServerGraph.andNot(f_xxfcaller_server_bits, index.getFlowBits(turn_from_prev_s)));
+			} else {
+				f_xxfcaller_server = server_graph.getFlows(server);
+				f_xxfcaller_server.removeAll(f_xfcaller);
+				f_xxfcaller_server.remove(flow_of_interest);
 
-			Set<Flow> f_xxfcaller_server_path = SetUtils.getIntersection(f_xxfcaller_server,
-					server_graph.getFlows(turn_from_prev_s));
+				f_xxfcaller_server_path = SetUtils.getIntersection(f_xxfcaller_server,
+						server_graph.getFlows(turn_from_prev_s));
 
-			// Convert f_xfoi_server to f_xfoi_server_offpath
-			f_xxfcaller_server.removeAll(f_xxfcaller_server_path);
+				// Convert f_xfoi_server to f_xfoi_server_offpath
+				f_xxfcaller_server.removeAll(f_xxfcaller_server_path);
+			}
 
 			// If we are off the path of interest, flow_of_interest is Flow.NULL_FLOW
 			// already.
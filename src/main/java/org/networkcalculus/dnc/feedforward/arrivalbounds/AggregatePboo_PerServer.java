@@ -60,6 +60,11 @@ public class AggregatePboo_PerServer extends AbstractArrivalBound implements Arr
 		this.configuration = configuration;
 	}
 
+	/**
+	 * @deprecated The shared instance is not thread-safe, its server graph and configuration are
+	 * set by each user. Use {@link #AggregatePboo_PerServer(ServerGraph, AnalysisConfig)} instead.
+	 */
+	@Deprecated
 	public static AggregatePboo_PerServer getInstance() {
 		return instance;
 	}
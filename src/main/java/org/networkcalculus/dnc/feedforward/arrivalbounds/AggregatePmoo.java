@@ -61,6 +61,11 @@ public class AggregatePmoo extends AbstractArrivalBound implements ArrivalBound
 		this.configuration = configuration;
 	}
 
+	/**
+	 * @deprecated The shared instance is not thread-safe, its server graph and configuration are
+	 * set by each user. Use {@link #AggregatePmoo(ServerGraph, AnalysisConfig)} instead.
+	 */
+	@Deprecated
 	public static AggregatePmoo getInstance() {
 		return instance;
 	}
@@ -62,6 +62,11 @@ public class AggregateTandemMatching extends AbstractArrivalBound implements Arr
 		this.configuration = configuration;
 	}
 
+	/**
+	 * @deprecated The shared instance is not thread-safe, its server graph and configuration are
+	 * set by each user. Use {@link #AggregateTandemMatching(ServerGraph, AnalysisConfig)} instead.
+	 */
+	@Deprecated
 	public static AggregateTandemMatching getInstance() {
 		return instance;
 	}
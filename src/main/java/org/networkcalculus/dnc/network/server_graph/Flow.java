@@ -181,11 +181,11 @@ public class Flow {
     }
 
     public LinkedList<Server> getServersOnPath() {
-        return new LinkedList<Server>(path.getServers());
+        return path.getServers();
     }
 
     public List<Turn> getTurnsOnPath() throws Exception {
-        return new LinkedList<Turn>(path.getTurns());
+        return path.getTurns();
     }
 
     /**
@@ -0,0 +1,387 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+package org.networkcalculus.dnc.network.server_graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable, indexed view of a server graph, see {@link ServerGraph#freeze()}.
+ * <p>
+ * Servers, turns and flows get dense indices in the order of their ids.
+ * The in- and out-turns of the servers are stored as compressed rows of turn indices
+ * and the flows of each server and turn as bitsets over the flow indices, one bit per flow in a <code>long[]</code>.
+ * Sets of flows are thus intersected and subtracted word by word,
+ * flows are only collected into a <code>Set</code> once the result is needed as such.
+ * <p>
+ * The view reflects the server graph's structure at the time it was created.
+ * Curves and settings of servers and flows are not part of it.
+ */
+public final class IndexedServerGraph {
+	private final Server[] servers;
+	private final Turn[] turns;
+	private final Flow[] flows;
+
+	// Index per id, -1 for ids of removed elements.
+	private final int[] server_index_by_id;
+	private final int[] turn_index_by_id;
+	private final int[] flow_index_by_id;
+
+	// Turns of server i are at [offsets[i], offsets[i+1]).
+	private final int[] in_turn_offsets;
+	private final int[] in_turns;
+	private final int[] out_turn_offsets;
+	private final int[] out_turns;
+
+	private final long[][] server_flow_bits;
+	private final long[][] server_source_flow_bits;
+	private final long[][] turn_flow_bits;
+	private final int words;
+
+	IndexedServerGraph( ServerGraph server_graph ) {
+		servers = sortById( server_graph.getServers(), Comparator.comparingInt( Server::getId ), new Server[0] );
+		turns = sortById( server_graph.getTurns(), Comparator.comparingInt( Turn::getId ), new Turn[0] );
+		flows = sortById( server_graph.getFlows(), Comparator.comparingInt( Flow::getId ), new Flow[0] );
+
+		server_index_by_id = new int[servers.length == 0 ? 0 : servers[servers.length - 1].getId() + 1];
+		Arrays.fill( server_index_by_id, -1 );
+		for ( int i = 0; i < servers.length; i++ ) {
+			server_index_by_id[servers[i].getId()] = i;
+		}
+		turn_index_by_id = new int[turns.length == 0 ? 0 : turns[turns.length - 1].getId() + 1];
+		Arrays.fill( turn_index_by_id, -1 );
+		for ( int i = 0; i < turns.length; i++ ) {
+			turn_index_by_id[turns[i].getId()] = i;
+		}
+		flow_index_by_id = new int[flows.length == 0 ? 0 : flows[flows.length - 1].getId() + 1];
+		Arrays.fill( flow_index_by_id, -1 );
+		for ( int i = 0; i < flows.length; i++ ) {
+			flow_index_by_id[flows[i].getId()] = i;
+		}
+
+		in_turn_offsets = new int[servers.length + 1];
+		out_turn_offsets = new int[servers.length + 1];
+		for ( Turn turn : turns ) {
+			in_turn_offsets[getIndex( turn.getDest() ) + 1]++;
+			out_turn_offsets[getIndex( turn.getSource() ) + 1]++;
+		}
+		for ( int i = 0; i < servers.length; i++ ) {
+			in_turn_offsets[i + 1] += in_turn_offsets[i];
+			out_turn_offsets[i + 1] += out_turn_offsets[i];
+		}
+		in_turns = new int[turns.length];
+		out_turns = new int[turns.length];
+		int[] in_turn_fill = Arrays.copyOf( in_turn_offsets, servers.length );
+		int[] out_turn_fill = Arrays.copyOf( out_turn_offsets, servers.length );
+		for ( int i = 0; i < turns.length; i++ ) {
+			in_turns[in_turn_fill[getIndex( turns[i].getDest() )]++] = i;
+			out_turns[out_turn_fill[getIndex( turns[i].getSource() )]++] = i;
+		}
+
+		words = ( flows.length + 63 ) >>> 6;
+		server_flow_bits = new long[servers.length][words];
+		server_source_flow_bits = new long[servers.length][words];
+		turn_flow_bits = new long[turns.length][words];
+		for ( int i = 0; i < flows.length; i++ ) {
+			Path path = flows[i].getPath();
+			setBit( server_source_flow_bits[getIndex( path.getSource() )], i );
+			for ( Server server : path.getServers() ) {
+				setBit( server_flow_bits[getIndex( server )], i );
+			}
+			for ( Turn turn : path.getTurns() ) {
+				setBit( turn_flow_bits[getIndex( turn )], i );
+			}
+		}
+	}
+
+	private static <T> T[] sortById( Collection<T> elements, Comparator<T> by_id, T[] type ) {
+		T[] sorted = elements.toArray( type );
+		Arrays.sort( sorted, by_id );
+		return sorted;
+	}
+
+	private static void setBit( long[] bits, int index ) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Indices
+	// --------------------------------------------------------------------------------------------
+	public int numServers() {
+		return servers.length;
+	}
+
+	public int numTurns() {
+		return turns.length;
+	}
+
+	public int numFlows() {
+		return flows.length;
+	}
+
+	/**
+	 * @return The server's index, -1 if it was not part of the server graph when the view was created.
+	 */
+	public int getIndex( Server server ) {
+		int id = server.getId();
+		return id >= 0 && id < server_index_by_id.length && server_index_by_id[id] >= 0 && servers[server_index_by_id[id]] == server ? server_index_by_id[id] : -1;
+	}
+
+	/**
+	 * @return The turn's index, -1 if it was not part of the server graph when the view was created.
+	 */
+	public int getIndex( Turn turn ) {
+		int id = turn.getId();
+		return id >= 0 && id < turn_index_by_id.length && turn_index_by_id[id] >= 0 && turns[turn_index_by_id[id]] == turn ? turn_index_by_id[id] : -1;
+	}
+
+	/**
+	 * @return The flow's index, -1 if it was not part of the server graph when the view was created, e.g., a dummy flow.
+	 */
+	public int getIndex( Flow flow ) {
+		int id = flow.getId();
+		return id >= 0 && id < flow_index_by_id.length && flow_index_by_id[id] >= 0 && flows[flow_index_by_id[id]] == flow ? flow_index_by_id[id] : -1;
+	}
+
+	public Server getServer( int index ) {
+		return servers[index];
+	}
+
+	public Turn getTurn( int index ) {
+		return turns[index];
+	}
+
+	public Flow getFlow( int index ) {
+		return flows[index];
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Adjacency
+	// --------------------------------------------------------------------------------------------
+	public int inDegree( Server server ) {
+		int s = getIndex( server );
+		return in_turn_offsets[s + 1] - in_turn_offsets[s];
+	}
+
+	public int outDegree( Server server ) {
+		int s = getIndex( server );
+		return out_turn_offsets[s + 1] - out_turn_offsets[s];
+	}
+
+	/**
+	 * @return The <code>i</code>-th in-turn of the server in the order of turn ids.
+	 */
+	public Turn getInTurn( Server server, int i ) {
+		return turns[in_turns[in_turn_offsets[getIndex( server )] + i]];
+	}
+
+	/**
+	 * @return The <code>i</code>-th out-turn of the server in the order of turn ids.
+	 */
+	public Turn getOutTurn( Server server, int i ) {
+		return turns[out_turns[out_turn_offsets[getIndex( server )] + i]];
+	}
+
+	/**
+	 * @return The turn from <code>source</code> to <code>destination</code>, <code>null</code> if there is none.
+	 */
+	public Turn findTurn( Server source, Server destination ) {
+		int s = getIndex( source );
+		int d = getIndex( destination );
+		if ( s < 0 || d < 0 ) {
+			return null;
+		}
+		for ( int i = out_turn_offsets[s]; i < out_turn_offsets[s + 1]; i++ ) {
+			if ( turns[out_turns[i]].getDest() == destination ) {
+				return turns[out_turns[i]];
+			}
+		}
+		return null;
+	}
+
+	public Set<Server> getPredecessors( Server server ) {
+		int s = getIndex( server );
+		Set<Server> predecessors = new HashSet<Server>();
+		for ( int i = in_turn_offsets[s]; i < in_turn_offsets[s + 1]; i++ ) {
+			predecessors.add( turns[in_turns[i]].getSource() );
+		}
+		return predecessors;
+	}
+
+	public Set<Server> getSuccessors( Server server ) {
+		int s = getIndex( server );
+		Set<Server> successors = new HashSet<Server>();
+		for ( int i = out_turn_offsets[s]; i < out_turn_offsets[s + 1]; i++ ) {
+			successors.add( turns[out_turns[i]].getDest() );
+		}
+		return successors;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Flow bitsets
+	//
+	// Bitsets returned by this view must not be changed.
+	// --------------------------------------------------------------------------------------------
+	public long[] getFlowBits( Server server ) {
+		return server_flow_bits[getIndex( server )];
+	}
+
+	public long[] getSourceFlowBits( Server server ) {
+		return server_source_flow_bits[getIndex( server )];
+	}
+
+	/**
+	 * @param turn A turn of the server graph, <code>null</code> for the empty bitset.
+	 */
+	public long[] getFlowBits( Turn turn ) {
+		return turn == null ? new long[words] : turn_flow_bits[getIndex( turn )];
+	}
+
+	/**
+	 * @return A new bitset of the flows, flows that are not part of the view are left out.
+	 */
+	public long[] toFlowBits( Collection<Flow> flows ) {
+		long[] bits = new long[words];
+		for ( Flow flow : flows ) {
+			int f = getIndex( flow );
+			if ( f >= 0 ) {
+				setBit( bits, f );
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * @return A new set of the flows in <code>bits</code>.
+	 */
+	public Set<Flow> toFlows( long[] bits ) {
+		Set<Flow> flows_of_bits = new HashSet<Flow>( Math.max( 16, cardinality( bits ) * 4 / 3 + 1 ) );
+		for ( int w = 0; w < bits.length; w++ ) {
+			long word = bits[w];
+			while ( word != 0 ) {
+				flows_of_bits.add( flows[( w << 6 ) + Long.numberOfTrailingZeros( word )] );
+				word &= word - 1;
+			}
+		}
+		return flows_of_bits;
+	}
+
+	public boolean contains( long[] bits, Flow flow ) {
+		int f = getIndex( flow );
+		return f >= 0 && ( bits[f >>> 6] & 1L << f ) != 0;
+	}
+
+	/**
+	 * @return A new bitset with <code>flow</code> if it is part of the view.
+	 */
+	public long[] with( long[] bits, Flow flow ) {
+		long[] result = bits.clone();
+		int f = getIndex( flow );
+		if ( f >= 0 ) {
+			setBit( result, f );
+		}
+		return result;
+	}
+
+	/**
+	 * @return A new bitset without <code>flow</code>.
+	 */
+	public long[] without( long[] bits, Flow flow ) {
+		long[] result = bits.clone();
+		int f = getIndex( flow );
+		if ( f >= 0 ) {
+			result[f >>> 6] &= ~( 1L << f );
+		}
+		return result;
+	}
+
+	/**
+	 * @return A new bitset, the intersection of both.
+	 */
+	public static long[] and( long[] bits_1, long[] bits_2 ) {
+		long[] result = new long[bits_1.length];
+		for ( int w = 0; w < result.length; w++ ) {
+			result[w] = bits_1[w] & bits_2[w];
+		}
+		return result;
+	}
+
+	/**
+	 * @return A new bitset, the flows of <code>bits_1</code> that are not in <code>bits_2</code>.
+	 */
+	public static long[] andNot( long[] bits_1, long[] bits_2 ) {
+		long[] result = new long[bits_1.length];
+		for ( int w = 0; w < result.length; w++ ) {
+			result[w] = bits_1[w] & ~bits_2[w];
+		}
+		return result;
+	}
+
+	public static boolean intersects( long[] bits_1, long[] bits_2 ) {
+		for ( int w = 0; w < bits_1.length; w++ ) {
+			if ( ( bits_1[w] & bits_2[w] ) != 0 ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return Whether all flows of <code>bits_2</code> are in <code>bits_1</code>.
+	 */
+	public static boolean containsAll( long[] bits_1, long[] bits_2 ) {
+		for ( int w = 0; w < bits_1.length; w++ ) {
+			if ( ( bits_2[w] & ~bits_1[w] ) != 0 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public static boolean isEmpty( long[] bits ) {
+		for ( long word : bits ) {
+			if ( word != 0 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public static int cardinality( long[] bits ) {
+		int cardinality = 0;
+		for ( long word : bits ) {
+			cardinality += Long.bitCount( word );
+		}
+		return cardinality;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(servers " + servers.length + ", turns " + turns.length + ", flows " + flows.length + ")";
+	}
+}
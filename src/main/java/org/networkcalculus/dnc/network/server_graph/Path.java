@@ -26,10 +26,12 @@
 
 package org.networkcalculus.dnc.network.server_graph;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.networkcalculus.dnc.Calculator;
@@ -47,32 +49,85 @@ import org.networkcalculus.dnc.curves.ServiceCurve;
  * pessimistic, yet, the results remain valid.
  */
 public class Path {
-    private LinkedList<Server> path_servers;
-    private LinkedList<Turn> path_turns;
+    // Paths are immutable. A sub-path shares the arrays of the path it was created from
+    // and only narrows the range of it that it covers.
+    private final Server[] path_servers;
+    private final Turn[] path_turns;
+    private final int servers_from;
+    private final int num_servers;
+    private final int turns_from;
+    private final int num_turns;
+
+    // Server -> index in path_servers, shared by all sub-paths.
+    // Only available if the servers are distinct and connected by the turns in order,
+    // otherwise the positions are searched for.
+    private final Map<Server, Integer> map__server__index;
+
+    private int hash;
 
     private Path() {
-        path_servers = new LinkedList<Server>();
-        path_turns = new LinkedList<Turn>();
+        this(new Server[0], new Turn[0]);
     }
 
     protected Path(List<Server> path_servers, List<Turn> path_turns) {
         // Sanity check should have been done by the server graph
-        this.path_servers = new LinkedList<Server>(path_servers);
-        this.path_turns = new LinkedList<Turn>(path_turns);
+        this(path_servers.toArray(new Server[path_servers.size()]), path_turns.toArray(new Turn[path_turns.size()]));
+    }
+
+    private Path(Server[] path_servers, Turn[] path_turns) {
+        this.path_servers = path_servers;
+        this.path_turns = path_turns;
+        this.servers_from = 0;
+        this.num_servers = path_servers.length;
+        this.turns_from = 0;
+        this.num_turns = path_turns.length;
+        this.map__server__index = createServerIndex(path_servers, path_turns);
+    }
+
+    private Path(Path path, int servers_from, int num_servers) {
+        // Only created for indexed paths, their turn i connects server i and i+1.
+        this.path_servers = path.path_servers;
+        this.path_turns = path.path_turns;
+        this.servers_from = servers_from;
+        this.num_servers = num_servers;
+        this.turns_from = servers_from;
+        this.num_turns = num_servers - 1;
+        this.map__server__index = path.map__server__index;
     }
 
     public Path(Path path) {
-        this.path_servers = path.getServers();
-        this.path_turns = path.getTurns();
+        this.path_servers = path.path_servers;
+        this.path_turns = path.path_turns;
+        this.servers_from = path.servers_from;
+        this.num_servers = path.num_servers;
+        this.turns_from = path.turns_from;
+        this.num_turns = path.num_turns;
+        this.map__server__index = path.map__server__index;
     }
 
     // Can be visible.
     // There's no way to create a single hop path not possible to take in a network.
     public Path(Server single_hop) {
-        path_servers = new LinkedList<Server>();
-        path_servers.add(single_hop);
-        
-        path_turns = new LinkedList<Turn>();
+        this(new Server[] { single_hop }, new Turn[0]);
+    }
+
+    private static Map<Server, Integer> createServerIndex(Server[] path_servers, Turn[] path_turns) {
+        if (path_servers.length == 0 || path_turns.length != path_servers.length - 1) {
+            return null;
+        }
+        for (int i = 0; i < path_turns.length; i++) {
+            if (path_turns[i].getSource() != path_servers[i] || path_turns[i].getDest() != path_servers[i + 1]) {
+                return null;
+            }
+        }
+
+        Map<Server, Integer> map__server__index = new HashMap<Server, Integer>();
+        for (int i = 0; i < path_servers.length; i++) {
+            if (map__server__index.put(path_servers[i], i) != null) {
+                return null;
+            }
+        }
+        return map__server__index;
     }
 
     public static Path createEmptyPath() {
@@ -80,31 +135,104 @@ public class Path {
     }
 
     public Server getSource() {
-        return path_servers.get(0);
+        checkNotEmpty();
+        return path_servers[servers_from];
     }
     
     public boolean isSource(Server s) {
-    	return path_servers.indexOf(s) == 0;
+    	return indexOf(s) == 0;
     }
 
     public Server getSink() {
-        return path_servers.get(path_servers.size() - 1);
+        checkNotEmpty();
+        return path_servers[servers_from + num_servers - 1];
+    }
+
+    private void checkNotEmpty() {
+        if (num_servers == 0) {
+            throw new IndexOutOfBoundsException("The path is empty");
+        }
     }
 
     public int numServers() {
-        return path_servers.size();
+        return num_servers;
     }
 
     public int numTurns() {
-        return path_turns.size();
+        return num_turns;
     }
 
     public LinkedList<Turn> getTurns() {
-        return new LinkedList<Turn>(path_turns);
+        return new LinkedList<Turn>(getTurnsView());
     }
 
     public LinkedList<Server> getServers() {
-        return new LinkedList<Server>(path_servers);
+        return new LinkedList<Server>(getServersView());
+    }
+
+    private List<Server> getServersView() {
+        return Arrays.asList(path_servers).subList(servers_from, servers_from + num_servers);
+    }
+
+    private List<Turn> getTurnsView() {
+        return Arrays.asList(path_turns).subList(turns_from, turns_from + num_turns);
+    }
+
+    /**
+     * @param i Position on the path, starting with 0 at the source.
+     * @return The server at the position.
+     */
+    public Server getServer(int i) {
+        if (i < 0 || i >= num_servers) {
+            throw new IndexOutOfBoundsException("Position " + i + " on a path of " + num_servers + " servers");
+        }
+        return path_servers[servers_from + i];
+    }
+
+    /**
+     * @param i Position on the path, starting with 0 for the turn leaving the source.
+     * @return The turn at the position.
+     */
+    public Turn getTurn(int i) {
+        if (i < 0 || i >= num_turns) {
+            throw new IndexOutOfBoundsException("Position " + i + " on a path of " + num_turns + " turns");
+        }
+        return path_turns[turns_from + i];
+    }
+
+    /**
+     * @param s The server to look for.
+     * @return The server's position on the path, -1 if it is not on the path.
+     */
+    public int indexOf(Server s) {
+        if (map__server__index != null) {
+            Integer index = map__server__index.get(s);
+            if (index == null || index < servers_from || index >= servers_from + num_servers) {
+                return -1;
+            }
+            return index - servers_from;
+        }
+        for (int i = 0; i < num_servers; i++) {
+            if (Objects.equals(path_servers[servers_from + i], s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(Server s) {
+        return indexOf(s) >= 0;
+    }
+
+    public boolean contains(Turn t) {
+        if (map__server__index != null) {
+            if (t == null) {
+                return false;
+            }
+            int i = indexOf(t.getSource());
+            return i >= 0 && i < num_turns && path_turns[turns_from + i].equals(t);
+        }
+        return getTurnsView().contains(t);
     }
 
     /**
@@ -115,29 +243,33 @@ public class Path {
      */
     public Path getSubPath(Server from, Server to) throws Exception {
         // All other sanity check should have been passed when this object was created
-        if (!path_servers.contains(from)) {
+        int from_index = indexOf(from);
+        if (from_index < 0) {
             throw new Exception("Cannot create a subpath if source is not in it.");
         }
-        if (!path_servers.contains(to)) {
+        int to_index = indexOf(to);
+        if (to_index < 0) {
             throw new Exception("Cannot create a subpath if sink is not in it.");
         }
 
         if (from == to) {
-            return new Path(new LinkedList<Server>(Collections.singleton(from)), new LinkedList<Turn>());
+            return map__server__index != null ? new Path(this, servers_from + from_index, 1) : new Path(from);
         }
 
-        int from_index = path_servers.indexOf(from);
-        int to_index = path_servers.indexOf(to);
         if (from_index >= to_index) {
             throw new Exception("Cannot create sub-path from " + from.toString() + " to " + to.toString());
         }
+        if (map__server__index != null) {
+            return new Path(this, servers_from + from_index, to_index - from_index + 1);
+        }
+
         // subList: 'from' is inclusive but 'to' is exclusive
-        LinkedList<Server> subpath_servers = new LinkedList<Server>(path_servers.subList(from_index, to_index));
+        LinkedList<Server> subpath_servers = new LinkedList<Server>(getServersView().subList(from_index, to_index));
         subpath_servers.add(to);
 
         List<Turn> subpath_turns = new LinkedList<Turn>();
         if (subpath_servers.size() > 1) {
-            for (Turn l : path_turns) {
+            for (Turn l : getTurnsView()) {
                 Server src_l = l.getSource();
                 Server snk_l = l.getDest();
                 if (subpath_servers.contains(src_l) && subpath_servers.contains(snk_l)) {
@@ -150,18 +282,32 @@ public class Path {
     }
 
     public Turn getPrecedingTurn(Server s) throws Exception {
-        for (Turn l : path_turns) {
-            if (l.getDest().equals(s)) {
-                return l;
+        if (map__server__index != null) {
+            int i = indexOf(s);
+            if (i > 0) {
+                return path_turns[turns_from + i - 1];
+            }
+        } else {
+            for (Turn l : getTurnsView()) {
+                if (l.getDest().equals(s)) {
+                    return l;
+                }
             }
         }
         throw new Exception("No preceding turn on the path found");
     }
 
     public Turn getSucceedingTurn(Server s) throws Exception {
-        for (Turn l : path_turns) {
-            if (l.getSource().equals(s)) {
-                return l;
+        if (map__server__index != null) {
+            int i = indexOf(s);
+            if (i >= 0 && i < num_turns) {
+                return path_turns[turns_from + i];
+            }
+        } else {
+            for (Turn l : getTurnsView()) {
+                if (l.getSource().equals(s)) {
+                    return l;
+                }
             }
         }
         throw new Exception("No succeeding turn on the path found");
@@ -190,7 +336,7 @@ public class Path {
      * @throws Exception
      */
     public ServiceCurve getServiceCurve() throws Exception {
-        Collection<Server> servers = getServers();
+        Collection<Server> servers = getServersView();
         return getServiceCurve(servers);
     }
 
@@ -214,7 +360,7 @@ public class Path {
      * @throws Exception
      */
     public MaxServiceCurve getMaxServiceCurve() throws Exception {
-        Collection<Server> servers = getServers();
+        Collection<Server> servers = getServersView();
         return getMaxServiceCurve(servers);
     }
 
@@ -228,7 +374,7 @@ public class Path {
     }
 
     public MaxServiceCurve getStoredMaxSC() throws Exception {
-        Collection<Server> servers = getServers();
+        Collection<Server> servers = getServersView();
         return getStoredMaxSC(servers);
     }
 
@@ -252,7 +398,7 @@ public class Path {
      * @throws Exception
      */
     public MaxServiceCurve getMaxScRate() throws Exception {
-        Collection<Server> servers = getServers();
+        Collection<Server> servers = getServersView();
         return getMaxScRate(servers);
     }
 
@@ -267,7 +413,7 @@ public class Path {
     }
     
     public MaxServiceCurve getStoredMaxScRate() throws Exception {
-        Collection<Server> servers = getServers();
+        Collection<Server> servers = getServersView();
         return getStoredMaxScRate(servers);
     }
 
@@ -283,17 +429,27 @@ public class Path {
     
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (obj == null || !(obj instanceof Path)) {
             return false;
         }
 
         Path p = (Path) obj;
-        return path_servers.equals(p.getServers()) && path_turns.equals(p.getTurns());
+        return num_servers == p.num_servers && num_turns == p.num_turns && hashCode() == p.hashCode()
+                && getServersView().equals(p.getServersView()) && getTurnsView().equals(p.getTurnsView());
     }
 
     @Override
     public int hashCode() {
-    	return Objects.hash(path_servers, path_turns);
+        // Same as Objects.hash(servers, turns) of the lists. Racing threads compute the same value.
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(getServersView(), getTurnsView());
+            hash = h;
+        }
+        return h;
     }
     
     // --------------------------------------------------------------------------------------------------------------
@@ -306,14 +462,14 @@ public class Path {
      * @return String representation of the path.
      */
     public String toShortString() {
-        if (path_servers.isEmpty()) {
+        if (num_servers == 0) {
             return "{}";
         }
         
     	StringBuffer path_str = new StringBuffer();
 
     	path_str.append("{");
-    	for (Server s : path_servers) {
+    	for (Server s : getServersView()) {
     		path_str.append(s.toShortString());
         	path_str.append(",");
         }
@@ -331,14 +487,14 @@ public class Path {
      */
     @Override
     public String toString() {
-        if (path_turns.isEmpty()) {
+        if (num_turns == 0) {
         	return toShortString();
         }
         
         StringBuffer path_str = new StringBuffer();
 
     	path_str.append("{");
-        for (Turn l : path_turns) {
+        for (Turn l : getTurnsView()) {
         	path_str.append(l.toString());
         	path_str.append(",");
         }
@@ -356,14 +512,14 @@ public class Path {
      * @return String representation of the path.
      */
     public String toExtendedString() {
-        if (path_turns.isEmpty()) {
+        if (num_turns == 0) {
         	return toShortString();
         }
         
         StringBuffer path_str = new StringBuffer();
 
     	path_str.append("{");
-        for (Turn l : path_turns) {
+        for (Turn l : getTurnsView()) {
         	path_str.append(l.toExtendedString());
         	path_str.append(",");
         }
@@ -94,6 +94,9 @@ public class ServerGraph {
 	private int flow_id_counter = 0;
 	private Map<Integer, Flow> map__id__flow;
 
+	private volatile IndexedServerGraph index = null;
+	private volatile SplittingServerIndex splitting_server_index = null;
+
 	public ServerGraph() {
 		servers = new HashSet<Server>();
 		turns = new HashSet<Turn>();
@@ -112,6 +115,9 @@ public class ServerGraph {
 	}
 
 	private void remove(Set<Server> servers_to_remove, Set<Turn> turns_to_remove, Set<Flow> flows_to_remove) {
+		index = null;
+		splitting_server_index = null;
+
 		// Make sure that you do not remove a map's key before the according entries:
 		// (flows before servers and turns) & (turns before servers)
 
@@ -160,6 +166,35 @@ public class ServerGraph {
 		}
 	}
 
+	// --------------------------------------------------------------------------------------------
+	// Indexed view
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * Creates an immutable, indexed view of the server graph's current structure if there is none yet.
+	 * While the view exists, this server graph answers adjacency queries with it
+	 * and analyses use its flow bitsets instead of copying sets of flows.
+	 * Adding or removing servers, turns or flows drops the view,
+	 * the server graph needs to be frozen again to get a new one.
+	 *
+	 * @return The indexed view.
+	 */
+	public IndexedServerGraph freeze() {
+		IndexedServerGraph index = this.index;
+		if (index == null) {
+			index = new IndexedServerGraph(this);
+			this.index = index;
+		}
+		return index;
+	}
+
+	/**
+	 * @return The indexed view created by <code>freeze()</code>, <code>null</code> if there is none
+	 *         or the server graph was changed since.
+	 */
+	public IndexedServerGraph getIndex() {
+		return index;
+	}
+
 	// --------------------------------------------------------------------------------------------
 	// Servers
 	// --------------------------------------------------------------------------------------------
@@ -248,6 +283,9 @@ public class ServerGraph {
 	}
 
 	private void updateServerAdditionInternally(Server new_server) {
+		index = null;
+		splitting_server_index = null;
+
 		map__server__in_turns.put(new_server, new HashSet<Turn>());
 		map__server__out_turns.put(new_server, new HashSet<Turn>());
 
@@ -420,6 +458,11 @@ public class ServerGraph {
 	 * @return The source servers of incoming turns of s
 	 */
 	public Set<Server> getPredecessors(Server s) {
+		IndexedServerGraph index = this.index;
+		if (index != null && index.getIndex(s) >= 0) {
+			return index.getPredecessors(s);
+		}
+
 		Set<Server> predecessors = new HashSet<Server>();
 		for (Turn t : getInTurns(s)) {
 			predecessors.add(t.getSource());
@@ -435,6 +478,11 @@ public class ServerGraph {
 	 * @return The sink servers of outgoing turns of s.
 	 */
 	public Set<Server> getSuccessors(Server s) {
+		IndexedServerGraph index = this.index;
+		if (index != null && index.getIndex(s) >= 0) {
+			return index.getSuccessors(s);
+		}
+
 		Set<Server> successors = new HashSet<Server>();
 		for (Turn t : getOutTurns(s)) {
 			successors.add(t.getDest());
@@ -465,6 +513,7 @@ public class ServerGraph {
 			Turn turn = findTurn(source, destination);
 			return turn;
 		} catch (Exception e) {
+			index = null;
 			Turn new_turn = new Turn(turn_id_counter, alias, source, destination);
 			turn_id_counter++;
 
@@ -504,6 +553,15 @@ public class ServerGraph {
 	 *             No turn from src to snk found in this server graph.
 	 */
 	public Turn findTurn(Server src, Server dest) throws Exception {
+		IndexedServerGraph index = this.index;
+		if (index != null && index.getIndex(src) >= 0 && index.getIndex(dest) >= 0) {
+			Turn connecting_turn = index.findTurn(src, dest);
+			if (connecting_turn == null) {
+				throw new Exception("No turn between " + src.toString() + " and " + dest.toString() + " found.");
+			}
+			return connecting_turn;
+		}
+
 		Set<Turn> connecting_turn_as_set = SetUtils.getIntersection(getInTurns(dest), getOutTurns(src));
 		if (connecting_turn_as_set.isEmpty()) {
 			throw new Exception("No turn between " + src.toString() + " and " + dest.toString() + " found.");
@@ -651,6 +709,8 @@ public class ServerGraph {
 			}
 		}
 
+		index = null;
+		splitting_server_index = null;
 		Flow new_flow = new Flow(flow_id_counter, alias, arrival_curve.copy(), path);
 		flows.add(new_flow);
 		map__id__flow.put(Integer.valueOf(flow_id_counter), new_flow);
@@ -828,8 +888,7 @@ public class ServerGraph {
 
 		// Iterate over the servers s on the path. Use indices to easily determine
 		// egress servers
-		LinkedList<Server> servers = p.getServers();
-		int n = servers.size();
+		int n = p.numServers();
 
 		// Flows with the same egress server (independent of the out turn) can be
 		// aggregated for PMOO's and OBA's arrival bound calculation.
@@ -838,7 +897,7 @@ public class ServerGraph {
 		Map<Server, Set<Flow>> map__server__leaving_flows = getServerLeavingFlowsMap(p);
 
 		for (int i = 0; i < n; i++) {
-			Server s_i = servers.get(i);
+			Server s_i = p.getServer(i);
 
 			Set<Flow> s_i_ingress = map__s_i__joining_flows.get(s_i);
 			if (s_i_ingress.isEmpty()) {
@@ -846,7 +905,7 @@ public class ServerGraph {
 			}
 
 			for (int j = i; j < n; j++) {
-				Server s_j_egress = servers.get(j);
+				Server s_j_egress = p.getServer(j);
 
 				Set<Flow> s_i_ingress__s_j_egress = SetUtils.getIntersection(s_i_ingress,
 						map__server__leaving_flows.get(s_j_egress)); // Intersection with the remaining joining_flows
@@ -882,8 +941,7 @@ public class ServerGraph {
 
 		// Iterate over the servers s on the path. Use indices to easily determine
 		// egress servers
-		LinkedList<Server> servers = p.getServers();
-		int n = servers.size();
+		int n = p.numServers();
 
 		// Flows with the same egress server (independent of the out turn) can be
 		// aggregated for PMOO's and OBA's arrival bound calculation.
@@ -892,7 +950,7 @@ public class ServerGraph {
 		Map<Server, Set<Flow>> map__server__leaving_flows = getServerLeavingFlowsMap(p);
 
 		for (int i = 0; i < n; i++) {
-			Server s_i = servers.get(i);
+			Server s_i = p.getServer(i);
 
 			Set<Flow> s_i_ingress = map__s_i__joining_flows.get(s_i);
 			if (s_i_ingress.isEmpty()) {
@@ -900,7 +958,7 @@ public class ServerGraph {
 			}
 
 			for (int j = i; j < n; j++) {
-				Server s_j_egress = servers.get(j);
+				Server s_j_egress = p.getServer(j);
 
 				Set<Flow> s_i_ingress__s_j_egress = SetUtils.getIntersection(s_i_ingress,
 						map__server__leaving_flows.get(s_j_egress)); // Intersection with the remaining joining_flows
@@ -937,15 +995,14 @@ public class ServerGraph {
 		}
 		
 		// Iterate over the servers s on the path. Use indices to easily determine egress servers 
-		LinkedList<Server> servers = p.getServers();
-		int n = servers.size();
+		int n = p.numServers();
 		
 		// Flows with the same egress server (independent of the out turn) can be aggregated for PMOO's and OBA's arrival bound calculation.
 		// This still preserves the demultiplexing considerations. Note that the last server contains all remaining flows by default.
  		Map<Server,Set<Flow>> map__server__leaving_flows = getServerLeavingFlowsMap( p );
 		
 		for( int i = 0; i<n; i++ ) {
-			Server s_i = servers.get( i );
+			Server s_i = p.getServer( i );
 			
 			Set<Flow> s_i_ingress = map__s_i__joining_flows.get( s_i );
 			if ( s_i_ingress.isEmpty() ) {
@@ -953,7 +1010,7 @@ public class ServerGraph {
 			}
 
 	 		for( int j = i; j<n; j++ ) {
-	 			Server s_j_egress = servers.get( j );
+	 			Server s_j_egress = p.getServer( j );
 	 			
 	 			Set<Flow> s_i_ingress__s_j_egress = SetUtils.getIntersection( s_i_ingress, map__server__leaving_flows.get( s_j_egress ) ); // Intersection with the remaining joining_flows prevents rejoining flows to be considered multiple times
 	 			s_i_ingress__s_j_egress.retainAll( flows_to_group );
@@ -1310,21 +1367,7 @@ public class ServerGraph {
 			return f.getSource();
 		}
 
-		Path f_path = f.getPath();
-		int common_dest_index_f = f_path.getServers().indexOf(server_common_dest);
-
-		Server split = server_common_dest;
-		// Iterate in reverse order starting from server_common_dest, stop as soon as at
-		// least one of the flows of interest is missing
-		for (int i = common_dest_index_f - 1; i >= 0; i--) { // -1 excludes server_common_dest
-			Server split_candidate = f_path.getServers().get(i);
-
-			if (getFlows(split_candidate).containsAll(flows_of_interest)) {
-				split = split_candidate;
-			} else {
-				break;
-			}
-		}
+		Server split = findSplittingServer(f, server_common_dest, flows_of_interest);
 
 		if (split == server_common_dest) { // No splitting point found
 			throw new Exception("No splitting point prior to the common destination found");
@@ -1333,7 +1376,7 @@ public class ServerGraph {
 		}
 	}
 
-	// code copied, see findSplittingServer. We do not care about the case server_common_dest == split (we do not throw an exception in that case and simply return server_common_dest). Also we
+	// See findSplittingServer. We do not care about the case server_common_dest == split (we do not throw an exception in that case and simply return server_common_dest). Also we
 	// return the path from split to server_common_dest we backtracked.
 	public Pair<Server, Path> findSplittingServerAndPathFIFO(Server server_common_dest, Set<Flow> flows_of_interest) throws Exception {
 		Flow f = flows_of_interest.iterator().next();
@@ -1344,21 +1387,27 @@ public class ServerGraph {
 		}
 
 		Path f_path = f.getPath();
-		int common_dest_index_f = f_path.getServers().indexOf(server_common_dest);
-
-		Server split = server_common_dest;
-		// Iterate in reverse order starting from server_common_dest, stop as soon as at
-		// least one of the flows of interest is missing
-		for (int i = common_dest_index_f - 1; i >= 0; i--) { // -1 excludes server_common_dest
-			Server split_candidate = f_path.getServers().get(i);
+		Server split = findSplittingServer(f, server_common_dest, flows_of_interest);
+		return new Pair(split, f_path.getSubPath(split, server_common_dest));
+	}
 
-			if (getFlows(split_candidate).containsAll(flows_of_interest)) {
-				split = split_candidate;
-			} else {
-				break;
-			}
+	/**
+	 * Walks the path of <code>f</code> backwards from <code>server_common_dest</code>
+	 * as long as all flows of interest cross the servers.
+	 * The splitting server index is built on the first call after the server graph was changed.
+	 * 
+	 * @return The furthest upstream server crossed by all flows of interest,
+	 *         <code>server_common_dest</code> if there is none.
+	 */
+	private Server findSplittingServer(Flow f, Server server_common_dest, Set<Flow> flows_of_interest) {
+		SplittingServerIndex splitting_server_index = this.splitting_server_index;
+		if (splitting_server_index == null) {
+			splitting_server_index = new SplittingServerIndex(this);
+			this.splitting_server_index = splitting_server_index;
 		}
-		return new Pair(split, f_path.getSubPath(split, server_common_dest));
+
+		int split_index = splitting_server_index.findSplittingPosition(f, server_common_dest, flows_of_interest);
+		return split_index < 0 ? server_common_dest : f.getPath().getServer(split_index);
 	}
 
 	// --------------------------------------------------------------------------------------------
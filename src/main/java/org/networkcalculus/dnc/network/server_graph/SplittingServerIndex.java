@@ -0,0 +1,138 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+
+package org.networkcalculus.dnc.network.server_graph;
+
+import java.util.Collection;
+
+/**
+ * Answers which server is the furthest upstream one that a set of flows crosses
+ * before a common destination, see {@link ServerGraph#findSplittingServer(Server, java.util.Set)}.
+ * <p>
+ * The index stores the flows of each server as a bitset over the flow ids.
+ * A query collects the flows of interest into a bitset once and walks the path of one of them
+ * from the common destination towards its source. With the path's precomputed server positions,
+ * each step is a word-wise subset check instead of copying the server's set of flows.
+ * <p>
+ * The index is built for the servers and flows of the server graph at the time of its creation.
+ * The server graph drops it when servers or flows are added or removed.
+ */
+final class SplittingServerIndex {
+	private final Server[] servers_by_id;
+	private final Flow[] flows_by_id;
+	private final long[][] server_flow_bits_by_id;
+	private final int words;
+
+	SplittingServerIndex( ServerGraph server_graph ) {
+		int max_server_id = -1;
+		for ( Server server : server_graph.getServers() ) {
+			max_server_id = Math.max( max_server_id, server.getId() );
+		}
+		int max_flow_id = -1;
+		for ( Flow flow : server_graph.getFlows() ) {
+			max_flow_id = Math.max( max_flow_id, flow.getId() );
+		}
+
+		servers_by_id = new Server[max_server_id + 1];
+		for ( Server server : server_graph.getServers() ) {
+			servers_by_id[server.getId()] = server;
+		}
+		flows_by_id = new Flow[max_flow_id + 1];
+		words = ( max_flow_id + 64 ) >>> 6;
+		server_flow_bits_by_id = new long[max_server_id + 1][];
+		for ( Flow flow : server_graph.getFlows() ) {
+			flows_by_id[flow.getId()] = flow;
+			Path path = flow.getPath();
+			for ( int i = 0; i < path.numServers(); i++ ) {
+				Server server = path.getServer( i );
+				if ( !isPartOfIndex( server ) ) {
+					continue;
+				}
+				long[] bits = server_flow_bits_by_id[server.getId()];
+				if ( bits == null ) {
+					bits = new long[words];
+					server_flow_bits_by_id[server.getId()] = bits;
+				}
+				bits[flow.getId() >>> 6] |= 1L << flow.getId();
+			}
+		}
+	}
+
+	private boolean isPartOfIndex( Server server ) {
+		int id = server.getId();
+		return id >= 0 && id < servers_by_id.length && servers_by_id[id] == server;
+	}
+
+	/**
+	 * @param flow The flow whose path is walked.
+	 * @param server_common_dest The common destination, excluded as a splitting server.
+	 * @param flows_of_interest The flows that need to cross the splitting server, including <code>flow</code>.
+	 * @return The position of the splitting server on the path of <code>flow</code>.
+	 *         It is the position of <code>server_common_dest</code> if there is none before it
+	 *         and -1 if <code>server_common_dest</code> is not on the path.
+	 */
+	int findSplittingPosition( Flow flow, Server server_common_dest, Collection<Flow> flows_of_interest ) {
+		Path path = flow.getPath();
+		int common_dest_index = path.indexOf( server_common_dest );
+		if ( common_dest_index <= 0 ) {
+			return common_dest_index;
+		}
+
+		long[] flows_of_interest_bits = new long[words];
+		for ( Flow f : flows_of_interest ) {
+			int id = f.getId();
+			if ( id < 0 || id >= flows_by_id.length || flows_by_id[id] != f ) {
+				// Flows that are not part of the server graph do not cross any of its servers.
+				return common_dest_index;
+			}
+			flows_of_interest_bits[id >>> 6] |= 1L << id;
+		}
+
+		int split_index = common_dest_index;
+		// Iterate in reverse order starting from server_common_dest, stop as soon as at
+		// least one of the flows of interest is missing
+		for ( int i = common_dest_index - 1; i >= 0; i-- ) {
+			Server split_candidate = path.getServer( i );
+			if ( !isPartOfIndex( split_candidate )
+					|| !containsAll( server_flow_bits_by_id[split_candidate.getId()], flows_of_interest_bits ) ) {
+				break;
+			}
+			split_index = i;
+		}
+		return split_index;
+	}
+
+	private static boolean containsAll( long[] bits, long[] subset_bits ) {
+		if ( bits == null ) {
+			return false;
+		}
+		for ( int w = 0; w < subset_bits.length; w++ ) {
+			if ( ( subset_bits[w] & ~bits[w] ) != 0 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+
+package org.networkcalculus.dnc.tandem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.CalculationContext;
+import org.networkcalculus.dnc.feedforward.ArrivalBoundDispatch;
+import org.networkcalculus.dnc.feedforward.ArrivalBoundPrecomputation;
+import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.Path;
+import org.networkcalculus.dnc.network.server_graph.Server;
+import org.networkcalculus.dnc.network.server_graph.ServerGraph;
+import org.networkcalculus.dnc.tandem.TandemAnalysis.Analyses;
+import org.networkcalculus.dnc.tandem.analyses.FIFOTandemAnalysis;
+import org.networkcalculus.dnc.tandem.analyses.PmooAnalysis;
+import org.networkcalculus.dnc.tandem.analyses.SeparateFlowAnalysis;
+import org.networkcalculus.dnc.tandem.analyses.TandemMatchingAnalysis;
+import org.networkcalculus.dnc.tandem.analyses.TotalFlowAnalysis;
+import org.networkcalculus.num.Num;
+
+/**
+ * Bounds all flows of a server graph concurrently on a fork-join pool.
+ * <p>
+ * Every flow is analyzed by its own analysis instance with its own copy of the
+ * configuration. The analyses run with a {@link CalculationContext} that has the
+ * settings of the thread calling <code>performAnalysis()</code>, they share the
+ * server graph, which must not be changed meanwhile, and the arrival bound cache.
+ */
+public class AllFlowsAnalysis {
+    private ServerGraph server_graph;
+    private AnalysisConfig configuration;
+    private Analyses analysis;
+    private ForkJoinPool pool;
+    private boolean precompute_arrival_bounds = false;
+
+    private Map<Flow, TandemAnalysis> map__flow__analysis = Collections.emptyMap();
+    private Map<Flow, Exception> map__flow__failure = Collections.emptyMap();
+    private Exception precompute_failure = null;
+
+    public AllFlowsAnalysis(ServerGraph server_graph, AnalysisConfig configuration, Analyses analysis) {
+        this(server_graph, configuration, analysis, ForkJoinPool.commonPool());
+    }
+
+    public AllFlowsAnalysis(ServerGraph server_graph, AnalysisConfig configuration, Analyses analysis, ForkJoinPool pool) {
+        this.server_graph = server_graph;
+        this.configuration = configuration.copy();
+        this.analysis = analysis;
+        this.pool = pool;
+    }
+
+    public ServerGraph getServerGraph() {
+        return server_graph;
+    }
+
+    public boolean precomputeArrivalBounds() {
+        return precompute_arrival_bounds;
+    }
+
+    /**
+     * Fills the arrival bound cache level by level before the flows are analyzed,
+     * see {@link ArrivalBoundPrecomputation}. Has no effect if the configuration disables the cache.
+     *
+     * @param precompute_abs <code>true</code> to precompute the arrival bounds in the pool of this analysis.
+     */
+    public void setPrecomputeArrivalBounds(boolean precompute_abs) {
+        precompute_arrival_bounds = precompute_abs;
+    }
+
+    /**
+     * Bounds all flows of the server graph.
+     *
+     * @return Mapping from each successfully analyzed flow to its analysis, ordered by flow id.
+     */
+    public Map<Flow, TandemAnalysis> performAnalysis() {
+        return performAnalysis(server_graph.getFlows());
+    }
+
+    /**
+     * Bounds the given flows of the server graph.
+     * <p>
+     * An exception thrown by the analysis of a flow does not stop the others,
+     * it is available via <code>getFailures()</code> afterwards.
+     *
+     * @param flows the flows to analyze.
+     * @return Mapping from each successfully analyzed flow to its analysis, ordered by flow id.
+     */
+    public Map<Flow, TandemAnalysis> performAnalysis(Collection<Flow> flows) {
+        List<Flow> flows_sorted = new ArrayList<Flow>(flows);
+        flows_sorted.sort(Comparator.comparingInt(Flow::getId));
+
+        Map<Flow, TandemAnalysis> analyses = new ConcurrentHashMap<Flow, TandemAnalysis>();
+        Map<Flow, Exception> failures = new ConcurrentHashMap<Flow, Exception>();
+        analyze(flows_sorted, analyses, failures);
+
+        return setResults(flows_sorted, analyses, failures);
+    }
+
+    /**
+     * Updates the results after the server graph changed, e.g., in a what-if loop.
+     * <p>
+     * The cached data depending on the changed servers is invalidated, see
+     * {@link ArrivalBoundDispatch#invalidate(ServerGraph, Collection)}. Flows crossing one of the
+     * changed servers or a server downstream of them are analyzed again, as well as flows
+     * that were added since the last analysis. Results of removed flows are dropped,
+     * all other results are kept. Afterwards, the results cover all flows of the server graph.
+     *
+     * @param changed_servers The servers that changed or that flows were added to or removed from.
+     * @return Mapping from each successfully analyzed flow of the server graph to its analysis, ordered by flow id.
+     */
+    public Map<Flow, TandemAnalysis> reanalyze(Collection<Server> changed_servers) {
+        Set<Server> affected_servers = ArrivalBoundDispatch.invalidate(server_graph, changed_servers);
+
+        List<Flow> flows_sorted = new ArrayList<Flow>(server_graph.getFlows());
+        flows_sorted.sort(Comparator.comparingInt(Flow::getId));
+
+        List<Flow> flows_to_analyze = new ArrayList<Flow>();
+        for (Flow flow : flows_sorted) {
+            if (!map__flow__analysis.containsKey(flow) && !map__flow__failure.containsKey(flow)) {
+                flows_to_analyze.add(flow);
+                continue;
+            }
+            Path path = flow.getPath();
+            for (int i = 0; i < path.numServers(); i++) {
+                if (affected_servers.contains(path.getServer(i))) {
+                    flows_to_analyze.add(flow);
+                    break;
+                }
+            }
+        }
+
+        Map<Flow, TandemAnalysis> analyses = new ConcurrentHashMap<Flow, TandemAnalysis>(map__flow__analysis);
+        Map<Flow, Exception> failures = new ConcurrentHashMap<Flow, Exception>(map__flow__failure);
+        analyses.keySet().removeAll(flows_to_analyze);
+        failures.keySet().removeAll(flows_to_analyze);
+        analyze(flows_to_analyze, analyses, failures);
+
+        return setResults(flows_sorted, analyses, failures);
+    }
+
+    private Map<Flow, TandemAnalysis> setResults(List<Flow> flows_sorted, Map<Flow, TandemAnalysis> analyses,
+                                                 Map<Flow, Exception> failures) {
+        map__flow__analysis = new LinkedHashMap<Flow, TandemAnalysis>();
+        map__flow__failure = new LinkedHashMap<Flow, Exception>();
+        for (Flow flow : flows_sorted) {
+            if (analyses.containsKey(flow)) {
+                map__flow__analysis.put(flow, analyses.get(flow));
+            } else {
+                map__flow__failure.put(flow, failures.get(flow));
+            }
+        }
+        return map__flow__analysis;
+    }
+
+    private void analyze(List<Flow> flows_sorted, Map<Flow, TandemAnalysis> analyses, Map<Flow, Exception> failures) {
+        CalculationContext context = CalculationContext.copyOfCurrent();
+
+        precompute_failure = null;
+        if (precompute_arrival_bounds && configuration.useArrivalBoundsCache()) {
+            try {
+                context.call(() -> {
+                    ArrivalBoundPrecomputation.precompute(server_graph, configuration, pool);
+                    return null;
+                });
+            } catch (Exception e) {
+                // Bounds that could not be precomputed are computed on demand again,
+                // the analyses of the flows needing them fail with the exception.
+                precompute_failure = e;
+            }
+        }
+
+        pool.invoke(new FlowRange(flows_sorted, 0, flows_sorted.size(), context, analyses, failures));
+    }
+
+    public Map<Flow, TandemAnalysis> getResults() {
+        return map__flow__analysis;
+    }
+
+    public Map<Flow, Exception> getFailures() {
+        return map__flow__failure;
+    }
+
+    /**
+     * The arrival bounds that could not be precomputed are derived on demand by the flow analyses instead.
+     *
+     * @return The exception thrown by the precomputation of the last analysis run, <code>null</code> if there was none.
+     */
+    public Exception getPrecomputeFailure() {
+        return precompute_failure;
+    }
+
+    public Map<Flow, Num> getDelayBounds() {
+        Map<Flow, Num> delay_bounds = new LinkedHashMap<Flow, Num>();
+        for (Map.Entry<Flow, TandemAnalysis> entry : map__flow__analysis.entrySet()) {
+            delay_bounds.put(entry.getKey(), entry.getValue().getDelayBound());
+        }
+        return delay_bounds;
+    }
+
+    public Map<Flow, Num> getBacklogBounds() {
+        Map<Flow, Num> backlog_bounds = new LinkedHashMap<Flow, Num>();
+        for (Map.Entry<Flow, TandemAnalysis> entry : map__flow__analysis.entrySet()) {
+            backlog_bounds.put(entry.getKey(), entry.getValue().getBacklogBound());
+        }
+        return backlog_bounds;
+    }
+
+    private TandemAnalysis analyze(Flow flow_of_interest) throws Exception {
+        AnalysisConfig task_configuration = configuration.copy();
+
+        TandemAnalysis tandem_analysis;
+        switch (analysis) {
+            case TFA:
+                tandem_analysis = new TotalFlowAnalysis(server_graph, task_configuration);
+                break;
+            case SFA:
+                tandem_analysis = new SeparateFlowAnalysis(server_graph, task_configuration);
+                break;
+            case PMOO:
+                tandem_analysis = new PmooAnalysis(server_graph, task_configuration);
+                break;
+            case TMA:
+                tandem_analysis = new TandemMatchingAnalysis(server_graph, task_configuration);
+                break;
+            case FIFO:
+                tandem_analysis = new FIFOTandemAnalysis(server_graph, task_configuration);
+                break;
+            default:
+                throw new Exception("Unknown analysis " + analysis);
+        }
+        tandem_analysis.performAnalysis(flow_of_interest);
+        return tandem_analysis;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + analysis + ", " + configuration + ")";
+    }
+
+    /**
+     * Splits the flows in halves until a single one is left such that idle
+     * workers can steal the analysis of the remaining flows.
+     */
+    @SuppressWarnings("serial")
+    private class FlowRange extends RecursiveAction {
+        private final List<Flow> flows;
+        private final int from;
+        private final int to;
+        private final CalculationContext context;
+        private final Map<Flow, TandemAnalysis> analyses;
+        private final Map<Flow, Exception> failures;
+
+        FlowRange(List<Flow> flows, int from, int to, CalculationContext context,
+                  Map<Flow, TandemAnalysis> analyses, Map<Flow, Exception> failures) {
+            this.flows = flows;
+            this.from = from;
+            this.to = to;
+            this.context = context;
+            this.analyses = analyses;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new FlowRange(flows, from, mid, context, analyses, failures),
+                        new FlowRange(flows, mid, to, context, analyses, failures));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+
+            Flow flow = flows.get(from);
+            // A fresh context per flow, the analyses may change its multiplexing enforcement.
+            CalculationContext flow_context = new CalculationContext(context.getNumBackend(),
+                    context.getDncBackend(), context.enforceMultiplexing());
+            try {
+                analyses.put(flow, flow_context.call(() -> analyze(flow)));
+            } catch (Exception e) {
+                failures.put(flow, e);
+            }
+        }
+    }
+}
@@ -43,7 +43,7 @@ import org.networkcalculus.num.Num;
 
 public interface TandemAnalysis {
     enum Analyses {
-        TFA, SFA, PMOO, TMA
+        TFA, SFA, PMOO, TMA, FIFO
     }
     
     // ----------------------------------------------------------------------------------------------------
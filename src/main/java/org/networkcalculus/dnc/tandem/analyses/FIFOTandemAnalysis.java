@@ -8,7 +8,6 @@ import org.networkcalculus.dnc.bounds.disco.pw_affine.LeftOverService_Disco_PwAf
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.ServiceCurve;
-import org.networkcalculus.dnc.curves.disco.pw_affine.Curve_Disco_PwAffine;
 import org.networkcalculus.dnc.feedforward.ArrivalBoundDispatchFIFO;
 import org.networkcalculus.dnc.network.server_graph.Flow;
 import org.networkcalculus.dnc.network.server_graph.Path;
@@ -197,9 +196,7 @@ public class FIFOTandemAnalysis extends AbstractTandemAnalysis {
                     ServiceCurve sc = sc_crossflow_w_path_as_subpath;
                     Num burst = ac.getBurst();
 
-                    Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc;
-
-                    Num theta_curr_lb = curve.f_inv(burst);
+                    Num theta_curr_lb = sc.f_inv(burst);
                     return LeftOverService_Disco_PwAffine.fifoMux(sc, ac, theta_curr_lb);
                 }
                 else{
@@ -223,8 +220,7 @@ public class FIFOTandemAnalysis extends AbstractTandemAnalysis {
                     NestedTandemAnalysis tandem_analysis = new NestedTandemAnalysis(path, flow_substitute_foi_w_crossflow, all_flow_substitutes, configuration);
                     ServiceCurve sc_lo_foi_w_crossflow = tandem_analysis.getServiceCurve();
                     Num burst = flow_substitute_foi_w_crossflow.getArrivalCurve().getBurst();
-                    Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc_lo_foi_w_crossflow;
-                    Num theta = curve.f_inv(burst);
+                    Num theta = sc_lo_foi_w_crossflow.f_inv(burst);
                     return LeftOverService_Disco_PwAffine.fifoMux(sc_lo_foi_w_crossflow, ac_crossflow_substitutes_path_as_subpath, theta);
                 }
             }
@@ -268,9 +264,7 @@ public class FIFOTandemAnalysis extends AbstractTandemAnalysis {
                             ServiceCurve sc = beta_lo_child;
                             Num burst = ac.getBurst();
 
-                            Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc;
-
-                            Num theta_curr_lb = curve.f_inv(burst);
+                            Num theta_curr_lb = sc.f_inv(burst);
                             ServiceCurve subtandem_foi_lo = LeftOverService_Disco_PwAffine.fifoMux(beta_lo_child, foi_child_flow.getArrivalCurve(), theta_curr_lb);
                             leftover = Calculator.getInstance().getMinPlus().convolve(leftover, subtandem_foi_lo);
                         }
@@ -301,9 +295,7 @@ public class FIFOTandemAnalysis extends AbstractTandemAnalysis {
                     ServiceCurve sc = sc_crossflow_w_path_as_subpath;
                     Num burst = ac.getBurst();
 
-                    Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc;
-
-                    Num theta_curr_lb = curve.f_inv(burst);
+                    Num theta_curr_lb = sc.f_inv(burst);
                     return LeftOverService_Disco_PwAffine.fifoMux(sc, ac, theta_curr_lb);
                 }
 
@@ -335,8 +327,7 @@ public class FIFOTandemAnalysis extends AbstractTandemAnalysis {
                     NonNestedTandemAnalysis tandem_analysis = new NonNestedTandemAnalysis(server_graph, configuration, path, flow_substitute_foi_w_crossflow, all_flow_substitutes, crossflows_subpath_grouped_minus_crossflow_w_path, false);
                     ServiceCurve sc_lo_foi_w_crossflow = tandem_analysis.getServiceCurve();
                     Num burst = flow_substitute_foi_w_crossflow.getArrivalCurve().getBurst();
-                    Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc_lo_foi_w_crossflow;
-                    Num theta = curve.f_inv(burst);
+                    Num theta = sc_lo_foi_w_crossflow.f_inv(burst);
                     return LeftOverService_Disco_PwAffine.fifoMux(sc_lo_foi_w_crossflow, ac_crossflow_substitutes_path_as_subpath, theta);
                 }
             }
@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math3.util.Pair;
 import org.networkcalculus.dnc.AlgDncBackend_DNC_Affine;
@@ -73,6 +74,22 @@ public class PmooAnalysis extends AbstractTandemAnalysis {
         super.result = new PmooResults();
     }
     
+    private static volatile ForkJoinPool enumeration_pool = null;
+
+    /**
+     * Enables enumerating the combinations of token bucket and rate latency components in parallel.
+     * Sufficiently large sets of combinations are split into tasks of <code>pool</code>.
+     *
+     * @param pool The pool to enumerate in, <code>null</code> to enumerate sequentially (default).
+     */
+    public static void setForkJoinPool(ForkJoinPool pool) {
+        enumeration_pool = pool;
+    }
+
+    public static ForkJoinPool getForkJoinPool() {
+        return enumeration_pool;
+    }
+
     public static ServiceCurve getServiceCurve(Path path, List<Flow> cross_flow_substitutes) {
     	if( Calculator.getInstance().getDncBackend() == AlgDncBackend_DNC_Affine.DISCO_AFFINE) {
     		return getServiceCurve_Affine(path, cross_flow_substitutes);
@@ -89,7 +106,7 @@ public class PmooAnalysis extends AbstractTandemAnalysis {
     		flows_at_current_server = new HashSet<Flow>();
     		
     		for (Flow f : cross_flow_substitutes) {
-    			if( f.getPath().getServers().contains(s)) {
+    			if( f.getPath().contains(s)) {
     				flows_at_current_server.add(f);
     			}
     		}
@@ -147,9 +164,11 @@ public class PmooAnalysis extends AbstractTandemAnalysis {
      * <p>
      * It first decomposes all arrival curves (service curves) into token buckets
      * (rate latency curves), enumerates over all combinations of token buckets and
-     * rate latency curves, and calls <code>computePartialPMOOServiceCurve()</code>
-     * for each combination. The total PMOO service curve is the maximum of all
-     * partial service curves.
+     * rate latency curves, and computes the partial service curve of
+     * <code>computePartialPMOOServiceCurve()</code> for each combination. The total
+     * PMOO service curve is the maximum of all partial service curves.
+     * Combinations whose partial service curves cannot exceed the maximum found so far
+     * are skipped, see {@link #setForkJoinPool(ForkJoinPool)} to enumerate them in parallel.
      *
      * @param path                   The Path traversed for which a PMOO left-over service curve will
      *                               be computed.
@@ -158,70 +177,7 @@ public class PmooAnalysis extends AbstractTandemAnalysis {
      * @return The PMOO service curve
      */
     public static ServiceCurve getServiceCurve_ConPwAffine(Path path, List<Flow> cross_flow_substitutes) {
-        // Create a flow-->tb_iter map
-        Map<Flow, Integer> flow_tb_iter_map = new HashMap<Flow, Integer>();
-        for (Flow f : cross_flow_substitutes) {
-            flow_tb_iter_map.put(f, Integer.valueOf(0));
-        }
-        // Create a list of rl_iters
-        int number_servers = path.getServers().size();
-        ServiceCurve[] service_curves = new ServiceCurve[number_servers];
-        int[] server_rl_iters = new int[number_servers];
-        int[] server_rl_counts = new int[number_servers];
-        int i = 0;
-        for (Server server : path.getServers()) {
-            ServiceCurve service_curve = server.getServiceCurve();
-            service_curves[i] = service_curve;
-            server_rl_iters[i] = 0;
-            server_rl_counts[i] = service_curve.getRL_ComponentCount();
-            i++;
-        }
-
-        ServiceCurve beta_total = Curve_ConstantPool.ZERO_SERVICE_CURVE.get();
-
-        boolean more_combinations = true;
-        while (more_combinations) {
-            // Compute service curve for this combination
-            ServiceCurve beta = computePartialPMOOServiceCurve(path, service_curves, cross_flow_substitutes,
-                    flow_tb_iter_map, server_rl_iters);
-            if (!beta.equals(Curve_ConstantPool.ZERO_SERVICE_CURVE.get())) {
-                beta_total = Curve.getUtils().max(beta_total, beta);
-            }
-
-            // First check whether there are more combinations of flow TBs
-            more_combinations = false;
-            Flow f;
-            ArrivalCurve f_bound;
-            for (Entry<Flow, Integer> entry : flow_tb_iter_map.entrySet()) {
-                f = entry.getKey();
-                f_bound = f.getArrivalCurve();
-
-                i = flow_tb_iter_map.get(f).intValue();
-                if (i + 1 < f_bound.getTB_ComponentCount()) {
-                    flow_tb_iter_map.put(f, Integer.valueOf(i + 1));
-                    more_combinations = true;
-                    break;
-                } else {
-                    flow_tb_iter_map.put(f, Integer.valueOf(0));
-                }
-            }
-
-            // If not, check whether there are more combinations of server RLs
-            if (!more_combinations) {
-                for (i = 0; i < server_rl_iters.length; i++) {
-                    int j = server_rl_iters[i];
-                    if (j + 1 < server_rl_counts[i]) {
-                        server_rl_iters[i] = j;
-                        more_combinations = true;
-                        break;
-                    } else {
-                        server_rl_iters[i] = 0;
-                    }
-                }
-            }
-        }
-
-        return beta_total;
+        return PmooComponentEnumeration.getServiceCurve(path, cross_flow_substitutes);
     }
 
     /**
@@ -254,10 +210,10 @@ public class PmooAnalysis extends AbstractTandemAnalysis {
         Set<Flow> present_flows = new HashSet<Flow>();
         for (Server s : path.getServers()) {
             sum_r_at_s = 0.0;
-            int i = path.getServers().indexOf(s);
+            int i = path.indexOf(s);
             // Add incoming flows
             for (Flow f : cross_flow_substitutes) {
-                if (f.getPath().getServers().contains(s)) { // The exact path of the substitute does not matter, only
+                if (f.getPath().contains(s)) { // The exact path of the substitute does not matter, only
                     // the shared servers with the flow of interest do
                     present_flows.add(f);
                     sum_r_at_s += f.getArrivalCurve().getUltAffineRate().doubleValue();
@@ -298,7 +254,7 @@ public class PmooAnalysis extends AbstractTandemAnalysis {
             // Remove all outgoing flows from the set of present flows
             Set<Flow> leaving_flows = new HashSet<Flow>();
             for (Flow f : present_flows) {
-                if (path.getServers().indexOf(f.getSink()) <= i) {
+                if (path.indexOf(f.getSink()) <= i) {
                     leaving_flows.add(f);
                 }
             }
@@ -594,7 +550,7 @@ public class PmooAnalysis extends AbstractTandemAnalysis {
             for (Path potential_path : paths_starting_in_s.get(subpath_src)) {
 
                 // Naturally, a prolonged subpath of path needs to be longer than the original one.
-                if (potential_path.getServers().size() <= current_subpath.getServers().size()) {
+                if (potential_path.numServers() <= current_subpath.numServers()) {
                     continue;
                 }
 
@@ -0,0 +1,392 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+
+package org.networkcalculus.dnc.tandem.analyses;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.networkcalculus.dnc.CalculationContext;
+import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.curves.ArrivalCurve;
+import org.networkcalculus.dnc.curves.Curve;
+import org.networkcalculus.dnc.curves.Curve_ConstantPool;
+import org.networkcalculus.dnc.curves.ServiceCurve;
+import org.networkcalculus.dnc.feedforward.ArrivalBoundPruning;
+import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.Path;
+import org.networkcalculus.dnc.network.server_graph.Server;
+import org.networkcalculus.num.Num;
+
+/**
+ * Enumerates the combinations of the cross-flow substitutes' token bucket components and
+ * the servers' rate latency components for {@link PmooAnalysis#getServiceCurve_ConPwAffine(Path, List)}.
+ * <p>
+ * The combinations form a tree, the flows' components are chosen first, then the servers' ones.
+ * It is searched depth-first with branch and bound: for a partially chosen combination,
+ * the unchosen components are replaced by the ones with the lowest rates, bursts and latencies
+ * and the highest server rates. The resulting rate latency curve lies above the partial
+ * service curves of all combinations in the subtree, if it is below the maximum found so far,
+ * the subtree is skipped. Rates, bursts and latencies of the components are derived once.
+ * <p>
+ * With a pool set in {@link PmooAnalysis#setForkJoinPool(ForkJoinPool)}, subtrees of
+ * sufficiently many combinations are searched as tasks of the pool and their maxima are combined.
+ */
+final class PmooComponentEnumeration {
+    private static final long MIN_COMBINATIONS_TO_FORK = 1L << 10;
+
+    private final int number_flows;
+    private final int number_servers;
+
+    private final Num[][] flow_tb_rates;
+    private final Num[][] flow_tb_bursts;
+    private final Num[] flow_min_rates;
+    private final Num[] flow_min_bursts;
+    // Index of the flow per entry of the cross-flow substitutes, a substitute's burst is added per entry.
+    private final int[] substitute_flows;
+
+    private final Num[][] server_rl_rates;
+    private final Num[][] server_rl_latencies;
+    private final Num[] server_max_rates;
+    private final Num[] server_min_latencies;
+    // Flows present at a server, i.e., the ones of its left-over rate.
+    private final int[][] server_flows;
+
+    // Number of combinations below a node of depth i.
+    private final long[] combinations_below;
+
+    private final Num compute = Num.getUtils(Calculator.getInstance().getNumBackend());
+    private final ServiceCurve zero_service = Curve_ConstantPool.ZERO_SERVICE_CURVE.get();
+
+    private PmooComponentEnumeration(Path path, List<Flow> cross_flow_substitutes) {
+        Map<Flow, Integer> map__flow__index = new LinkedHashMap<Flow, Integer>();
+        substitute_flows = new int[cross_flow_substitutes.size()];
+        int k = 0;
+        for (Flow f : cross_flow_substitutes) {
+            Integer index = map__flow__index.get(f);
+            if (index == null) {
+                index = map__flow__index.size();
+                map__flow__index.put(f, index);
+            }
+            substitute_flows[k++] = index;
+        }
+
+        number_flows = map__flow__index.size();
+        flow_tb_rates = new Num[number_flows][];
+        flow_tb_bursts = new Num[number_flows][];
+        flow_min_rates = new Num[number_flows];
+        flow_min_bursts = new Num[number_flows];
+        for (Map.Entry<Flow, Integer> entry : map__flow__index.entrySet()) {
+            int f = entry.getValue();
+            ArrivalCurve bound = entry.getKey().getArrivalCurve();
+            int count = bound.getTB_ComponentCount();
+            flow_tb_rates[f] = new Num[count];
+            flow_tb_bursts[f] = new Num[count];
+            for (int i = 0; i < count; i++) {
+                ArrivalCurve current_tb = Calculator.getInstance().getCurveFactory().createArrivalCurve(bound.getTB_Component(i));
+                flow_tb_rates[f][i] = current_tb.getUltAffineRate();
+                flow_tb_bursts[f][i] = current_tb.getBurst();
+                flow_min_rates[f] = i == 0 ? flow_tb_rates[f][i] : compute.min(flow_min_rates[f], flow_tb_rates[f][i]);
+                flow_min_bursts[f] = i == 0 ? flow_tb_bursts[f][i] : compute.min(flow_min_bursts[f], flow_tb_bursts[f][i]);
+            }
+        }
+
+        number_servers = path.numServers();
+        server_rl_rates = new Num[number_servers][];
+        server_rl_latencies = new Num[number_servers][];
+        server_max_rates = new Num[number_servers];
+        server_min_latencies = new Num[number_servers];
+        server_flows = new int[number_servers][];
+        Set<Flow> present_flows = new LinkedHashSet<Flow>();
+        for (int s = 0; s < number_servers; s++) {
+            Server server = path.getServer(s);
+            ServiceCurve service_curve = server.getServiceCurve();
+            int count = service_curve.getRL_ComponentCount();
+            server_rl_rates[s] = new Num[count];
+            server_rl_latencies[s] = new Num[count];
+            for (int i = 0; i < count; i++) {
+                ServiceCurve current_rl = Calculator.getInstance().getCurveFactory().createServiceCurve(service_curve.getRL_Component(i));
+                server_rl_rates[s][i] = current_rl.getUltAffineRate();
+                server_rl_latencies[s][i] = current_rl.getLatency();
+                server_max_rates[s] = i == 0 ? server_rl_rates[s][i] : compute.max(server_max_rates[s], server_rl_rates[s][i]);
+                server_min_latencies[s] = i == 0 ? server_rl_latencies[s][i] : compute.min(server_min_latencies[s], server_rl_latencies[s][i]);
+            }
+
+            // The flows present at a server do not depend on the combination.
+            for (Flow f : cross_flow_substitutes) {
+                if (f.getPath().contains(server)) { // The exact path of the substitute does not matter, only
+                    // the shared servers with the flow of interest do
+                    present_flows.add(f);
+                }
+            }
+            server_flows[s] = new int[present_flows.size()];
+            k = 0;
+            for (Flow f : present_flows) {
+                server_flows[s][k++] = map__flow__index.get(f);
+            }
+
+            // Remove all outgoing flows from the set of present flows
+            int s_index = s;
+            present_flows.removeIf(f -> path.indexOf(f.getSink()) <= s_index);
+        }
+
+        int depth = number_flows + number_servers;
+        combinations_below = new long[depth + 1];
+        combinations_below[depth] = 1;
+        for (int d = depth - 1; d >= 0; d--) {
+            long count = getComponentCount(d);
+            combinations_below[d] = count == 0 ? 0
+                    : combinations_below[d + 1] > Long.MAX_VALUE / count ? Long.MAX_VALUE : combinations_below[d + 1] * count;
+        }
+    }
+
+    /**
+     * @return The maximum of the partial PMOO service curves of all combinations.
+     */
+    static ServiceCurve getServiceCurve(Path path, List<Flow> cross_flow_substitutes) {
+        if (isUnstable(path, cross_flow_substitutes)) {
+            return Curve.getFactory().createZeroService();
+        }
+        return new PmooComponentEnumeration(path, cross_flow_substitutes).search();
+    }
+
+    /**
+     * A server whose rate is exceeded by its cross-flows' rates has no left-over service,
+     * neither has the tandem for any combination of components.
+     */
+    private static boolean isUnstable(Path path, List<Flow> cross_flow_substitutes) {
+        for (int s = 0; s < path.numServers(); s++) {
+            Server server = path.getServer(s);
+            double sum_r_at_s = 0.0;
+            for (Flow f : cross_flow_substitutes) {
+                if (f.getPath().contains(server)) {
+                    sum_r_at_s += f.getArrivalCurve().getUltAffineRate().doubleValue();
+                }
+            }
+            if (sum_r_at_s >= server.getServiceCurve().getUltAffineRate().doubleValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getComponentCount(int depth) {
+        return depth < number_flows ? flow_tb_rates[depth].length : server_rl_rates[depth - number_flows].length;
+    }
+
+    private ServiceCurve search() {
+        int[] components = new int[number_flows + number_servers];
+        ForkJoinPool pool = PmooAnalysis.getForkJoinPool();
+        if (pool == null || combinations_below[0] < MIN_COMBINATIONS_TO_FORK) {
+            return search(0, components, zero_service);
+        }
+
+        SubTree root = new SubTree(0, components, zero_service, CalculationContext.current());
+        return ForkJoinTask.getPool() == pool ? root.invoke() : pool.invoke(root);
+    }
+
+    /**
+     * @param depth       The number of chosen components.
+     * @param components  The chosen components, index per flow and then per server.
+     * @param beta_max    The maximum found so far.
+     * @return The maximum of <code>beta_max</code> and the subtree's partial service curves.
+     */
+    private ServiceCurve search(int depth, int[] components, ServiceCurve beta_max) {
+        if (depth == components.length) {
+            ServiceCurve beta = computePartialServiceCurve(components);
+            if (beta == null || isBelow(beta, beta_max)) {
+                return beta_max;
+            }
+            return Curve.getUtils().max(beta_max, beta);
+        }
+        if (isPruned(depth, components, beta_max)) {
+            return beta_max;
+        }
+
+        for (int i = 0; i < getComponentCount(depth); i++) {
+            components[depth] = i;
+            beta_max = search(depth + 1, components, beta_max);
+        }
+        return beta_max;
+    }
+
+    private boolean isBelow(ServiceCurve beta, ServiceCurve beta_max) {
+        return !beta_max.equals(zero_service) && ArrivalBoundPruning.isLeq(beta, beta_max);
+    }
+
+    /**
+     * Same as {@link PmooAnalysis#computePartialPMOOServiceCurve} with the derived rates, bursts and latencies.
+     *
+     * @return The partial PMOO service curve, <code>null</code> if there is no left-over service.
+     */
+    private ServiceCurve computePartialServiceCurve(int[] components) {
+        Num T = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+        Num R = Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity();
+        Num sum_bursts = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+        Num sum_latencyterms = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+
+        for (int s = 0; s < number_servers; s++) {
+            int rl = components[number_flows + s];
+            Num latency = server_rl_latencies[s][rl];
+
+            // Sum up latencies
+            T = compute.add(T, latency);
+
+            // Compute and store sum of rates of all passing flows
+            Num sum_r = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+            for (int f : server_flows[s]) {
+                sum_r = compute.add(sum_r, flow_tb_rates[f][components[f]]);
+            }
+
+            // Update latency terms (increments)
+            sum_latencyterms = compute.add(sum_latencyterms, compute.mult(sum_r, latency));
+
+            // Compute left-over rate; update min
+            Num Ri = compute.sub(server_rl_rates[s][rl], sum_r);
+            if (Ri.leqZero()) {
+                return null;
+            }
+            R = compute.min(R, Ri);
+        }
+
+        // Compute sum of bursts
+        for (int f : substitute_flows) {
+            sum_bursts = compute.add(sum_bursts, flow_tb_bursts[f][components[f]]);
+        }
+
+        T = compute.add(T, compute.div(compute.add(sum_bursts, sum_latencyterms), R));
+
+        if (T == Num.getFactory(Calculator.getInstance().getNumBackend()).getPositiveInfinity()) {
+            return null;
+        }
+        if (R == Num.getFactory(Calculator.getInstance().getNumBackend()).getPositiveInfinity()) {
+            return Curve.getFactory().createDelayedInfiniteBurst(T);
+        }
+        return Curve.getFactory().createRateLatency(R, T);
+    }
+
+    /**
+     * @return Whether no combination below the node can have a partial service curve
+     *         that is not below <code>beta_max</code>.
+     */
+    private boolean isPruned(int depth, int[] components, ServiceCurve beta_max) {
+        if (depth == 0 || combinations_below[depth] == 1) {
+            return false;
+        }
+
+        Num T = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+        Num R = Num.getFactory(Calculator.getInstance().getNumBackend()).createPositiveInfinity();
+        Num sum_bursts = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+        Num sum_latencyterms = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+
+        for (int s = 0; s < number_servers; s++) {
+            boolean chosen = number_flows + s < depth;
+            Num latency = chosen ? server_rl_latencies[s][components[number_flows + s]] : server_min_latencies[s];
+            Num rate = chosen ? server_rl_rates[s][components[number_flows + s]] : server_max_rates[s];
+
+            T = compute.add(T, latency);
+            Num sum_r = Num.getFactory(Calculator.getInstance().getNumBackend()).createZero();
+            for (int f : server_flows[s]) {
+                sum_r = compute.add(sum_r, f < depth ? flow_tb_rates[f][components[f]] : flow_min_rates[f]);
+            }
+            sum_latencyterms = compute.add(sum_latencyterms, compute.mult(sum_r, latency));
+
+            Num Ri = compute.sub(rate, sum_r);
+            if (Ri.leqZero()) {
+                return true;
+            }
+            R = compute.min(R, Ri);
+        }
+        if (beta_max.equals(zero_service) || number_servers == 0) {
+            return false;
+        }
+
+        for (int f : substitute_flows) {
+            sum_bursts = compute.add(sum_bursts, f < depth ? flow_tb_bursts[f][components[f]] : flow_min_bursts[f]);
+        }
+        T = compute.add(T, compute.div(compute.add(sum_bursts, sum_latencyterms), R));
+
+        return ArrivalBoundPruning.isLeq(Curve.getFactory().createRateLatency(R, T), beta_max);
+    }
+
+    @SuppressWarnings("serial")
+    private class SubTree extends RecursiveTask<ServiceCurve> {
+        private final int depth;
+        private final int[] components;
+        private final ServiceCurve beta_max;
+        private final CalculationContext context;
+
+        private SubTree(int depth, int[] components, ServiceCurve beta_max, CalculationContext context) {
+            this.depth = depth;
+            this.components = components;
+            this.beta_max = beta_max;
+            this.context = context;
+        }
+
+        @Override
+        protected ServiceCurve compute() {
+            if (context == null) {
+                return computeSubTree();
+            }
+            // Workers use the calculation settings of the thread that forked the task.
+            ServiceCurve[] result = new ServiceCurve[1];
+            context.run(() -> result[0] = computeSubTree());
+            return result[0];
+        }
+
+        private ServiceCurve computeSubTree() {
+            if (combinations_below[depth] < MIN_COMBINATIONS_TO_FORK) {
+                return search(depth, components, beta_max);
+            }
+            if (isPruned(depth, components, beta_max)) {
+                return beta_max;
+            }
+
+            List<SubTree> subtrees = new ArrayList<SubTree>();
+            for (int i = 0; i < getComponentCount(depth); i++) {
+                int[] subtree_components = components.clone();
+                subtree_components[depth] = i;
+                subtrees.add(new SubTree(depth + 1, subtree_components, beta_max, context));
+            }
+            invokeAll(subtrees);
+
+            ServiceCurve beta_total = beta_max;
+            for (SubTree subtree : subtrees) {
+                ServiceCurve beta = subtree.join();
+                if (beta != beta_max && !beta.equals(zero_service) && !isBelow(beta, beta_total)) {
+                    beta_total = beta_total.equals(zero_service) ? beta : Curve.getUtils().max(beta_total, beta);
+                }
+            }
+            return beta_total;
+        }
+    }
+}
@@ -28,14 +28,19 @@
 
 package org.networkcalculus.dnc.tandem.analyses;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.math3.util.Pair;
+
 import org.networkcalculus.dnc.AnalysisConfig;
 import org.networkcalculus.dnc.Calculator;
 import org.networkcalculus.dnc.curves.ArrivalCurve;
@@ -84,7 +89,7 @@ public class SeparateFlowAnalysis extends AbstractTandemAnalysis {
 
     public void performAnalysis(Flow flow_of_interest, Server server) throws Exception {
         Path path_foi = flow_of_interest.getPath();
-        if (!path_foi.getServers().contains(server)) {
+        if (!path_foi.contains(server)) {
             throw new Exception("Given server is not on the flow of interest's path.");
         }
 
@@ -114,6 +119,44 @@ public class SeparateFlowAnalysis extends AbstractTandemAnalysis {
         }
     }
     
+    /**
+     * Performs a separated flow analysis for each of the given flows.
+     * <p>
+     * Flows with equal paths and equal arrival curves are interchangeable: each one
+     * faces the others as cross-traffic at every server, such that their left-over
+     * service curves and bounds are equal. The analysis is thus performed for the
+     * first flow of such a group only, the others get their own shallow copies of
+     * its results whose sets and maps cannot be modified.
+     * The results equal the ones of analyzing each flow on its own, up to the order
+     * of curve additions over hash sets of flows.
+     *
+     * @param server_graph  The server graph the flows belong to.
+     * @param flows         The flows to analyze.
+     * @param configuration The configuration of all analyses.
+     * @return Mapping from each flow to its analysis in the order of <code>flows</code>.
+     * @throws Exception The analysis of a flow failed.
+     */
+    public static Map<Flow, SeparateFlowAnalysis> performAnalysis(ServerGraph server_graph, Collection<Flow> flows, AnalysisConfig configuration)
+            throws Exception {
+        Map<Flow, SeparateFlowAnalysis> analyses = new LinkedHashMap<Flow, SeparateFlowAnalysis>();
+        Map<Pair<Path, ArrivalCurve>, SeparateFlowResults> map__group__result = new HashMap<Pair<Path, ArrivalCurve>, SeparateFlowResults>();
+
+        for (Flow flow : flows) {
+            SeparateFlowAnalysis sfa = new SeparateFlowAnalysis(server_graph, configuration);
+            Pair<Path, ArrivalCurve> group = new Pair<Path, ArrivalCurve>(flow.getPath(), flow.getArrivalCurve());
+
+            SeparateFlowResults group_result = map__group__result.get(group);
+            if (group_result == null) {
+                sfa.performAnalysis(flow);
+                map__group__result.put(group, ((SeparateFlowResults) sfa.result).copyUnmodifiable());
+            } else {
+                sfa.result = group_result.copyUnmodifiable();
+            }
+            analyses.put(flow, sfa);
+        }
+        return analyses;
+    }
+
     @Deprecated
     protected Set<ServiceCurve> getServiceCurves(Flow flow_of_interest, Path path, Set<Flow> flows_to_serve) throws Exception {
         return tandemAnalysis(server_graph,flow_of_interest, path, flows_to_serve, configuration).betas_e2e;
@@ -187,7 +230,7 @@ public class SeparateFlowAnalysis extends AbstractTandemAnalysis {
                     // Backtracking offpath requires to hand over a NULL flow that has ID -1.
 
                     Path foi_path = flow_of_interest.getPath();
-                    if( foi_path.getServers().contains(server) && !foi_path.isSource(server) ) {
+                    if( foi_path.contains(server) && !foi_path.isSource(server) ) {
                         turn_from_prev_s = server_graph.findTurn(foi_path.getPrecedingServer(server), server);
                         f_xxfcaller_server_onpath = SetUtils.getIntersection(f_xxfcaller_server, server_graph.getFlows(turn_from_prev_s));
                     }
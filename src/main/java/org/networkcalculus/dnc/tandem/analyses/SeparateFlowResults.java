@@ -60,6 +60,26 @@ public class SeparateFlowResults extends TandemAnalysisResults {
         this.map__server__betas_lo = map__server__betas_lo;
     }
 
+    /**
+     * Returns a shallow copy of these results whose sets and maps cannot be modified.
+     * The curves and bounds are shared with these results.
+     *
+     * @return The unmodifiable copy.
+     */
+    protected SeparateFlowResults copyUnmodifiable() {
+        return new SeparateFlowResults(delay_bound, backlog_bound,
+                Collections.unmodifiableSet(new HashSet<ServiceCurve>(betas_e2e)),
+                copyUnmodifiable(map__server__betas_lo), copyUnmodifiable(map__server__alphas));
+    }
+
+    private static <C> Map<Server, Set<C>> copyUnmodifiable(Map<Server, Set<C>> map__server__curves) {
+        Map<Server, Set<C>> map__server__curves_cpy = new HashMap<Server, Set<C>>();
+        for (Entry<Server, Set<C>> entry : map__server__curves.entrySet()) {
+            map__server__curves_cpy.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<C>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(map__server__curves_cpy);
+    }
+
     @Override
     protected void setDelayBound(Num delay_bound) {
         super.setDelayBound(delay_bound);
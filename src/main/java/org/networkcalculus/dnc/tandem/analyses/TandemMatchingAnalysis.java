@@ -26,12 +26,15 @@
 
 package org.networkcalculus.dnc.tandem.analyses;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.apache.commons.math3.util.Pair;
@@ -45,6 +48,7 @@ import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.Curve_ConstantPool;
 import org.networkcalculus.dnc.curves.ServiceCurve;
 import org.networkcalculus.dnc.feedforward.ArrivalBoundDispatch;
+import org.networkcalculus.dnc.feedforward.ArrivalBoundPruning;
 import org.networkcalculus.dnc.network.server_graph.Flow;
 import org.networkcalculus.dnc.network.server_graph.Path;
 import org.networkcalculus.dnc.network.server_graph.Server;
@@ -54,6 +58,9 @@ import org.networkcalculus.dnc.tandem.AbstractTandemAnalysis;
 import org.networkcalculus.num.Num;
 
 public class TandemMatchingAnalysis extends AbstractTandemAnalysis {
+	// The combinations are enumerated as the bits of a long counting up to 2^(number of turns).
+	private static final int MAX_TURNS_SUB_PATH_COMBINATIONS = 62;
+
 	@SuppressWarnings("unused")
 	private TandemMatchingAnalysis() {}
 
@@ -120,83 +127,110 @@ public class TandemMatchingAnalysis extends AbstractTandemAnalysis {
 		}
 	}
 	
-	public static List<List<Path>> getAllSubPathCombinations( Path path ) {
-		List<Turn> path_turns = path.getTurns();
-		int path_length = path_turns.size();
+	/**
+	 * Enumerates all 2^(number of turns) ways to cut the path into sub-paths.
+	 * The combinations are created lazily while iterating, none of them is kept by the returned iterable.
+	 * The analysis itself does not enumerate them anymore, see {@link #getServiceCurves(Flow, Path, Set)}.
+	 * 
+	 * @param path The path to cut, it must not have more than 62 turns.
+	 * @return All combinations of sub-paths, each combination ordered from the path's source to its sink.
+	 */
+	public static Iterable<List<Path>> getAllSubPathCombinations( Path path ) {
+		int path_length = path.numTurns();
+		if ( path_length > MAX_TURNS_SUB_PATH_COMBINATIONS ) {
+			throw new IllegalArgumentException( "Cannot enumerate the 2^" + path_length + " sub-path combinations of a path with " + path_length + " turns" );
+		}
 
-		List<List<Path>> sub_path_combinations = new LinkedList<List<Path>>();
-		
-		// Get all binary combinations (turn = cut it Y/N)
-		// Store as list of turns to cut
+		return () -> new Iterator<List<Path>>() {
+			// Binary combinations (turn i = cut it Y/N as bit i)
+			private long cuts = 0;
 
-		sub_path_combinations.add( new LinkedList<Path>( Collections.singleton( path ) ) );	
-		
-		for ( int i = 1; i < (int) Math.pow( 2, path_length ); i++ ) {
-			String s = Integer.toBinaryString( i );
-			
-			LinkedList<Turn> cuts = new LinkedList<Turn>();
-			for( int j = s.length() - 1; j >= 0; j-- ) {
-				if( s.charAt( j ) == '1' ) {
-					cuts.add( path_turns.get( s.length() - j - 1) );
-				}
+			@Override
+			public boolean hasNext() {
+				return cuts < 1L << path_length;
 			}
 
-			List<Path> sub_paths = new LinkedList<Path>();
-			
-			Server from = path.getSource();
-			Server to = cuts.get( 0 ).getSource();
-			
-			try {
-				// from and to are inclusive!
-				sub_paths.add( path.getSubPath( from, to ) );
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-			
-			if( cuts.size() > 1 ) { // otherwise there will only be two sub-paths
-				for( int j = 1; j < cuts.size(); j++ ) {
-					from = cuts.get( j-1 ).getDest();
-					to = cuts.get( j ).getSource();
-					try {
+			@Override
+			public List<Path> next() {
+				if ( !hasNext() ) {
+					throw new NoSuchElementException();
+				}
+				List<Path> sub_paths = new LinkedList<Path>();
+
+				int from = 0;
+				for ( int i = 0; i < path_length; i++ ) {
+					if ( ( cuts & 1L << i ) != 0 ) {
 						// from and to are inclusive!
-						sub_paths.add( path.getSubPath( from, to ) );
-					} catch (Exception e) {
-						e.printStackTrace();
+						sub_paths.add( getSubPath( path, from, i ) );
+						from = i + 1;
 					}
 				}
+				sub_paths.add( getSubPath( path, from, path_length ) );
+
+				cuts++;
+				return sub_paths;
 			}
-			
-			from = cuts.get( cuts.size()-1 ).getDest();
-			to = path.getSink();
-			try {
-				// from and to are inclusive!
-				sub_paths.add( path.getSubPath( from, to ) );
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-			
-			sub_path_combinations.add( sub_paths );
+		};
+	}
+	
+	private static Path getSubPath( Path path, int from, int to ) {
+		try {
+			return path.getSubPath( path.getServer( from ), path.getServer( to ) );
+		} catch ( Exception e ) {
+			// Both servers are on the path in the right order.
+			throw new IllegalStateException( e );
 		}
-
-		return sub_path_combinations;
 	}
 	
+	/**
+	 * Derives the end-to-end left-over service curves of all combinations of sub-paths,
+	 * i.e., of all ways to cut the path at its turns.
+	 * <p>
+	 * The combinations are not enumerated. Instead, the curves of the combinations covering the path's first i servers
+	 * are derived from the ones covering the first j &lt; i servers, each convolved with the left-over service curves
+	 * of the sub-path from server j to server i-1. Thus, each of the n(n+1)/2 sub-paths is analyzed once
+	 * rather than once per combination it is part of. Curves that lie pointwise below another one of
+	 * the same prefix are dropped, neither they nor their convolutions can yield better bounds.
+	 */
 	public Set<ServiceCurve> getServiceCurves( Flow flow_of_interest, Path path, Set<Flow> flows_to_serve ) throws Exception
 	{
-		// Brute-force: Iterate over all binary combinations
-		List<List<Path>> sub_path_combinations = getAllSubPathCombinations( path );
-
-		Set<ServiceCurve> betas_e2e = new HashSet<ServiceCurve>();
-		for ( List<Path> combination : sub_path_combinations ) {					// Every sub_path_combination
-			Set<ServiceCurve> betas_e2e_combination = new HashSet<ServiceCurve>();	// will have a set of end-to-end left-over service curves
-			for ( Path sub_path : combination ) {									// computed as the convolution of its partial left-over service curves.
-				betas_e2e_combination = Calculator.getInstance().getMinPlus().convolve( 
-						betas_e2e_combination, getSubTandemServiceCurves( flow_of_interest, sub_path, new HashSet<Flow>( flows_to_serve ) ));
+		int n = path.numServers();
+		
+		// betas_e2e_prefixes.get( i ): curves of the combinations covering servers 0 to i-1.
+		List<Set<ServiceCurve>> betas_e2e_prefixes = new ArrayList<Set<ServiceCurve>>( n + 1 );
+		betas_e2e_prefixes.add( new HashSet<ServiceCurve>() );
+		for ( int i = 1; i <= n; i++ ) {
+			Set<ServiceCurve> betas_e2e_prefix = new HashSet<ServiceCurve>();
+			for ( int j = 0; j < i; j++ ) {
+				// Convolved in the order of the sub-paths, starting from the path's source.
+				Set<ServiceCurve> betas_sub_path = getSubTandemServiceCurves( flow_of_interest, getSubPath( path, j, i - 1 ), new HashSet<Flow>( flows_to_serve ) );
+				betas_e2e_prefix.addAll( Calculator.getInstance().getMinPlus().convolve( betas_e2e_prefixes.get( j ), betas_sub_path ) );
 			}
-			betas_e2e.addAll( betas_e2e_combination );
+			betas_e2e_prefixes.add( pruneDominated( betas_e2e_prefix ) );
 		}
 
-		return betas_e2e;
+		return betas_e2e_prefixes.get( n );
+	}
+	
+	private static Set<ServiceCurve> pruneDominated( Set<ServiceCurve> betas ) {
+		if ( betas.size() < 2 ) {
+			return betas;
+		}
+		
+		Set<ServiceCurve> betas_nondominated = new HashSet<ServiceCurve>();
+		for ( ServiceCurve beta : betas ) {
+			boolean dominated = false;
+			for ( ServiceCurve beta_other : betas ) {
+				if ( beta_other != beta && ArrivalBoundPruning.isLeq( beta, beta_other ) && !ArrivalBoundPruning.isLeq( beta_other, beta ) ) {
+					dominated = true;
+					break;
+				}
+			}
+			if ( !dominated ) {
+				betas_nondominated.add( beta );
+			}
+		}
+		return betas_nondominated;
 	}
 	
 	
@@ -241,7 +275,7 @@ public class TandemMatchingAnalysis extends AbstractTandemAnalysis {
 
 			Path foi_path = flow_of_interest.getPath();
 			
-	 		if( foi_path.getTurns().contains( entry.getKey().getFirst() ) ) {
+	 		if( foi_path.contains( entry.getKey().getFirst() ) ) {
 	 			alphas_xf_group = ArrivalBoundDispatch.computeArrivalBounds( server_graph, configuration, path_src, entry.getValue(), flow_of_interest );
 	 		} else {
 	 			// We are leaving the flow_of_interest's path with this arrival bounding.
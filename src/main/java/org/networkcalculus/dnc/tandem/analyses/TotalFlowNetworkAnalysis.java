@@ -0,0 +1,281 @@
+/*
+ * This file is part of the Deterministic Network Calculator (DNC).
+ *
+ * Copyright (C) 2019+ The DNC contributors
+ *
+ * http://networkcalculus.org
+ *
+ *
+ * The Deterministic Network Calculator (DNC) is free software;
+ * you can redistribute it and/or modify it under the terms of the 
+ * GNU Lesser General Public License as published by the Free Software Foundation; 
+ * either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+
+
+package org.networkcalculus.dnc.tandem.analyses;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.math3.util.Pair;
+
+import org.networkcalculus.dnc.AnalysisConfig;
+import org.networkcalculus.dnc.CalculationContext;
+import org.networkcalculus.dnc.Calculator;
+import org.networkcalculus.dnc.feedforward.ArrivalBoundDispatch;
+import org.networkcalculus.dnc.feedforward.ArrivalBoundPrecomputation;
+import org.networkcalculus.dnc.network.server_graph.Flow;
+import org.networkcalculus.dnc.network.server_graph.Path;
+import org.networkcalculus.dnc.network.server_graph.Server;
+import org.networkcalculus.dnc.network.server_graph.ServerGraph;
+import org.networkcalculus.num.Num;
+
+/**
+ * Total flow analysis of all flows of a server graph at once.
+ * <p>
+ * The local delay and backlog bounds the {@link TotalFlowAnalysis} derives at a server
+ * do not depend on the flow of interest. This analysis derives them once per server,
+ * level by level in topological order such that the arrival bound cache already holds
+ * the upstream bounds, and the servers of a level in parallel. A flow's delay bound is
+ * the sum of the servers' delay bounds along its path, its backlog bound their maximum.
+ * <p>
+ * The per-server bounds are kept as doubles. With the default RealDouble backend,
+ * the flows' bounds equal the ones of the {@link TotalFlowAnalysis}.
+ * Once the server graph changed, <code>reanalyze</code> updates the bounds of the servers affected by the change.
+ */
+public class TotalFlowNetworkAnalysis {
+    private ServerGraph server_graph;
+    private AnalysisConfig configuration;
+    private ForkJoinPool pool;
+
+    private Map<Server, Integer> map__server__index = Collections.emptyMap();
+    private double[] server_delay_bounds = new double[0];
+    private double[] server_backlog_bounds = new double[0];
+    private Exception[] server_failures = new Exception[0];
+
+    public TotalFlowNetworkAnalysis(ServerGraph server_graph) {
+        this(server_graph, new AnalysisConfig());
+    }
+
+    public TotalFlowNetworkAnalysis(ServerGraph server_graph, AnalysisConfig configuration) {
+        this(server_graph, configuration, ForkJoinPool.commonPool());
+    }
+
+    public TotalFlowNetworkAnalysis(ServerGraph server_graph, AnalysisConfig configuration, ForkJoinPool pool) {
+        this.server_graph = server_graph;
+        this.configuration = configuration;
+        this.pool = pool;
+    }
+
+    public ServerGraph getServerGraph() {
+        return server_graph;
+    }
+
+    /**
+     * Derives the local delay and backlog bounds of all servers.
+     * <p>
+     * An exception thrown at a server does not stop the others, it is raised
+     * when a bound of the server or of a flow crossing it is requested.
+     *
+     * @throws Exception The server graph is not feed-forward.
+     */
+    public void performAnalysis() throws Exception {
+        performAnalysis(null);
+    }
+
+    /**
+     * Updates the bounds after the server graph changed, e.g., in a what-if loop.
+     * <p>
+     * The cached data depending on the changed servers is invalidated, see
+     * {@link ArrivalBoundDispatch#invalidate(ServerGraph, Collection)}. The bounds of
+     * the changed servers, the servers downstream of them and servers added since the last
+     * analysis are derived again, the ones of all other servers are kept.
+     *
+     * @param changed_servers The servers that changed or that flows were added to or removed from.
+     * @throws Exception The server graph is not feed-forward.
+     */
+    public void reanalyze(Collection<Server> changed_servers) throws Exception {
+        performAnalysis(ArrivalBoundDispatch.invalidate(server_graph, changed_servers));
+    }
+
+    /**
+     * @param servers_to_bound The servers to derive the bounds of in addition to servers without bounds,
+     *                         <code>null</code> for all servers.
+     */
+    private void performAnalysis(Set<Server> servers_to_bound) throws Exception {
+        List<List<Server>> levels = ArrivalBoundPrecomputation.getTopologicalLevels(server_graph);
+
+        Map<Server, Integer> server_indices = new HashMap<Server, Integer>();
+        for (List<Server> level : levels) {
+            for (Server server : level) {
+                server_indices.put(server, server_indices.size());
+            }
+        }
+        double[] delay_bounds = new double[server_indices.size()];
+        double[] backlog_bounds = new double[server_indices.size()];
+        Exception[] failures = new Exception[server_indices.size()];
+
+        CalculationContext context = CalculationContext.copyOfCurrent();
+        for (List<Server> level : levels) {
+            List<ServerBounds> tasks = new ArrayList<ServerBounds>(level.size());
+            for (Server server : level) {
+                int index = server_indices.get(server);
+                Integer index_prev = map__server__index.get(server);
+                if (servers_to_bound == null || index_prev == null || servers_to_bound.contains(server)) {
+                    tasks.add(new ServerBounds(server, index, context, delay_bounds, backlog_bounds, failures));
+                } else {
+                    delay_bounds[index] = server_delay_bounds[index_prev];
+                    backlog_bounds[index] = server_backlog_bounds[index_prev];
+                    failures[index] = server_failures[index_prev];
+                }
+            }
+
+            if (tasks.isEmpty()) {
+                continue;
+            }
+            if (ForkJoinTask.getPool() == pool) {
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+            }
+        }
+
+        map__server__index = server_indices;
+        server_delay_bounds = delay_bounds;
+        server_backlog_bounds = backlog_bounds;
+        server_failures = failures;
+    }
+
+    public double getServerDelayBound(Server server) throws Exception {
+        return server_delay_bounds[getServerIndex(server)];
+    }
+
+    public double getServerBacklogBound(Server server) throws Exception {
+        return server_backlog_bounds[getServerIndex(server)];
+    }
+
+    public Num getDelayBound(Flow flow) throws Exception {
+        return getDelayBound(flow.getPath());
+    }
+
+    /**
+     * @param path The path to bound the delay on.
+     * @return The sum of the local delay bounds of the path's servers.
+     * @throws Exception The analysis failed at a server of the path.
+     */
+    public Num getDelayBound(Path path) throws Exception {
+        double delay_bound = 0.0;
+        for (int i = 0; i < path.numServers(); i++) {
+            delay_bound += server_delay_bounds[getServerIndex(path.getServer(i))];
+        }
+        return Num.getFactory(Calculator.getInstance().getNumBackend()).create(delay_bound);
+    }
+
+    public Num getBacklogBound(Flow flow) throws Exception {
+        return getBacklogBound(flow.getPath());
+    }
+
+    /**
+     * @param path The path to bound the backlog on.
+     * @return The maximum of the local backlog bounds of the path's servers.
+     * @throws Exception The analysis failed at a server of the path.
+     */
+    public Num getBacklogBound(Path path) throws Exception {
+        double backlog_bound = 0.0;
+        for (int i = 0; i < path.numServers(); i++) {
+            backlog_bound = Math.max(backlog_bound, server_backlog_bounds[getServerIndex(path.getServer(i))]);
+        }
+        return Num.getFactory(Calculator.getInstance().getNumBackend()).create(backlog_bound);
+    }
+
+    /**
+     * @param flows The flows to bound.
+     * @return Mapping from each flow to its delay and backlog bound in the order of <code>flows</code>.
+     * Flows crossing a server the analysis failed at are left out.
+     */
+    public Map<Flow, Pair<Num, Num>> getBounds(Collection<Flow> flows) {
+        Map<Flow, Pair<Num, Num>> bounds = new LinkedHashMap<Flow, Pair<Num, Num>>();
+        for (Flow flow : flows) {
+            try {
+                bounds.put(flow, new Pair<Num, Num>(getDelayBound(flow), getBacklogBound(flow)));
+            } catch (Exception e) {
+                // The failure is raised again when the flow's bounds are requested on their own.
+            }
+        }
+        return bounds;
+    }
+
+    private int getServerIndex(Server server) throws Exception {
+        Integer index = map__server__index.get(server);
+        if (index == null) {
+            throw new Exception("No bounds derived for server " + server.toShortString());
+        }
+        if (server_failures[index] != null) {
+            throw server_failures[index];
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + configuration + ")";
+    }
+
+    @SuppressWarnings("serial")
+    private class ServerBounds extends RecursiveAction {
+        private final Server server;
+        private final int index;
+        private final CalculationContext context;
+        private final double[] delay_bounds;
+        private final double[] backlog_bounds;
+        private final Exception[] failures;
+
+        ServerBounds(Server server, int index, CalculationContext context,
+                     double[] delay_bounds, double[] backlog_bounds, Exception[] failures) {
+            this.server = server;
+            this.index = index;
+            this.context = context;
+            this.delay_bounds = delay_bounds;
+            this.backlog_bounds = backlog_bounds;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                // Workers use the calculation settings of the thread that called performAnalysis().
+                Pair<Num, Num> min_D_B = context.call(() ->
+                        new TotalFlowAnalysis(server_graph, configuration).deriveBoundsAtServer(server));
+                delay_bounds[index] = min_D_B.getFirst().doubleValue();
+                backlog_bounds[index] = min_D_B.getSecond().doubleValue();
+            } catch (Exception e) {
+                failures[index] = e;
+            }
+        }
+    }
+}
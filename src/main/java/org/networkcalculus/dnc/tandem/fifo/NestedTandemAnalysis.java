@@ -9,7 +9,6 @@ import org.networkcalculus.dnc.bounds.disco.pw_affine.LeftOverService_Disco_PwAf
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.ServiceCurve;
-import org.networkcalculus.dnc.curves.disco.pw_affine.Curve_Disco_PwAffine;
 import org.networkcalculus.dnc.network.server_graph.Flow;
 import org.networkcalculus.dnc.network.server_graph.Path;
 import org.networkcalculus.dnc.network.server_graph.Server;
@@ -36,7 +35,7 @@ public class NestedTandemAnalysis {
     // represents the nesting tree of the given non-nested tandem
     private TNode nestingTree;
 
-    private static boolean compute_flows_without_foi_ordered = false; // don't change
+    private boolean compute_flows_without_foi_ordered = false; // don't change
 
     private static final boolean flows_without_foi_ordered_tree = true; // don't change, same order as bottom up call order in tree (like in the construction of the nesting tree)
 
@@ -225,8 +224,7 @@ public class NestedTandemAnalysis {
                         ServiceCurve sc = child.getLeftover();
                         Num burst = ac.getBurst();
 
-                        Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc;
-                        flow_theta = curve.f_inv(burst);
+                        flow_theta = sc.f_inv(burst);
 
 
                         lb_thetas_global_min_so_far.put(((Flow) child.getInf()), flow_theta);
@@ -1095,8 +1093,7 @@ public class NestedTandemAnalysis {
                     ServiceCurve sc = child.getLeftover();
                     Num burst = ac.getBurst(); // We assume that all rates of the ac are smaller than all the rates of the sc (ignoring the null-rates of course)
 
-                    Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc;
-                    Num curr_lb = curve.f_inv(burst);
+                    Num curr_lb = sc.f_inv(burst);
 
                     // use a theta from the map "thetas"
                     Flow flow = (Flow) child.getInf();
@@ -16,7 +16,6 @@ import org.networkcalculus.dnc.bounds.disco.pw_affine.LeftOverService_Disco_PwAf
 import org.networkcalculus.dnc.curves.ArrivalCurve;
 import org.networkcalculus.dnc.curves.Curve;
 import org.networkcalculus.dnc.curves.ServiceCurve;
-import org.networkcalculus.dnc.curves.disco.pw_affine.Curve_Disco_PwAffine;
 import org.networkcalculus.dnc.feedforward.ArrivalBoundDispatchFIFO;
 import org.networkcalculus.dnc.network.server_graph.Flow;
 import org.networkcalculus.dnc.network.server_graph.Path;
@@ -305,9 +304,7 @@ public class NonNestedTandemAnalysis {
                     ServiceCurve sc_foi_child = beta_lo_child;
                     Num burst = ac.getBurst();
 
-                    Curve_Disco_PwAffine curve = (Curve_Disco_PwAffine) sc_foi_child;
-
-                    Num theta_curr_lb = curve.f_inv(burst);
+                    Num theta_curr_lb = sc_foi_child.f_inv(burst);
                     ServiceCurve subtandem_foi_lo = LeftOverService_Disco_PwAffine.fifoMux(beta_lo_child, foi_child_flow.getArrivalCurve(), theta_curr_lb);
                     leftover_sc = Calculator.getInstance().getMinPlus().convolve(leftover_sc, subtandem_foi_lo);
                 }